@@ -5,6 +5,8 @@ package datorum.app;
 
 import datorum.list.LinkedList;
 
+import java.util.Arrays;
+
 import static datorum.utilities.StringUtils.join;
 import static datorum.utilities.StringUtils.split;
 import static datorum.app.MessageUtils.getMessage;
@@ -13,9 +15,21 @@ import org.apache.commons.text.WordUtils;
 
 public class App {
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("batch")) {
+            BatchProcessor.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        System.out.println(normalize(getMessage()));
+    }
+
+    /**
+     * Collapses the runs of spaces in the text and capitalizes its words.
+     */
+    static String normalize(CharSequence text) {
         LinkedList tokens;
-        tokens = split(getMessage());
+        tokens = split(text, " ");
         String result = join(tokens);
-        System.out.println(WordUtils.capitalize(result));
+        return WordUtils.capitalize(result);
     }
 }
@@ -0,0 +1,278 @@
+package datorum.app;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Normalizes the lines of text files like {@link App} normalizes its message, writing each input file to a file of
+ * the same name in the output directory.
+ * <p>
+ * Inputs are memory-mapped in windows of up to a gigabyte, so files of any size are read without copying them onto
+ * the heap, and lines are decoded straight from the mapping. Files are processed in parallel, one per thread, and each
+ * writes its output through its own buffer to a {@link FileChannel}. Lines are separated by {@code '\n'}, and every
+ * output line ends with one.
+ */
+public class BatchProcessor {
+    private static final int DEFAULT_WINDOW_SIZE = 1 << 30;
+
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private final Path outputDirectory;
+
+    private final int threads;
+
+    private final int windowSize;
+
+    private final int bufferSize;
+
+    public BatchProcessor(Path outputDirectory, int threads) {
+        this(outputDirectory, threads, DEFAULT_WINDOW_SIZE, DEFAULT_BUFFER_SIZE);
+    }
+
+    BatchProcessor(Path outputDirectory, int threads, int windowSize, int bufferSize) {
+        if (outputDirectory == null) {
+            throw new IllegalArgumentException("outputDirectory cannot be null");
+        }
+
+        if (threads < 1 || windowSize < 1 || bufferSize < 1) {
+            throw new IllegalArgumentException("threads, windowSize and bufferSize must be positive");
+        }
+
+        this.outputDirectory = outputDirectory;
+        this.threads = threads;
+        this.windowSize = windowSize;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Usage: {@code batch <output directory> <input file>...}
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: batch <output directory> <input file>...");
+            System.exit(2);
+        }
+
+        List<Path> inputs = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            inputs.add(Path.of(args[i]));
+        }
+
+        BatchProcessor processor = new BatchProcessor(Path.of(args[0]), Runtime.getRuntime().availableProcessors());
+        Result result = processor.process(inputs);
+        System.out.printf("Processed %d lines (%.1f MB) from %d files in %.2f s, %.0f lines/s%n",
+                result.lines(), result.bytes() / 1e6, result.files(), result.elapsedNanos() / 1e9,
+                result.linesPerSecond());
+    }
+
+    public Result process(List<Path> inputs) {
+        if (inputs == null) {
+            throw new IllegalArgumentException("inputs cannot be null");
+        }
+
+        long start = System.nanoTime();
+        List<Path> outputs;
+        try {
+            Files.createDirectories(outputDirectory);
+            outputs = outputs(inputs);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, inputs.size())));
+        try {
+            List<Future<long[]>> files = new ArrayList<>();
+            for (int i = 0; i < inputs.size(); i++) {
+                Path input = inputs.get(i);
+                Path output = outputs.get(i);
+                files.add(executor.submit(() -> process(input, output)));
+            }
+
+            long lines = 0;
+            long bytes = 0;
+            for (Future<long[]> file : files) {
+                long[] counts = file.get();
+                lines += counts[0];
+                bytes += counts[1];
+            }
+
+            return new Result(inputs.size(), lines, bytes, System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while processing files", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Failed to process files", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the output file of each input, checking that no output overwrites an input or another output before
+     * any file is truncated.
+     */
+    private List<Path> outputs(List<Path> inputs) throws IOException {
+        List<Path> outputs = new ArrayList<>();
+        Set<Path> names = new HashSet<>();
+        for (Path input : inputs) {
+            if (input == null || input.getFileName() == null) {
+                throw new IllegalArgumentException("inputs cannot contain null or a root");
+            }
+            if (!names.add(input.getFileName())) {
+                throw new IllegalArgumentException("Several inputs are named " + input.getFileName()
+                        + ", so they would be written to the same output file");
+            }
+            outputs.add(outputDirectory.resolve(input.getFileName()));
+        }
+
+        for (Path output : outputs) {
+            if (!Files.exists(output)) {
+                continue;
+            }
+            for (Path input : inputs) {
+                if (Files.exists(input) && Files.isSameFile(input, output)) {
+                    throw new IllegalArgumentException("The output " + output + " is the input " + input);
+                }
+            }
+        }
+        return outputs;
+    }
+
+    /**
+     * Normalizes the input into the output, returning the number of lines and of input bytes.
+     */
+    private long[] process(Path input, Path output) {
+        try (FileChannel in = FileChannel.open(input, READ);
+             FileChannel out = FileChannel.open(output, WRITE, CREATE, TRUNCATE_EXISTING)) {
+            Writer writer = new Writer(out, bufferSize);
+            CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            CharBuffer line = CharBuffer.allocate(256);
+
+            long size = in.size();
+            long lines = 0;
+            long position = 0;
+            while (position < size) {
+                int length = (int) Math.min(windowSize, size - position);
+                boolean last = position + length == size;
+                MappedByteBuffer window = in.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+                int lineStart = 0;
+                for (int i = 0; i < length; i++) {
+                    if (window.get(i) == '\n') {
+                        line = decode(decoder, window.slice(lineStart, i - lineStart), line);
+                        writer.write(App.normalize(line));
+                        lineStart = i + 1;
+                        lines++;
+                    }
+                }
+
+                if (last && lineStart < length) {
+                    line = decode(decoder, window.slice(lineStart, length - lineStart), line);
+                    writer.write(App.normalize(line));
+                    lineStart = length;
+                    lines++;
+                } else if (lineStart == 0 && !last) {
+                    throw new IllegalStateException("Line at offset " + position + " of " + input
+                            + " is longer than " + windowSize + " bytes");
+                }
+
+                // The next window starts at the line that did not end in this one
+                position += lineStart;
+            }
+
+            writer.flush();
+            return new long[]{lines, size};
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Decodes the bytes into the buffer, growing it when needed, and returns the buffer ready to be read.
+     */
+    private static CharBuffer decode(CharsetDecoder decoder, ByteBuffer bytes, CharBuffer chars) {
+        // A UTF-8 line never has more characters than bytes
+        if (chars.capacity() < bytes.remaining()) {
+            chars = CharBuffer.allocate(Math.max(bytes.remaining(), chars.capacity() * 2));
+        }
+
+        chars.clear();
+        decoder.reset();
+        decoder.decode(bytes, chars, true);
+        decoder.flush(chars);
+        return chars.flip();
+    }
+
+    public record Result(int files, long lines, long bytes, long elapsedNanos) {
+        public double linesPerSecond() {
+            return elapsedNanos == 0 ? 0 : lines * 1e9 / elapsedNanos;
+        }
+    }
+
+    private static class Writer {
+        private final FileChannel channel;
+
+        private final ByteBuffer buffer;
+
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        Writer(FileChannel channel, int bufferSize) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, 16));
+        }
+
+        void write(String line) throws IOException {
+            CharBuffer chars = CharBuffer.wrap(line);
+            encoder.reset();
+            while (encoder.encode(chars, buffer, true).isOverflow()) {
+                flush();
+            }
+            while (encoder.flush(buffer).isOverflow()) {
+                flush();
+            }
+
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put((byte) '\n');
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
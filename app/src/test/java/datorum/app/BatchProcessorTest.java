@@ -0,0 +1,64 @@
+package datorum.app;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchProcessorTest {
+    @Test void testNormalize() {
+        assertEquals("Hello World!", App.normalize(MessageUtils.getMessage()));
+    }
+
+    @Test void testProcess() throws IOException {
+        Path directory = Files.createTempDirectory("batch");
+        Path first = Files.writeString(directory.resolve("first.log"), "hello   world\n  żółw  ma \n\nlast line");
+        Path second = Files.writeString(directory.resolve("second.log"), "one two\nthree\n");
+        Path output = directory.resolve("out");
+
+        // Small windows and buffers, so lines cross window ends and the buffer is flushed mid-line
+        BatchProcessor.Result result = new BatchProcessor(output, 2, 16, 4).process(List.of(first, second));
+
+        assertEquals(2, result.files());
+        assertEquals(6, result.lines());
+        assertEquals(Files.size(first) + Files.size(second), result.bytes());
+        assertEquals(List.of("Hello World", "Żółw Ma", "", "Last Line"),
+                Files.readAllLines(output.resolve("first.log"), StandardCharsets.UTF_8));
+        assertEquals(List.of("One Two", "Three"), Files.readAllLines(output.resolve("second.log")));
+    }
+
+    @Test void testLineLongerThanWindow() throws IOException {
+        Path directory = Files.createTempDirectory("batch");
+        Path input = Files.writeString(directory.resolve("long.log"), "a very long line\nshort\n");
+
+        BatchProcessor processor = new BatchProcessor(directory.resolve("out"), 1, 8, 64);
+
+        assertThrows(IllegalStateException.class, () -> processor.process(List.of(input)));
+    }
+
+    @Test void testRejectsOutputsOverwritingInputs() throws IOException {
+        Path directory = Files.createTempDirectory("batch");
+        Path input = Files.writeString(directory.resolve("in.log"), "keep   me\n");
+
+        BatchProcessor processor = new BatchProcessor(directory, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> processor.process(List.of(input)));
+        assertEquals("keep   me\n", Files.readString(input));
+    }
+
+    @Test void testRejectsInputsWithTheSameName() throws IOException {
+        Path directory = Files.createTempDirectory("batch");
+        Path first = Files.writeString(Files.createDirectory(directory.resolve("a")).resolve("x.log"), "a\n");
+        Path second = Files.writeString(Files.createDirectory(directory.resolve("b")).resolve("x.log"), "b\n");
+
+        BatchProcessor processor = new BatchProcessor(directory.resolve("out"), 2);
+
+        assertThrows(IllegalArgumentException.class, () -> processor.process(List.of(first, second)));
+        assertFalse(Files.exists(directory.resolve("out").resolve("x.log")));
+    }
+}
@@ -0,0 +1,48 @@
+package datorum.benchmarks;
+
+import io.beandev.datorum.migration.AggregateSnapshot;
+import io.beandev.datorum.schema.Aggregate;
+import io.beandev.datorum.schema.App;
+import io.beandev.datorum.schema.Attribute;
+import io.beandev.datorum.schema.Context;
+import io.beandev.datorum.schema.Entity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class AggregateSnapshotBenchmark {
+    @Param({"1", "16"})
+    private int entities;
+
+    @Param({"8", "64"})
+    private int attributesPerEntity;
+
+    private AggregateSnapshot snapshot;
+
+    @Setup
+    public void setUp() {
+        Aggregate aggregate = new Aggregate(1, "Order", new Context(1, "Sales", new App(1, "Shop")));
+        Entity[] entityArray = new Entity[entities];
+        Attribute[] attributeArray = new Attribute[entities * attributesPerEntity];
+        for (int e = 0; e < entities; e++) {
+            entityArray[e] = new Entity(e + 1, "Entity" + e, aggregate, e == 0);
+            for (int a = 0; a < attributesPerEntity; a++) {
+                int id = e * attributesPerEntity + a + 1;
+                attributeArray[id - 1] = new Attribute(id, "attribute" + a,
+                        new Attribute.DataType(Attribute.DataType.Type.STRING, 255), entityArray[e]);
+            }
+        }
+        snapshot = new AggregateSnapshot(aggregate, entityArray, attributeArray);
+    }
+
+    @Benchmark
+    public String hash() {
+        return snapshot.hash();
+    }
+}
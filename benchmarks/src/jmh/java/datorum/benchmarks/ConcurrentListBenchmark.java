@@ -0,0 +1,77 @@
+package datorum.benchmarks;
+
+import datorum.list.ConcurrentLinkedList;
+import datorum.list.LinkedList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Token lists shared by worker threads: the lock-free list against a LinkedList behind a global lock.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Threads(4)
+public class ConcurrentListBenchmark {
+    @Param({"64", "4096"})
+    private int size;
+
+    private ConcurrentLinkedList concurrent;
+
+    private Collection<String> synchronizedList;
+
+    @Setup
+    public void setUp() {
+        concurrent = new ConcurrentLinkedList();
+        synchronizedList = Collections.synchronizedList(new LinkedList());
+        for (int i = 0; i < size; i++) {
+            concurrent.add("token" + i);
+            synchronizedList.add("token" + i);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Worker {
+        private static final AtomicInteger IDS = new AtomicInteger();
+
+        private final String token = "worker" + IDS.incrementAndGet();
+    }
+
+    @Benchmark
+    public boolean concurrentAddRemove(Worker worker) {
+        concurrent.add(worker.token);
+        return concurrent.remove(worker.token);
+    }
+
+    @Benchmark
+    public boolean synchronizedAddRemove(Worker worker) {
+        synchronizedList.add(worker.token);
+        return synchronizedList.remove(worker.token);
+    }
+
+    @Benchmark
+    public void concurrentIterate(Blackhole blackhole) {
+        for (String token : concurrent) {
+            blackhole.consume(token);
+        }
+    }
+
+    @Benchmark
+    public void synchronizedIterate(Blackhole blackhole) {
+        synchronized (synchronizedList) {
+            for (String token : synchronizedList) {
+                blackhole.consume(token);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package datorum.benchmarks;
+
+import io.beandev.datorum.data.AttributeRecord;
+import io.beandev.datorum.data.BigId;
+import io.beandev.datorum.data.EntityRecord;
+import io.beandev.datorum.data.Event;
+import io.beandev.datorum.migration.Difference;
+import io.beandev.datorum.schema.Aggregate;
+import io.beandev.datorum.schema.App;
+import io.beandev.datorum.schema.Attribute;
+import io.beandev.datorum.schema.Context;
+import io.beandev.datorum.schema.Entity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConstructionBenchmark {
+    private static final Attribute.DataType DATA_TYPE = new Attribute.DataType(Attribute.DataType.Type.DECIMAL, 10, 2);
+
+    private Attribute attribute;
+
+    private EntityRecord entityRecord;
+
+    private long id;
+
+    @Setup
+    public void setUp() {
+        Entity entity = new Entity(1, "Order", new Aggregate(1, "Order", new Context(1, "Sales", new App(1, "Shop"))),
+                true);
+        attribute = new Attribute(1, "total", new Attribute.DataType(Attribute.DataType.Type.LONG), entity);
+        entityRecord = new EntityRecord(new BigId(1), entity, null, "order-1");
+    }
+
+    @Benchmark
+    public Difference difference() {
+        return new Difference(++id, "total", io.beandev.datorum.migration.Scope.ATTRIBUTE,
+                Difference.Action.CHANGE_DATA_TYPE, DATA_TYPE, null, null);
+    }
+
+    @Benchmark
+    public Event event() {
+        BigId eventId = new BigId(++id);
+        AttributeRecord record = new AttributeRecord(new BigId(id), id, attribute, entityRecord, id);
+        return new Event(eventId, new Event.Operation[]{
+                new Event.Operation(Event.Operator.UPDATE, new Event.Operand(record))
+        });
+    }
+}
@@ -0,0 +1,66 @@
+package datorum.benchmarks;
+
+import datorum.list.LinkedList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class LinkedListBenchmark {
+    @Param({"16", "1024", "100000"})
+    private int size;
+
+    private String[] elements;
+
+    private LinkedList list;
+
+    @Setup
+    public void setUp() {
+        elements = new String[size];
+        list = new LinkedList();
+        for (int i = 0; i < size; i++) {
+            elements[i] = "element" + i;
+            list.add(elements[i]);
+        }
+    }
+
+    @Benchmark
+    public LinkedList add() {
+        LinkedList result = new LinkedList();
+        for (String element : elements) {
+            result.add(element);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public void get(Blackhole blackhole) {
+        for (int i = 0; i < size; i++) {
+            blackhole.consume(list.get(i));
+        }
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        for (String element : list) {
+            blackhole.consume(element);
+        }
+    }
+
+    @Benchmark
+    public int size() {
+        return list.size();
+    }
+
+    @Benchmark
+    public boolean removeLast() {
+        LinkedList result = add();
+        return result.remove(elements[size - 1]);
+    }
+}
@@ -0,0 +1,169 @@
+package datorum.benchmarks;
+
+import datorum.utilities.primitive.BigIdMap;
+import datorum.utilities.primitive.LongHashSet;
+import datorum.utilities.primitive.LongLongMap;
+import datorum.utilities.primitive.LongObjectMap;
+import io.beandev.datorum.data.BigId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Lookups and inserts of id-keyed tables: the primitive collections against HashMap and HashSet with boxed keys.
+ * Lookups go through the keys in random order, so large tables are measured with cache misses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class PrimitiveMapBenchmark {
+    private static final int LOOKUPS = 1024;
+
+    @Param({"1000", "1000000"})
+    private int size;
+
+    private long[] ids;
+
+    private long[] lookups;
+
+    private LongObjectMap<Object> longObjectMap;
+
+    private Map<Long, Object> longObjectHashMap;
+
+    private LongLongMap longLongMap;
+
+    private Map<Long, Long> longLongHashMap;
+
+    private BigIdMap<Object> bigIdMap;
+
+    private Map<BigId, Object> bigIdHashMap;
+
+    private LongHashSet longHashSet;
+
+    private Set<Long> longSet;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        ids = new long[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = random.nextLong();
+        }
+        lookups = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            lookups[i] = ids[random.nextInt(size)];
+        }
+
+        longObjectMap = new LongObjectMap<>();
+        longObjectHashMap = new HashMap<>();
+        longLongMap = new LongLongMap();
+        longLongHashMap = new HashMap<>();
+        bigIdMap = new BigIdMap<>();
+        bigIdHashMap = new HashMap<>();
+        longHashSet = new LongHashSet();
+        longSet = new HashSet<>();
+        for (long id : ids) {
+            longObjectMap.put(id, Boolean.TRUE);
+            longObjectHashMap.put(id, Boolean.TRUE);
+            longLongMap.put(id, id);
+            longLongHashMap.put(id, id);
+            bigIdMap.put(id >>> 48, id, Boolean.TRUE);
+            bigIdHashMap.put(new BigId(id >>> 48, id), Boolean.TRUE);
+            longHashSet.add(id);
+            longSet.add(id);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void longObjectMapGet(Blackhole blackhole) {
+        for (long id : lookups) {
+            blackhole.consume(longObjectMap.get(id));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void longObjectHashMapGet(Blackhole blackhole) {
+        for (long id : lookups) {
+            blackhole.consume(longObjectHashMap.get(id));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void longLongMapGet(Blackhole blackhole) {
+        for (long id : lookups) {
+            blackhole.consume(longLongMap.get(id));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void longLongHashMapGet(Blackhole blackhole) {
+        for (long id : lookups) {
+            blackhole.consume(longLongHashMap.get(id));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void bigIdMapGet(Blackhole blackhole) {
+        for (long id : lookups) {
+            blackhole.consume(bigIdMap.get(id >>> 48, id));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void bigIdHashMapGet(Blackhole blackhole) {
+        for (long id : lookups) {
+            blackhole.consume(bigIdHashMap.get(new BigId(id >>> 48, id)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void longHashSetContains(Blackhole blackhole) {
+        for (long id : lookups) {
+            blackhole.consume(longHashSet.contains(id));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void longSetContains(Blackhole blackhole) {
+        for (long id : lookups) {
+            blackhole.consume(longSet.contains(id));
+        }
+    }
+
+    @Benchmark
+    public LongObjectMap<Object> longObjectMapBuild() {
+        LongObjectMap<Object> result = new LongObjectMap<>();
+        for (long id : ids) {
+            result.put(id, Boolean.TRUE);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Map<Long, Object> longObjectHashMapBuild() {
+        Map<Long, Object> result = new HashMap<>();
+        for (long id : ids) {
+            result.put(id, Boolean.TRUE);
+        }
+        return result;
+    }
+}
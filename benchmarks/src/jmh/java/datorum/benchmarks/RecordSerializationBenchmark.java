@@ -0,0 +1,109 @@
+package datorum.benchmarks;
+
+import io.beandev.datorum.data.AttributeRecord;
+import io.beandev.datorum.data.BigId;
+import io.beandev.datorum.data.EntityRecord;
+import io.beandev.datorum.data.Event;
+import io.beandev.datorum.data.ValueCompression;
+import io.beandev.datorum.data.segment.SegmentEventRepository;
+import io.beandev.datorum.schema.Aggregate;
+import io.beandev.datorum.schema.App;
+import io.beandev.datorum.schema.Attribute;
+import io.beandev.datorum.schema.Context;
+import io.beandev.datorum.schema.Entity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Encoding and decoding of attribute records: value compression and appending events to segment files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class RecordSerializationBenchmark {
+    @Param({"64", "4096"})
+    private int valueLength;
+
+    private final ValueCompression compression = new ValueCompression();
+
+    private Attribute attribute;
+
+    private EntityRecord entityRecord;
+
+    private AttributeRecord.Value value;
+
+    private byte[] packed;
+
+    private Path directory;
+
+    private SegmentEventRepository segments;
+
+    private long id;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Entity entity = new Entity(1, "Document", new Aggregate(1, "Document", new Context(1, "Docs", new App(1, "Wiki"))),
+                true);
+        attribute = new Attribute(1, "body", new Attribute.DataType(Attribute.DataType.Type.STRING), entity);
+        entityRecord = new EntityRecord(new BigId(1), entity, null, "document-1");
+
+        StringBuilder text = new StringBuilder(valueLength);
+        for (int i = 0; text.length() < valueLength; i++) {
+            text.append("word").append(i % 97).append(' ');
+        }
+        value = new AttributeRecord.Value(text.substring(0, valueLength), null);
+        packed = compression.pack(attribute, value);
+    }
+
+    @Setup(Level.Iteration)
+    public void openSegments() throws IOException {
+        directory = Files.createTempDirectory("datorum-benchmark");
+        segments = new SegmentEventRepository(directory, SegmentEventRepository.DEFAULT_SEGMENT_SIZE, false);
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeSegments() throws IOException {
+        segments.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> {
+                try {
+                    Files.delete(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    @Benchmark
+    public byte[] pack() {
+        return compression.pack(attribute, value);
+    }
+
+    @Benchmark
+    public String unpack() {
+        return packed == null ? value.stringValue() : compression.read(attribute.id(), null, null, packed).stringValue();
+    }
+
+    @Benchmark
+    public Event append() {
+        BigId eventId = new BigId(++id);
+        AttributeRecord record = new AttributeRecord(new BigId(id), id, attribute, entityRecord, value);
+        return segments.save(new Event(eventId, new Event.Operation[]{
+                new Event.Operation(Event.Operator.UPDATE, new Event.Operand(record))
+        }));
+    }
+}
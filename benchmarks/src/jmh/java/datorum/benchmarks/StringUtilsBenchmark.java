@@ -0,0 +1,50 @@
+package datorum.benchmarks;
+
+import datorum.list.LinkedList;
+import datorum.utilities.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+public class StringUtilsBenchmark {
+    @Param({"16", "1024", "100000", "1000000"})
+    private int words;
+
+    private String text;
+
+    private LinkedList tokens;
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                builder.append(i % 10 == 0 ? "  " : " ");
+            }
+            builder.append("word").append(i);
+        }
+        text = builder.toString();
+        tokens = StringUtils.split(text);
+    }
+
+    @Benchmark
+    public LinkedList split() {
+        return StringUtils.split(text);
+    }
+
+    @Benchmark
+    public LinkedList parallelSplit() {
+        return StringUtils.parallelSplit(text, " ");
+    }
+
+    @Benchmark
+    public String join() {
+        return StringUtils.join(tokens);
+    }
+}
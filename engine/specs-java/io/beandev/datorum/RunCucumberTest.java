@@ -16,7 +16,7 @@ import static java.lang.System.out;
 @IncludeEngines("cucumber")
 @SelectClasspathResource(".")
 @ConfigurationParameter(key = PLUGIN_PROPERTY_NAME, value = "pretty")
-@ConfigurationParameter(key = "cucumber.filter.tags", value = "not @e2e")
+@ConfigurationParameter(key = "cucumber.filter.tags", value = "not @e2e and not @postgres")
 public class RunCucumberTest {
     @BeforeAll
     public static void beforeAll() {
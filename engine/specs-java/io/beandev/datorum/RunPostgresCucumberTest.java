@@ -0,0 +1,21 @@
+package io.beandev.datorum;
+
+import org.junit.platform.suite.api.ConfigurationParameter;
+import org.junit.platform.suite.api.IncludeEngines;
+import org.junit.platform.suite.api.SelectClasspathResource;
+import org.junit.platform.suite.api.Suite;
+
+import static io.cucumber.junit.platform.engine.Constants.PLUGIN_PROPERTY_NAME;
+
+/**
+ * Runs the {@code @postgres} scenarios, including the {@code @performance} ones, against a local Postgres; run it
+ * with {@code make spec-test}, or with {@code ./gradlew engine:specTest -Ddatorum.postgres.url=...} naming a database
+ * dedicated to the specs.
+ */
+@Suite
+@IncludeEngines("cucumber")
+@SelectClasspathResource(".")
+@ConfigurationParameter(key = PLUGIN_PROPERTY_NAME, value = "pretty")
+@ConfigurationParameter(key = "cucumber.filter.tags", value = "@postgres and not @e2e")
+public class RunPostgresCucumberTest {
+}
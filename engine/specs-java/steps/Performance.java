@@ -0,0 +1,86 @@
+package steps;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import static java.lang.System.out;
+
+/**
+ * Compares the timings of {@code @performance} scenarios with the baseline in {@code performance.properties} next to
+ * the feature files, and collects them in {@code build/reports/performance/timings.properties}.
+ */
+public final class Performance {
+    private static final Properties BASELINE = load();
+
+    private static final Map<String, Double> TIMINGS = new TreeMap<>();
+
+    private Performance() {
+    }
+
+    /**
+     * Fails when the timing exceeds the named baseline by more than the tolerance.
+     */
+    public static void assertWithinBaseline(String name, long nanos) {
+        String baseline = BASELINE.getProperty(name);
+        if (baseline == null) {
+            throw new IllegalStateException("No baseline named " + name + " in performance.properties");
+        }
+
+        double millis = nanos / 1e6;
+        double limit = Double.parseDouble(baseline) * (1 + tolerance());
+        record(name, millis);
+        out.printf("%s took %.1f ms, baseline %s ms, limit %.1f ms%n", name, millis, baseline, limit);
+        if (millis > limit) {
+            throw new AssertionError(String.format("%s took %.1f ms, more than the limit of %.1f ms (baseline %s ms)",
+                    name, millis, limit, baseline));
+        }
+    }
+
+    public static long median(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static double tolerance() {
+        String tolerance = System.getProperty("datorum.performance.tolerance", BASELINE.getProperty("tolerance", "0"));
+        return Double.parseDouble(tolerance);
+    }
+
+    private static synchronized void record(String name, double millis) {
+        TIMINGS.put(name, millis);
+
+        Path file = Path.of("build", "reports", "performance", "timings.properties");
+        try {
+            Files.createDirectories(file.getParent());
+            try (Writer writer = Files.newBufferedWriter(file)) {
+                for (Map.Entry<String, Double> timing : TIMINGS.entrySet()) {
+                    writer.write(String.format("%s=%.0f%n", timing.getKey(), Math.ceil(timing.getValue())));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Properties load() {
+        Properties properties = new Properties();
+        try (InputStream in = Performance.class.getResourceAsStream("/performance.properties")) {
+            if (in == null) {
+                throw new IllegalStateException("performance.properties is missing from the specs");
+            }
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,58 @@
+package steps;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.cucumber.java.AfterAll;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * The local Postgres that {@code @postgres} scenarios run against, set with the {@code datorum.postgres.url},
+ * {@code .user} and {@code .password} system properties.
+ * <p>
+ * Scenarios drop and recreate the datorum schemas, so there is no default URL: it must name a database dedicated to
+ * the specs, such as the {@code datorum_specs} one that {@code make spec-test} creates, and never a shared one.
+ */
+public final class Postgres {
+    private static HikariDataSource dataSource;
+
+    private Postgres() {
+    }
+
+    public static synchronized DataSource dataSource() {
+        if (dataSource == null) {
+            String url = System.getProperty("datorum.postgres.url");
+            if (url == null || url.isBlank()) {
+                throw new IllegalStateException("Set datorum.postgres.url to a database dedicated to the specs, "
+                        + "they drop its datorum schemas");
+            }
+
+            HikariConfig config = new HikariConfig();
+            config.setJdbcUrl(url);
+            config.setUsername(System.getProperty("datorum.postgres.user", "postgres"));
+            config.setPassword(System.getProperty("datorum.postgres.password", "password"));
+            dataSource = new HikariDataSource(config);
+        }
+        return dataSource;
+    }
+
+    public static void execute(String sql) {
+        try (Connection connection = dataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @AfterAll
+    public static synchronized void close() {
+        if (dataSource != null) {
+            dataSource.close();
+            dataSource = null;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package steps.data;
+
+import io.beandev.datorum.data.AttributeRecord;
+import io.beandev.datorum.data.BigId;
+import io.beandev.datorum.data.EntityRecord;
+import io.beandev.datorum.data.Event;
+import io.beandev.datorum.data.EventRepository;
+import io.beandev.datorum.data.jdbc.JdbcEventRepository;
+import io.beandev.datorum.schema.Aggregate;
+import io.beandev.datorum.schema.App;
+import io.beandev.datorum.schema.Attribute;
+import io.beandev.datorum.schema.Context;
+import io.beandev.datorum.schema.Entity;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import steps.Performance;
+import steps.Postgres;
+
+public class EventAppendSteps {
+    private static final int OPERATIONS_PER_EVENT = 4;
+
+    private EventRepository repository;
+
+    private long elapsed;
+
+    @Given("an EventRepository with its base tables")
+    public void anEventRepositoryWithItsBaseTables() {
+        repository = new JdbcEventRepository(Postgres.dataSource());
+        repository.createBaseTables();
+    }
+
+    @When("{int} events are appended")
+    public void eventsAreAppended(int count) {
+        Aggregate aggregate = new Aggregate(1, "Order", new Context(1, "Spec", new App(1, "Spec")));
+        Entity entity = new Entity(1, "Order", aggregate, true);
+        Attribute name = new Attribute(1, "name", new Attribute.DataType(Attribute.DataType.Type.STRING), entity);
+        Attribute quantity = new Attribute(2, "quantity", new Attribute.DataType(Attribute.DataType.Type.LONG), entity);
+
+        // Ids of a new generation, so repeated runs against the same database do not collide
+        long gen = System.currentTimeMillis();
+        long id = 0;
+        Event[] events = new Event[count];
+        for (int i = 0; i < count; i++) {
+            EntityRecord root = new EntityRecord(new BigId(gen, ++id), entity, null, "order-" + i);
+            Event.Operation[] operations = new Event.Operation[OPERATIONS_PER_EVENT];
+            for (int o = 0; o < operations.length; o++) {
+                AttributeRecord record = o % 2 == 0
+                        ? new AttributeRecord(new BigId(gen, ++id), o + 1, name, root, "name-" + i)
+                        : new AttributeRecord(new BigId(gen, ++id), o + 1, quantity, root, (long) i);
+                operations[o] = new Event.Operation(o == 0 ? Event.Operator.CREATE : Event.Operator.UPDATE,
+                        new Event.Operand(record));
+            }
+            events[i] = new Event(new BigId(gen, ++id), operations);
+        }
+
+        long start = System.nanoTime();
+        for (Event event : events) {
+            repository.save(event);
+        }
+        elapsed = System.nanoTime() - start;
+    }
+
+    @Then("the total time is within the {string} baseline")
+    public void theTotalTimeIsWithinTheBaseline(String baseline) {
+        Performance.assertWithinBaseline(baseline, elapsed);
+    }
+}
@@ -1,25 +1,70 @@
 package steps.schema;
 
+import io.beandev.datorum.schema.SchemaRepository;
+import io.beandev.datorum.schema.jdbc.JdbcSchemaRepository;
 import io.cucumber.java.en.And;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.When;
 import io.cucumber.java.en.Then;
+import steps.Performance;
+import steps.Postgres;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class DatabaseDefinitionSteps {
+    private SchemaRepository schemaRepository;
+
+    private long[] timings;
+
     @Given("^a Postgres database without schemas$")
     public void aSchemaWithATable() {
+        Postgres.execute("DROP SCHEMA IF EXISTS \"datorum_schema\" CASCADE");
     }
 
+    @Given("a Postgres database where createBaseTables\\() has been executed")
+    public void aBootstrappedDatabase() {
+        new JdbcSchemaRepository(Postgres.dataSource()).createBaseTables();
+    }
 
     @And("an implementation of SchemaRepository")
     public void anImplementationOfSchemaRepository() {
+        schemaRepository = new JdbcSchemaRepository(Postgres.dataSource());
     }
 
     @When("createBaseTables\\() is executed")
     public void createbasetablesIsExecuted() {
+        schemaRepository.createBaseTables();
+    }
+
+    @When("createBaseTables\\() is executed {int} times")
+    public void createbasetablesIsExecutedTimes(int times) {
+        timings = new long[times];
+        for (int i = 0; i < times; i++) {
+            long start = System.nanoTime();
+            schemaRepository.createBaseTables();
+            timings[i] = System.nanoTime() - start;
+        }
     }
 
     @Then("schema datorum_schema is created")
-    public void schemaIsCreated() {
+    public void schemaIsCreated() throws SQLException {
+        try (Connection connection = Postgres.dataSource().getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT 1 FROM information_schema.schemata WHERE schema_name = ?")) {
+            statement.setString(1, "datorum_schema");
+            try (ResultSet rs = statement.executeQuery()) {
+                assertTrue(rs.next(), "schema datorum_schema does not exist");
+            }
+        }
+    }
+
+    @Then("the median time is within the {string} baseline")
+    public void theMedianTimeIsWithinTheBaseline(String baseline) {
+        Performance.assertWithinBaseline(baseline, Performance.median(timings));
     }
 }
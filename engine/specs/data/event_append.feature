@@ -0,0 +1,7 @@
+@postgres @performance
+Feature: Event appending
+  Rule: Appending events stays within the baseline
+    Scenario: Appending 10k events
+        Given an EventRepository with its base tables
+        When 10000 events are appended
+        Then the total time is within the "data.append.10000" baseline
@@ -1,3 +1,4 @@
+@postgres
 Feature: Schema DB
   Rule: WHILE base tables are missing, THEN create them
     The schema is not empty
@@ -5,4 +6,12 @@ Feature: Schema DB
         Given a Postgres database without schemas
         And an implementation of SchemaRepository
         When createBaseTables() is executed
-        Then schema datorum_schema is created
\ No newline at end of file
+        Then schema datorum_schema is created
+
+  @performance
+  Rule: WHILE base tables exist, THEN createBaseTables() returns within the baseline
+    Scenario: Bootstrapped database
+        Given a Postgres database where createBaseTables() has been executed
+        And an implementation of SchemaRepository
+        When createBaseTables() is executed 20 times
+        Then the median time is within the "schema.createBaseTables.bootstrapped" baseline
@@ -0,0 +1,88 @@
+package io.beandev.datorum.connection;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Streams rows to a Postgres {@code COPY ... FROM STDIN} in its text format, sending them to the driver in chunks of
+ * about 64 KB rather than one call per row.
+ * <p>
+ * Callers append whole lines, tab-separated and ending with {@code '\n'}, to {@link #buffer()} and call
+ * {@link #flushIfFull()} after each one, then {@link #endCopy()}. Closing the writer before that cancels the copy.
+ */
+public final class CopyWriter implements AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final CopyIn copy;
+
+    private final StringBuilder buffer = new StringBuilder(BUFFER_SIZE + 1024);
+
+    public CopyWriter(Connection conn, String sql) throws SQLException {
+        this.copy = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+    }
+
+    public StringBuilder buffer() {
+        return buffer;
+    }
+
+    public void flushIfFull() throws SQLException {
+        if (buffer.length() >= BUFFER_SIZE) {
+            flush();
+        }
+    }
+
+    /**
+     * Sends the buffered lines and completes the copy, returning the number of rows copied.
+     */
+    public long endCopy() throws SQLException {
+        flush();
+        return copy.endCopy();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (copy.isActive()) {
+            copy.cancelCopy();
+        }
+    }
+
+    private void flush() throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    public static void appendNull(StringBuilder line) {
+        line.append("\\N");
+    }
+
+    /**
+     * Appends text with backslash escapes for the backslash and the delimiters of the {@code COPY} text format.
+     */
+    public static void appendText(StringBuilder line, CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> line.append(c);
+            }
+        }
+    }
+
+    /**
+     * Appends bytes in the hex format of {@code bytea}, with its backslash escaped for the {@code COPY} text format.
+     */
+    public static void appendBytes(StringBuilder line, byte[] value) {
+        line.append("\\\\x");
+        for (byte b : value) {
+            line.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package io.beandev.datorum.connection;
 
+import io.beandev.datorum.metrics.Metrics;
+import io.beandev.datorum.metrics.Operation;
+
 import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.Map;
 
 public class DataSourceManager {
+    private static final Operation GET_CONNECTION = Metrics.operation("DataSourceManager.getConnection");
+
     private final Map<String, DataSource> dataSourceMap;
 
     public DataSourceManager(Map<String, DataSource> dsm) {
@@ -30,4 +37,28 @@ public class DataSourceManager {
 
         return dataSourceMap.get(name);
     }
+
+    /**
+     * Acquires a connection from the named data source, recording how long the acquisition took.
+     */
+    public Connection getConnection(String name) throws SQLException {
+        DataSource dataSource = getDataSource(name);
+        if (dataSource == null) {
+            throw new IllegalArgumentException("Unknown data source: " + name);
+        }
+
+        return getConnection(dataSource);
+    }
+
+    /**
+     * Acquires a connection from the data source, recording how long the acquisition took; repositories get their
+     * connections through here.
+     */
+    public static Connection getConnection(DataSource dataSource) throws SQLException {
+        if (dataSource == null) {
+            throw new IllegalArgumentException("dataSource cannot be null");
+        }
+
+        return GET_CONNECTION.time(dataSource::getConnection);
+    }
 }
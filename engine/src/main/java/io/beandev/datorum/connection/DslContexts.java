@@ -0,0 +1,63 @@
+package io.beandev.datorum.connection;
+
+import org.jooq.DSLContext;
+import org.jooq.QueryPart;
+import org.jooq.SQLDialect;
+import org.jooq.conf.ParamType;
+import org.jooq.conf.Settings;
+import org.jooq.conf.StatementType;
+import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DataSourceConnectionProvider;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Function;
+
+/**
+ * Pre-configured {@link DSLContext}s for the jOOQ repositories.
+ * <p>
+ * Each repository creates its context once and keeps it, so configuration, dialect and settings lookups are not
+ * repeated per call, and the context goes away with the repository. Connections are borrowed from the data source
+ * only for the duration of a query or transaction, through {@link DataSourceManager#getConnection(DataSource)} so
+ * their acquisition is recorded like the JDBC repositories' is.
+ * <p>
+ * {@link #render(Function)} renders a query, or any query part, once with {@code ?} bind placeholders, so hot
+ * statements can be kept as constant SQL strings. Constant SQL also lets the Postgres driver reuse its server-side
+ * prepared statements per connection.
+ */
+public final class DslContexts {
+    private static final Settings SETTINGS = new Settings()
+            .withParamType(ParamType.INDEXED)
+            .withStatementType(StatementType.PREPARED_STATEMENT)
+            .withRenderFormatted(false)
+            .withExecuteLogging(false);
+
+    private static final DSLContext RENDERER = DSL.using(SQLDialect.POSTGRES, SETTINGS);
+
+    private DslContexts() {
+    }
+
+    public static DSLContext of(DataSource dataSource) {
+        if (dataSource == null) {
+            throw new IllegalArgumentException("dataSource cannot be null");
+        }
+
+        DataSourceConnectionProvider connections = new DataSourceConnectionProvider(dataSource) {
+            @Override
+            public Connection acquire() {
+                try {
+                    return DataSourceManager.getConnection(dataSource);
+                } catch (SQLException e) {
+                    throw new DataAccessException("Error getting connection from data source " + dataSource, e);
+                }
+            }
+        };
+        return DSL.using(connections, SQLDialect.POSTGRES, SETTINGS);
+    }
+
+    public static String render(Function<DSLContext, ? extends QueryPart> builder) {
+        return RENDERER.render(builder.apply(RENDERER));
+    }
+}
@@ -0,0 +1,25 @@
+package io.beandev.datorum.data;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The current attribute values of the entity records of an aggregate, at a point in its history.
+ *
+ * @param version the highest attribute record version among the values, or 0 when there are none
+ */
+public record AggregateState(BigId rootRecordId,
+                             long version,
+                             List<Value> values) {
+    public AggregateState {
+        values = List.copyOf(values);
+    }
+
+    public record Value(BigId entityRecordId,
+                        long attributeId,
+                        BigId recordId,
+                        long version,
+                        Instant recordedAt,
+                        AttributeRecord.Value value) {
+    }
+}
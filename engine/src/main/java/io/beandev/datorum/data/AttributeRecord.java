@@ -2,6 +2,8 @@ package io.beandev.datorum.data;
 
 import io.beandev.datorum.schema.Attribute;
 
+import java.util.Objects;
+
 public record AttributeRecord(BigId id,
                               long version,
                               Attribute attribute,
@@ -21,7 +23,36 @@ public record AttributeRecord(BigId id,
         this(id, version, attribute, entityRecord, new Value(null, longValue));
     }
 
-    public record Value(String stringValue, Long longValue) {
+    /**
+     * @param packed the compressed form of the string, when the value was read compressed, decompressed by
+     *               {@link #stringValue()} on first access
+     */
+    public record Value(String stringValue, Long longValue, PackedValue packed) {
+        public Value(String stringValue, Long longValue) {
+            this(stringValue, longValue, null);
+        }
+
+        @Override
+        public String stringValue() {
+            return packed != null ? packed.text() : stringValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Value other
+                    && Objects.equals(stringValue(), other.stringValue())
+                    && Objects.equals(longValue, other.longValue);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(stringValue(), longValue);
+        }
+
+        @Override
+        public String toString() {
+            return "Value[stringValue=" + stringValue() + ", longValue=" + longValue + "]";
+        }
     }
 
     public record Causation(Record record, Event event) {
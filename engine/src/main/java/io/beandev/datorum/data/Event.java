@@ -1,21 +1,22 @@
 package io.beandev.datorum.data;
 
+import io.beandev.datorum.logging.Logger;
+import io.beandev.datorum.logging.Logging;
 import io.beandev.datorum.schema.Aggregate;
 
-import static java.lang.System.out;
-
 public record Event(BigId id,
                     BigId correlationId,
                     Causation causation,
                     Operation[] operations) {
+    private static final Logger LOG = Logging.getLogger(Event.class);
+
     public Event {
         // TODO: validate operations
-        out.println("Event.Event");
+        LOG.trace("Event {} created", id);
     }
 
     public Event(BigId id, Operation[] operations) {
         this(id, id, null, operations);
-        out.println("Event.Event[2]");
     }
 
     public record Causation(long eventId,
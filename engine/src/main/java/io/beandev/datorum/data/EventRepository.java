@@ -0,0 +1,46 @@
+package io.beandev.datorum.data;
+
+import io.beandev.datorum.repository.CrudRepository;
+import io.beandev.datorum.schema.Attribute;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface EventRepository extends CrudRepository<Event, BigId> {
+    void createBaseTables();
+
+    /**
+     * Declares a secondary index on the values of the given attribute and builds it for the existing records.
+     * <p>
+     * Writes maintain the index from the moment it is declared, in the same transaction as the event, while existing
+     * records are indexed in small batches. Lookups use the index once the build has completed.
+     *
+     * @throws IllegalArgumentException when the attribute type cannot be indexed
+     */
+    void createIndex(Attribute attribute);
+
+    /**
+     * Returns the ids of the entity records whose current value of the given attribute equals the given value.
+     */
+    List<BigId> findEntityRecordIds(Attribute attribute, Object value);
+
+    /**
+     * Returns the state of the aggregate with the given root record as of the given version, i.e. the latest attribute
+     * record with a version up to {@code version} for each attribute of each of its entity records.
+     * <p>
+     * Attribute record versions are expected to increase with every write to the aggregate. Reads start from the
+     * nearest earlier snapshot, if any, so their cost does not grow with the length of the history.
+     */
+    AggregateState findAsOf(BigId rootRecordId, long version);
+
+    /**
+     * Returns the state of the aggregate with the given root record as of the latest version recorded at or before
+     * the given instant.
+     */
+    AggregateState findAsOf(BigId rootRecordId, Instant instant);
+
+    /**
+     * Stores the state of the aggregate as of the given version, as a starting point for later as-of reads.
+     */
+    void snapshot(BigId rootRecordId, long version);
+}
@@ -0,0 +1,61 @@
+package io.beandev.datorum.data;
+
+import io.beandev.datorum.schema.Attribute;
+
+import java.math.BigDecimal;
+
+/**
+ * The typed column an attribute's values are indexed in, so lookups compare native values instead of text.
+ */
+public enum IndexColumn {
+    BOOLEAN_VALUE,
+    LONG_VALUE,
+    DOUBLE_VALUE,
+    DECIMAL_VALUE,
+    STRING_VALUE;
+
+    public static IndexColumn of(Attribute.DataType.Type type) {
+        return switch (type) {
+            case BOOLEAN -> BOOLEAN_VALUE;
+            case INTEGER, LONG, RELATION -> LONG_VALUE;
+            case FLOAT, DOUBLE -> DOUBLE_VALUE;
+            case DECIMAL -> DECIMAL_VALUE;
+            case STRING -> STRING_VALUE;
+            case BYTES, MAP -> throw new IllegalArgumentException("Attributes of type " + type + " cannot be indexed");
+        };
+    }
+
+    public static IndexColumn of(Attribute attribute) {
+        if (attribute == null || attribute.type() == null) {
+            throw new IllegalArgumentException("attribute and its type cannot be null");
+        }
+
+        return of(attribute.type().type());
+    }
+
+    public Object convert(AttributeRecord.Value value) {
+        if (value == null) {
+            return null;
+        }
+
+        return value.longValue() != null ? convert(value.longValue()) : convert(value.stringValue());
+    }
+
+    public Object convert(Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        return switch (this) {
+            case BOOLEAN_VALUE -> switch (value) {
+                case Boolean b -> b;
+                case Number n -> n.longValue() != 0;
+                default -> Boolean.parseBoolean(value.toString());
+            };
+            case LONG_VALUE -> value instanceof Number n ? n.longValue() : Long.parseLong(value.toString());
+            case DOUBLE_VALUE -> value instanceof Number n ? n.doubleValue() : Double.parseDouble(value.toString());
+            case DECIMAL_VALUE -> value instanceof BigDecimal d ? d : new BigDecimal(value.toString());
+            case STRING_VALUE -> value.toString();
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package io.beandev.datorum.data;
+
+import java.util.function.Function;
+
+/**
+ * A compressed string, decompressed once on first access.
+ */
+public final class PackedValue {
+    private final byte[] bytes;
+
+    private final Function<byte[], String> decoder;
+
+    private volatile String text;
+
+    public PackedValue(byte[] bytes, Function<byte[], String> decoder) {
+        if (bytes == null || decoder == null) {
+            throw new IllegalArgumentException("bytes and decoder cannot be null");
+        }
+
+        this.bytes = bytes;
+        this.decoder = decoder;
+    }
+
+    /**
+     * The stored form, starting with the flag byte of {@link ValueCompression}.
+     */
+    public byte[] bytes() {
+        return bytes.clone();
+    }
+
+    public boolean isDecoded() {
+        return text != null;
+    }
+
+    public String text() {
+        String result = text;
+        if (result == null) {
+            result = decoder.apply(bytes);
+            text = result;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,239 @@
+package io.beandev.datorum.data;
+
+import io.beandev.datorum.schema.Attribute;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses large STRING, BYTES and MAP values with Deflate at its fastest level.
+ * <p>
+ * The stored form starts with a flag byte telling how the rest is encoded, so values written before compression was
+ * enabled, which are kept as plain text, stay readable. An attribute can have a preset dictionary, e.g. from
+ * {@link #trainDictionary(Iterable, int)}, which helps most with many small, similar values. Dictionaries are numbered
+ * per attribute and a compressed value stores the number of its dictionary after the flag byte, {@code 0} for none.
+ * New values use the highest numbered dictionary of their attribute, so a new dictionary is added next to the old
+ * ones, which keep reading the values written with them.
+ */
+public final class ValueCompression {
+    public static final int DEFAULT_THRESHOLD = 1024;
+
+    static final byte RAW = 0;
+
+    static final byte DEFLATE = 1;
+
+    // flag, dictionary id
+    private static final int DEFLATE_HEADER_SIZE = 5;
+
+    private static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+
+    private final int threshold;
+
+    private final Map<Long, Map<Integer, byte[]>> dictionaries;
+
+    private final Map<Long, Integer> currentDictionaries;
+
+    public ValueCompression() {
+        this(DEFAULT_THRESHOLD, Map.of());
+    }
+
+    /**
+     * @param threshold    the size in UTF-8 bytes from which values are compressed
+     * @param dictionaries preset dictionaries by attribute id and then by a positive dictionary id
+     */
+    public ValueCompression(int threshold, Map<Long, Map<Integer, byte[]>> dictionaries) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold cannot be negative");
+        }
+
+        if (dictionaries == null) {
+            throw new IllegalArgumentException("dictionaries cannot be null");
+        }
+
+        this.threshold = threshold;
+        Map<Long, Map<Integer, byte[]>> copy = new HashMap<>();
+        Map<Long, Integer> current = new HashMap<>();
+        dictionaries.forEach((attributeId, versions) -> {
+            Map<Integer, byte[]> versionsCopy = new HashMap<>();
+            versions.forEach((id, dictionary) -> {
+                if (id <= 0 || dictionary == null) {
+                    throw new IllegalArgumentException("Dictionary " + id + " of attribute " + attributeId
+                            + " needs a positive id and bytes");
+                }
+                versionsCopy.put(id, dictionary.clone());
+                current.merge(attributeId, id, Math::max);
+            });
+            copy.put(attributeId, Map.copyOf(versionsCopy));
+        });
+        this.dictionaries = Map.copyOf(copy);
+        this.currentDictionaries = Map.copyOf(current);
+    }
+
+    public static boolean isCompressible(Attribute.DataType.Type type) {
+        return type == Attribute.DataType.Type.STRING
+                || type == Attribute.DataType.Type.BYTES
+                || type == Attribute.DataType.Type.MAP;
+    }
+
+    /**
+     * Returns the stored form of the string of the given value, or {@literal null} when it should be stored as plain
+     * text: for other types, values below the threshold and values that do not shrink.
+     */
+    public byte[] pack(Attribute attribute, AttributeRecord.Value value) {
+        if (value == null) {
+            return null;
+        }
+
+        if (value.packed() != null) {
+            return value.packed().bytes();
+        }
+
+        if (attribute == null || attribute.type() == null || !isCompressible(attribute.type().type())
+                || value.stringValue() == null || value.stringValue().length() < threshold / 3) {
+            return null;
+        }
+
+        byte[] raw = value.stringValue().getBytes(StandardCharsets.UTF_8);
+        if (raw.length < Math.max(threshold, DEFLATE_HEADER_SIZE + 1)) {
+            return null;
+        }
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            int dictionaryId = currentDictionaries.getOrDefault(attribute.id(), 0);
+            byte[] dictionary = dictionaryId == 0 ? null : dictionaries.get(attribute.id()).get(dictionaryId);
+            if (dictionary != null && dictionary.length > 0) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(raw);
+            deflater.finish();
+
+            byte[] packed = new byte[raw.length];
+            ByteBuffer.wrap(packed).put(DEFLATE).putInt(dictionaryId);
+            int length = DEFLATE_HEADER_SIZE;
+            while (!deflater.finished()) {
+                if (length == packed.length) {
+                    return null;
+                }
+                length += deflater.deflate(packed, length, packed.length - length);
+            }
+            return Arrays.copyOf(packed, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Returns a value whose string is decompressed from {@code packed} when first read, or the plain value when
+     * {@code packed} is {@literal null}.
+     */
+    public AttributeRecord.Value read(long attributeId, String stringValue, Long longValue, byte[] packed) {
+        if (packed == null) {
+            return new AttributeRecord.Value(stringValue, longValue);
+        }
+
+        return new AttributeRecord.Value(null, longValue, new PackedValue(packed, bytes -> unpack(attributeId, bytes)));
+    }
+
+    public String unpack(long attributeId, byte[] packed) {
+        if (packed == null || packed.length == 0) {
+            throw new IllegalArgumentException("packed cannot be empty");
+        }
+
+        return switch (packed[0]) {
+            case RAW -> new String(packed, 1, packed.length - 1, StandardCharsets.UTF_8);
+            case DEFLATE -> inflate(attributeId, packed);
+            default -> throw new IllegalStateException("Unknown compression flag " + packed[0]);
+        };
+    }
+
+    private String inflate(long attributeId, byte[] packed) {
+        if (packed.length < DEFLATE_HEADER_SIZE) {
+            throw new IllegalStateException("Compressed value of attribute " + attributeId + " is truncated");
+        }
+
+        int dictionaryId = ByteBuffer.wrap(packed).getInt(1);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(packed, DEFLATE_HEADER_SIZE, packed.length - DEFLATE_HEADER_SIZE);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(packed.length * 4);
+            byte[] buffer = new byte[Math.max(256, Math.min(packed.length * 4, 64 * 1024))];
+            while (!inflater.finished()) {
+                int count = inflater.inflate(buffer);
+                if (count == 0) {
+                    if (inflater.needsDictionary()) {
+                        byte[] dictionary = dictionaries.getOrDefault(attributeId, Map.of()).get(dictionaryId);
+                        if (dictionary == null) {
+                            throw new IllegalStateException("Value of attribute " + attributeId + " needs dictionary "
+                                    + dictionaryId);
+                        }
+                        inflater.setDictionary(dictionary);
+                    } else if (inflater.needsInput()) {
+                        throw new IllegalStateException("Compressed value of attribute " + attributeId + " is truncated");
+                    }
+                }
+                out.write(buffer, 0, count);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Compressed value of attribute " + attributeId + " is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Builds a preset dictionary of at most {@code size} bytes from the most frequent 16-byte substrings of the
+     * samples, the most frequent last, as Deflate encodes nearer matches in fewer bits.
+     */
+    public static byte[] trainDictionary(Iterable<String> samples, int size) {
+        if (samples == null) {
+            throw new IllegalArgumentException("samples cannot be null");
+        }
+
+        if (size <= 0 || size > MAX_DICTIONARY_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_DICTIONARY_SIZE);
+        }
+
+        int length = 16;
+        int budget = 1 << 20;
+        Map<String, Integer> counts = new HashMap<>();
+        for (String sample : samples) {
+            for (int i = 0; i + length <= sample.length() && budget > 0; i += 4, budget -= 4) {
+                counts.merge(sample.substring(i, i + length), 1, Integer::sum);
+            }
+        }
+
+        List<Map.Entry<String, Integer>> frequent = new ArrayList<>(counts.entrySet());
+        frequent.removeIf(entry -> entry.getValue() < 2);
+        frequent.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+
+        List<byte[]> chosen = new ArrayList<>();
+        int total = 0;
+        for (Map.Entry<String, Integer> entry : frequent) {
+            byte[] bytes = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            if (total + bytes.length > size) {
+                break;
+            }
+            chosen.add(bytes);
+            total += bytes.length;
+        }
+
+        byte[] dictionary = new byte[total];
+        int position = 0;
+        for (int i = chosen.size() - 1; i >= 0; i--) {
+            System.arraycopy(chosen.get(i), 0, dictionary, position, chosen.get(i).length);
+            position += chosen.get(i).length;
+        }
+        return dictionary;
+    }
+}
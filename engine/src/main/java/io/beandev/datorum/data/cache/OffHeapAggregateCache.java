@@ -0,0 +1,554 @@
+package io.beandev.datorum.data.cache;
+
+import io.beandev.datorum.data.AggregateState;
+import io.beandev.datorum.data.AttributeRecord;
+import io.beandev.datorum.data.BigId;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * A cache of current aggregate states, encoded outside the Java heap.
+ * <p>
+ * Memory is reserved in slabs of direct buffers, each carved into equal chunks of a power-of-two size class, and a
+ * state is stored in a chunk of the smallest class that fits it. Once every slab is in use, a class reuses the chunk of
+ * a state that was not read since its clock hand last passed it, or takes a slab back from the class holding the most
+ * of them. States larger than a slab are not cached.
+ * <p>
+ * Reads share a read lock and only set the reference bit of the state they read; stores, invalidations and evictions
+ * take the write lock. Concurrent loads of the same missing aggregate share one call of the loader.
+ * <p>
+ * Each encoded state starts with a directory of its values sorted by entity record and attribute, so
+ * {@link #find(BigId, BigId, long)} decodes a single value without decoding the others. The heap only holds the
+ * location of each state.
+ */
+public class OffHeapAggregateCache {
+    public static final int DEFAULT_SLAB_SIZE = 1 << 20;
+
+    private static final int MIN_CHUNK_SIZE = 256;
+
+    // length, value count, version
+    private static final int HEADER_SIZE = 16;
+
+    // entity record gen and num, attribute id, value position
+    private static final int DIRECTORY_ENTRY_SIZE = 28;
+
+    private static final int STRING_VALUE = 1;
+
+    private static final int LONG_VALUE = 2;
+
+    private static final int RECORDED_AT = 4;
+
+    private static final Comparator<AggregateState.Value> VALUE_ORDER = Comparator
+            .comparingLong((AggregateState.Value value) -> value.entityRecordId().gen())
+            .thenComparingLong(value -> value.entityRecordId().num())
+            .thenComparingLong(AggregateState.Value::attributeId);
+
+    private final int slabSize;
+
+    private final int maxSlabs;
+
+    private final SizeClass[] classes;
+
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+
+    private final List<SizeClass> slabOwners = new ArrayList<>();
+
+    private final int[] slabUsage;
+
+    private final Map<BigId, Slot> locations = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final ConcurrentMap<BigId, CompletableFuture<AggregateState>> loads = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private long evictions;
+
+    public OffHeapAggregateCache(long capacity) {
+        this(capacity, DEFAULT_SLAB_SIZE);
+    }
+
+    /**
+     * @param capacity the off-heap memory to use, rounded down to whole slabs
+     * @param slabSize a power of two, and the largest encoded state that can be cached
+     */
+    public OffHeapAggregateCache(long capacity, int slabSize) {
+        if (slabSize < MIN_CHUNK_SIZE || Integer.bitCount(slabSize) != 1) {
+            throw new IllegalArgumentException("slabSize must be a power of two of at least " + MIN_CHUNK_SIZE);
+        }
+
+        if (capacity < slabSize || capacity / slabSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("capacity must hold between one and " + Integer.MAX_VALUE + " slabs");
+        }
+
+        this.slabSize = slabSize;
+        this.maxSlabs = (int) (capacity / slabSize);
+        this.slabUsage = new int[maxSlabs];
+        this.classes = new SizeClass[Integer.numberOfTrailingZeros(slabSize / MIN_CHUNK_SIZE) + 1];
+        for (int i = 0; i < classes.length; i++) {
+            classes[i] = new SizeClass(MIN_CHUNK_SIZE << i);
+        }
+    }
+
+    /**
+     * Stores the given state, replacing an older cached state of the same aggregate, and returns whether it was stored.
+     * It is not when a state of the same or a later version is cached, or when it does not fit.
+     */
+    public boolean put(AggregateState state) {
+        if (state == null) {
+            throw new IllegalArgumentException("state cannot be null");
+        }
+
+        byte[] encoded = encode(state);
+        lock.writeLock().lock();
+        try {
+            Slot cached = locations.get(state.rootRecordId());
+            if (cached != null && slabs.get(slab(cached.chunk)).getLong(offset(cached.chunk) + 8) >= state.version()) {
+                return false;
+            }
+
+            remove(state.rootRecordId());
+            if (encoded.length > slabSize) {
+                return false;
+            }
+
+            SizeClass sizeClass = classes[Math.max(0,
+                    32 - Integer.numberOfLeadingZeros(encoded.length - 1) - Integer.numberOfTrailingZeros(MIN_CHUNK_SIZE))];
+            long chunk = allocate(sizeClass);
+            slabs.get(slab(chunk)).put(offset(chunk), encoded);
+            slabUsage[slab(chunk)]++;
+            locations.put(state.rootRecordId(), sizeClass.add(state.rootRecordId(), chunk));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the cached state of the aggregate, or {@literal null} when it is not cached.
+     */
+    public AggregateState find(BigId rootRecordId) {
+        lock.readLock().lock();
+        try {
+            Slot slot = lookup(rootRecordId);
+            if (slot == null) {
+                return null;
+            }
+
+            ByteBuffer slab = slabs.get(slab(slot.chunk));
+            int base = offset(slot.chunk);
+            int count = slab.getInt(base + 4);
+            List<AggregateState.Value> values = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                values.add(decodeValue(slab, base, base + HEADER_SIZE + i * DIRECTORY_ENTRY_SIZE));
+            }
+            return new AggregateState(rootRecordId, slab.getLong(base + 8), values);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the cached state of the aggregate, loading and caching it on a miss. Callers missing the same aggregate
+     * while it is being loaded wait for that load instead of starting their own.
+     */
+    public AggregateState find(BigId rootRecordId, Function<BigId, AggregateState> loader) {
+        AggregateState state = find(rootRecordId);
+        if (state != null) {
+            return state;
+        }
+
+        CompletableFuture<AggregateState> load = new CompletableFuture<>();
+        CompletableFuture<AggregateState> running = loads.putIfAbsent(rootRecordId, load);
+        if (running != null) {
+            return join(running);
+        }
+
+        try {
+            state = loader.apply(rootRecordId);
+            if (state != null) {
+                put(state);
+            }
+            load.complete(state);
+            return state;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(rootRecordId, load);
+        }
+    }
+
+    /**
+     * Decodes the value of one attribute of one entity record of a cached aggregate. Returns {@literal null} when the
+     * aggregate is not cached or has no such value.
+     */
+    public AggregateState.Value find(BigId rootRecordId, BigId entityRecordId, long attributeId) {
+        lock.readLock().lock();
+        try {
+            Slot slot = lookup(rootRecordId);
+            if (slot == null) {
+                return null;
+            }
+
+            ByteBuffer slab = slabs.get(slab(slot.chunk));
+            int base = offset(slot.chunk);
+            int low = 0;
+            int high = slab.getInt(base + 4) - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int entry = base + HEADER_SIZE + middle * DIRECTORY_ENTRY_SIZE;
+                int comparison = Long.compare(slab.getLong(entry), entityRecordId.gen());
+                if (comparison == 0) {
+                    comparison = Long.compare(slab.getLong(entry + 8), entityRecordId.num());
+                }
+                if (comparison == 0) {
+                    comparison = Long.compare(slab.getLong(entry + 16), attributeId);
+                }
+
+                if (comparison < 0) {
+                    low = middle + 1;
+                } else if (comparison > 0) {
+                    high = middle - 1;
+                } else {
+                    return decodeValue(slab, base, entry);
+                }
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void invalidate(BigId rootRecordId) {
+        lock.writeLock().lock();
+        try {
+            remove(rootRecordId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return locations.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The off-heap memory reserved so far, in bytes.
+     */
+    public long reserved() {
+        lock.readLock().lock();
+        try {
+            return (long) slabs.size() * slabSize;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long evictions() {
+        lock.readLock().lock();
+        try {
+            return evictions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Slot lookup(BigId rootRecordId) {
+        Slot slot = locations.get(rootRecordId);
+        if (slot == null) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        slot.referenced = true;
+        return slot;
+    }
+
+    private static AggregateState join(CompletableFuture<AggregateState> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void remove(BigId rootRecordId) {
+        Slot slot = locations.remove(rootRecordId);
+        if (slot != null) {
+            slot.sizeClass.remove(slot);
+            release(slot.sizeClass, slot.chunk);
+        }
+    }
+
+    private long allocate(SizeClass sizeClass) {
+        if (sizeClass.freeCount == 0) {
+            if (slabs.size() < maxSlabs) {
+                slabs.add(ByteBuffer.allocateDirect(slabSize));
+                slabOwners.add(null);
+                carve(sizeClass, slabs.size() - 1);
+            } else if (sizeClass.count > 0) {
+                evict(sizeClass);
+            } else {
+                carve(sizeClass, reclaimSlab(sizeClass));
+            }
+        }
+        return sizeClass.free[--sizeClass.freeCount];
+    }
+
+    /**
+     * Evicts states of the class holding the most slabs until one of its slabs is empty, and takes that slab away from
+     * it.
+     */
+    private int reclaimSlab(SizeClass recipient) {
+        SizeClass donor = null;
+        for (SizeClass candidate : classes) {
+            if (candidate != recipient && (donor == null || candidate.slabCount > donor.slabCount)) {
+                donor = candidate;
+            }
+        }
+
+        while (true) {
+            for (int slab = 0; slab < slabs.size(); slab++) {
+                if (slabOwners.get(slab) == donor && slabUsage[slab] == 0) {
+                    int reclaimed = slab;
+                    int kept = 0;
+                    for (int i = 0; i < donor.freeCount; i++) {
+                        if (slab(donor.free[i]) != reclaimed) {
+                            donor.free[kept++] = donor.free[i];
+                        }
+                    }
+                    donor.freeCount = kept;
+                    donor.slabCount--;
+                    return reclaimed;
+                }
+            }
+            evict(donor);
+        }
+    }
+
+    private void carve(SizeClass sizeClass, int slab) {
+        int chunks = slabSize / sizeClass.chunkSize;
+        if (sizeClass.free.length < sizeClass.freeCount + chunks) {
+            sizeClass.free = Arrays.copyOf(sizeClass.free, Math.max(sizeClass.free.length * 2, sizeClass.freeCount + chunks));
+        }
+        for (int i = chunks - 1; i >= 0; i--) {
+            sizeClass.free[sizeClass.freeCount++] = chunk(slab, i * sizeClass.chunkSize);
+        }
+        slabOwners.set(slab, sizeClass);
+        sizeClass.slabCount++;
+    }
+
+    private void evict(SizeClass sizeClass) {
+        remove(sizeClass.victim().rootRecordId);
+        evictions++;
+    }
+
+    private void release(SizeClass sizeClass, long chunk) {
+        slabUsage[slab(chunk)]--;
+        sizeClass.free[sizeClass.freeCount++] = chunk;
+    }
+
+    private static long chunk(int slab, int offset) {
+        return ((long) slab << 32) | offset;
+    }
+
+    private static int slab(long chunk) {
+        return (int) (chunk >>> 32);
+    }
+
+    private static int offset(long chunk) {
+        return (int) chunk;
+    }
+
+    /**
+     * Lays out the header, the sorted directory and then the values, each directory entry pointing at its value.
+     */
+    static byte[] encode(AggregateState state) {
+        List<AggregateState.Value> values = new ArrayList<>(state.values());
+        values.sort(VALUE_ORDER);
+
+        List<byte[]> strings = new ArrayList<>(values.size());
+        int size = HEADER_SIZE + values.size() * DIRECTORY_ENTRY_SIZE;
+        for (AggregateState.Value value : values) {
+            String stringValue = value.value() == null ? null : value.value().stringValue();
+            byte[] bytes = stringValue == null ? null : stringValue.getBytes(StandardCharsets.UTF_8);
+            strings.add(bytes);
+            size += 33 + (bytes == null ? 0 : 4 + bytes.length)
+                    + (value.value() != null && value.value().longValue() != null ? 8 : 0);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(size).putInt(values.size()).putLong(state.version());
+        int position = HEADER_SIZE + values.size() * DIRECTORY_ENTRY_SIZE;
+        for (int i = 0; i < values.size(); i++) {
+            AggregateState.Value value = values.get(i);
+            buffer.putLong(value.entityRecordId().gen())
+                    .putLong(value.entityRecordId().num())
+                    .putLong(value.attributeId())
+                    .putInt(position);
+
+            byte[] bytes = strings.get(i);
+            Long longValue = value.value() == null ? null : value.value().longValue();
+            int flags = (bytes != null ? STRING_VALUE : 0)
+                    | (longValue != null ? LONG_VALUE : 0)
+                    | (value.recordedAt() != null ? RECORDED_AT : 0);
+            buffer.put(position, (byte) flags);
+            buffer.putLong(position + 1, value.recordId().gen());
+            buffer.putLong(position + 9, value.recordId().num());
+            buffer.putLong(position + 17, value.version());
+            buffer.putLong(position + 25, value.recordedAt() == null ? 0
+                    : ChronoUnit.MICROS.between(Instant.EPOCH, value.recordedAt()));
+            position += 33;
+            if (longValue != null) {
+                buffer.putLong(position, longValue);
+                position += 8;
+            }
+            if (bytes != null) {
+                buffer.putInt(position, bytes.length);
+                buffer.put(position + 4, bytes);
+                position += 4 + bytes.length;
+            }
+        }
+        return buffer.array();
+    }
+
+    private static AggregateState.Value decodeValue(ByteBuffer slab, int base, int entry) {
+        int position = base + slab.getInt(entry + 24);
+        int flags = slab.get(position);
+        BigId recordId = new BigId(slab.getLong(position + 1), slab.getLong(position + 9));
+        long version = slab.getLong(position + 17);
+        Instant recordedAt = (flags & RECORDED_AT) != 0
+                ? Instant.EPOCH.plus(slab.getLong(position + 25), ChronoUnit.MICROS) : null;
+        position += 33;
+
+        Long longValue = null;
+        if ((flags & LONG_VALUE) != 0) {
+            longValue = slab.getLong(position);
+            position += 8;
+        }
+        String stringValue = null;
+        if ((flags & STRING_VALUE) != 0) {
+            byte[] bytes = new byte[slab.getInt(position)];
+            slab.get(position + 4, bytes);
+            stringValue = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        return new AggregateState.Value(new BigId(slab.getLong(entry), slab.getLong(entry + 8)),
+                slab.getLong(entry + 16), recordId, version, recordedAt,
+                new AttributeRecord.Value(stringValue, longValue));
+    }
+
+    private static final class SizeClass {
+        final int chunkSize;
+
+        Slot[] slots = new Slot[16];
+
+        int count;
+
+        int hand;
+
+        long[] free = new long[0];
+
+        int freeCount;
+
+        int slabCount;
+
+        SizeClass(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        Slot add(BigId rootRecordId, long chunk) {
+            if (count == slots.length) {
+                slots = Arrays.copyOf(slots, count * 2);
+            }
+            Slot slot = new Slot(rootRecordId, this, chunk, count);
+            slots[count++] = slot;
+            return slot;
+        }
+
+        void remove(Slot slot) {
+            Slot last = slots[--count];
+            slots[slot.index] = last;
+            last.index = slot.index;
+            slots[count] = null;
+        }
+
+        /**
+         * Moves the clock hand to the first state not read since the hand last passed it, clearing the reference bit
+         * of those it passes.
+         */
+        Slot victim() {
+            while (true) {
+                if (hand >= count) {
+                    hand = 0;
+                }
+                Slot slot = slots[hand];
+                if (!slot.referenced) {
+                    return slot;
+                }
+                slot.referenced = false;
+                hand++;
+            }
+        }
+    }
+
+    private static final class Slot {
+        final BigId rootRecordId;
+
+        final SizeClass sizeClass;
+
+        final long chunk;
+
+        int index;
+
+        // Set by readers under the read lock, so they never need the write lock to record a use
+        volatile boolean referenced;
+
+        Slot(BigId rootRecordId, SizeClass sizeClass, long chunk, int index) {
+            this.rootRecordId = rootRecordId;
+            this.sizeClass = sizeClass;
+            this.chunk = chunk;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package io.beandev.datorum.data.columnar;
+
+/**
+ * A column of a columnar file. Timestamps are stored as microseconds since the epoch.
+ */
+record Column(String name, Type type) {
+    enum Type {LONG, STRING, TIMESTAMP, BYTES}
+}
@@ -0,0 +1,213 @@
+package io.beandev.datorum.data.columnar;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes the non-null values of a column within a row group.
+ * <p>
+ * Longs are run-length encoded when at most every other value starts a new run, and written as zigzag varint deltas
+ * otherwise, which keeps ascending ids and timestamps to one or two bytes. Strings are dictionary encoded, with
+ * run-length or delta encoded indices, when at most half of them are distinct. Bytes, which are usually compressed
+ * already, are written as they are.
+ */
+final class ColumnCodec {
+    private static final byte RLE = 0;
+
+    private static final byte DELTA = 1;
+
+    private static final byte PLAIN = 2;
+
+    private static final byte DICTIONARY = 3;
+
+    private static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+    private ColumnCodec() {
+    }
+
+    static void writeLongs(DataOutput out, long[] values, int count) throws IOException {
+        int runs = runs(values, count);
+        if (runs * 2 <= count) {
+            out.writeByte(RLE);
+            writeVarLong(out, runs);
+            for (int i = 0; i < count; ) {
+                int start = i;
+                while (i < count && values[i] == values[start]) {
+                    i++;
+                }
+                writeVarLong(out, zigzag(values[start]));
+                writeVarLong(out, i - start);
+            }
+        } else {
+            out.writeByte(DELTA);
+            long previous = 0;
+            for (int i = 0; i < count; i++) {
+                writeVarLong(out, zigzag(values[i] - previous));
+                previous = values[i];
+            }
+        }
+    }
+
+    static void readLongs(DataInput in, long[] values, int count) throws IOException {
+        byte encoding = in.readByte();
+        switch (encoding) {
+            case RLE -> {
+                long runs = readVarLong(in);
+                int i = 0;
+                for (long run = 0; run < runs; run++) {
+                    long value = unzigzag(readVarLong(in));
+                    long length = readVarLong(in);
+                    if (length > count - i) {
+                        throw new IOException("Run exceeds row group of " + count + " values");
+                    }
+                    for (long j = 0; j < length; j++) {
+                        values[i++] = value;
+                    }
+                }
+                if (i != count) {
+                    throw new IOException("Expected " + count + " values but runs hold " + i);
+                }
+            }
+            case DELTA -> {
+                long previous = 0;
+                for (int i = 0; i < count; i++) {
+                    previous += unzigzag(readVarLong(in));
+                    values[i] = previous;
+                }
+            }
+            default -> throw new IOException("Unknown long encoding " + encoding);
+        }
+    }
+
+    static void writeStrings(DataOutput out, String[] values, int count) throws IOException {
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> entries = new ArrayList<>();
+        long[] indices = new long[count];
+        for (int i = 0; i < count && entries.size() <= MAX_DICTIONARY_SIZE; i++) {
+            int next = entries.size();
+            Integer index = dictionary.putIfAbsent(values[i], next);
+            if (index == null) {
+                entries.add(values[i]);
+                indices[i] = next;
+            } else {
+                indices[i] = index;
+            }
+        }
+
+        if (entries.size() <= MAX_DICTIONARY_SIZE && entries.size() * 2 <= count) {
+            out.writeByte(DICTIONARY);
+            writeVarLong(out, entries.size());
+            for (String entry : entries) {
+                writeString(out, entry);
+            }
+            writeLongs(out, indices, count);
+        } else {
+            out.writeByte(PLAIN);
+            for (int i = 0; i < count; i++) {
+                writeString(out, values[i]);
+            }
+        }
+    }
+
+    static void readStrings(DataInput in, String[] values, int count) throws IOException {
+        byte encoding = in.readByte();
+        switch (encoding) {
+            case DICTIONARY -> {
+                String[] entries = new String[Math.toIntExact(readVarLong(in))];
+                for (int i = 0; i < entries.length; i++) {
+                    entries[i] = readString(in);
+                }
+                long[] indices = new long[count];
+                readLongs(in, indices, count);
+                for (int i = 0; i < count; i++) {
+                    if (indices[i] < 0 || indices[i] >= entries.length) {
+                        throw new IOException("Dictionary index " + indices[i] + " out of " + entries.length);
+                    }
+                    values[i] = entries[(int) indices[i]];
+                }
+            }
+            case PLAIN -> {
+                for (int i = 0; i < count; i++) {
+                    values[i] = readString(in);
+                }
+            }
+            default -> throw new IOException("Unknown string encoding " + encoding);
+        }
+    }
+
+    static void writeBytes(DataOutput out, byte[][] values, int count) throws IOException {
+        out.writeByte(PLAIN);
+        for (int i = 0; i < count; i++) {
+            writeVarLong(out, values[i].length);
+            out.write(values[i]);
+        }
+    }
+
+    static void readBytes(DataInput in, byte[][] values, int count) throws IOException {
+        byte encoding = in.readByte();
+        if (encoding != PLAIN) {
+            throw new IOException("Unknown bytes encoding " + encoding);
+        }
+
+        for (int i = 0; i < count; i++) {
+            values[i] = new byte[Math.toIntExact(readVarLong(in))];
+            in.readFully(values[i]);
+        }
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[Math.toIntExact(readVarLong(in))];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static int runs(long[] values, int count) {
+        int runs = count > 0 ? 1 : 0;
+        for (int i = 1; i < count; i++) {
+            if (values[i] != values[i - 1]) {
+                runs++;
+            }
+        }
+        return runs;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,188 @@
+package io.beandev.datorum.data.columnar;
+
+import io.beandev.datorum.connection.DataSourceManager;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Exports events and attribute records to columnar files, one for the events and one per attribute.
+ * <p>
+ * Partitions are exported in parallel, each on its own connection, from a single snapshot of the database exported by
+ * a leader transaction. Rows are streamed with a cursor and written one row group at a time, so memory use does not
+ * depend on the size of the data.
+ */
+public class ColumnarExporter {
+    static final String EXTENSION = ".dcol";
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private final DataSource dataSource;
+
+    private final int parallelism;
+
+    private final int rowGroupSize;
+
+    public ColumnarExporter(DataSource dataSource) {
+        this(dataSource, Runtime.getRuntime().availableProcessors(), ColumnarWriter.DEFAULT_ROW_GROUP_SIZE);
+    }
+
+    public ColumnarExporter(DataSource dataSource, int parallelism, int rowGroupSize) {
+        if (dataSource == null) {
+            throw new IllegalArgumentException("dataSource cannot be null");
+        }
+
+        if (parallelism <= 0 || rowGroupSize <= 0) {
+            throw new IllegalArgumentException("parallelism and rowGroupSize must be positive");
+        }
+
+        this.dataSource = dataSource;
+        this.parallelism = parallelism;
+        this.rowGroupSize = rowGroupSize;
+    }
+
+    /**
+     * Writes the files into the given directory, creating it if needed, and returns their paths.
+     */
+    public List<Path> export(Path directory) {
+        if (directory == null) {
+            throw new IllegalArgumentException("directory cannot be null");
+        }
+
+        try (Connection leader = DataSourceManager.getConnection(dataSource)) {
+            Files.createDirectories(directory);
+            leader.setAutoCommit(false);
+            leader.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+
+            String snapshot;
+            List<Long> attributeIds = new ArrayList<>();
+            try (Statement stmt = leader.createStatement()) {
+                try (ResultSet rs = stmt.executeQuery("SELECT pg_export_snapshot()")) {
+                    rs.next();
+                    snapshot = rs.getString(1);
+                }
+                try (ResultSet rs = stmt.executeQuery(
+                        "SELECT DISTINCT attribute_id FROM datorum_data.attribute_record ORDER BY attribute_id")) {
+                    while (rs.next()) {
+                        attributeIds.add(rs.getLong(1));
+                    }
+                }
+            }
+
+            List<CompletableFuture<Path>> partitions = new ArrayList<>();
+            try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+                partitions.add(CompletableFuture.supplyAsync(() -> exportPartition(
+                        snapshot, ColumnarTable.EVENT, null, directory.resolve("event" + EXTENSION)), executor));
+                for (Long attributeId : attributeIds) {
+                    partitions.add(CompletableFuture.supplyAsync(() -> exportPartition(
+                            snapshot, ColumnarTable.ATTRIBUTE_RECORD, attributeId,
+                            directory.resolve("attribute_record-" + attributeId + EXTENSION)), executor));
+                }
+
+                List<Path> files = new ArrayList<>(partitions.size());
+                try {
+                    for (CompletableFuture<Path> partition : partitions) {
+                        files.add(partition.join());
+                    }
+                } catch (CompletionException e) {
+                    partitions.forEach(partition -> partition.cancel(false));
+                    if (e.getCause() instanceof RuntimeException cause) {
+                        throw cause;
+                    }
+                    throw e;
+                }
+                leader.commit();
+                return files;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path exportPartition(String snapshot, ColumnarTable table, Long attributeId, Path file) {
+        String sql = "SELECT " + table.columnList() + " FROM datorum_data." + table.name
+                + (attributeId != null ? " WHERE attribute_id = ?" : "")
+                + " ORDER BY " + table.orderBy;
+
+        try (Connection conn = DataSourceManager.getConnection(dataSource)) {
+            conn.setAutoCommit(false);
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("SET TRANSACTION SNAPSHOT '" + snapshot.replace("'", "''") + "'");
+                }
+
+                try (PreparedStatement stmt = conn.prepareStatement(sql);
+                     ColumnarWriter writer = new ColumnarWriter(
+                             new BufferedOutputStream(Files.newOutputStream(file), 1 << 16),
+                             table.name, table.columns, rowGroupSize)) {
+                    stmt.setFetchSize(FETCH_SIZE);
+                    if (attributeId != null) {
+                        stmt.setLong(1, attributeId);
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            writeRow(rs, table.columns, writer);
+                        }
+                    }
+                }
+                conn.commit();
+            } catch (SQLException | IOException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return file;
+    }
+
+    private static void writeRow(ResultSet rs, List<Column> columns, ColumnarWriter writer)
+            throws SQLException, IOException {
+        for (int c = 0; c < columns.size(); c++) {
+            switch (columns.get(c).type()) {
+                case LONG -> {
+                    long value = rs.getLong(c + 1);
+                    if (rs.wasNull()) {
+                        writer.setNull(c);
+                    } else {
+                        writer.setLong(c, value);
+                    }
+                }
+                case STRING -> writer.setString(c, rs.getString(c + 1));
+                case BYTES -> writer.setBytes(c, rs.getBytes(c + 1));
+                case TIMESTAMP -> {
+                    OffsetDateTime value = rs.getObject(c + 1, OffsetDateTime.class);
+                    if (value == null) {
+                        writer.setNull(c);
+                    } else {
+                        writer.setLong(c, ChronoUnit.MICROS.between(Instant.EPOCH, value.toInstant()));
+                    }
+                }
+            }
+        }
+        writer.endRow();
+    }
+}
@@ -0,0 +1,151 @@
+package io.beandev.datorum.data.columnar;
+
+import io.beandev.datorum.connection.CopyWriter;
+import io.beandev.datorum.connection.DataSourceManager;
+
+import javax.sql.DataSource;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Loads columnar files written by {@link ColumnarExporter} with {@code COPY}, one transaction per file.
+ * <p>
+ * Events are loaded first, as attribute records reference them, and the attribute files are then loaded in parallel.
+ * Files are decoded one row group at a time and streamed to the server in 64 KiB chunks.
+ */
+public class ColumnarImporter {
+    private final DataSource dataSource;
+
+    private final int parallelism;
+
+    public ColumnarImporter(DataSource dataSource) {
+        this(dataSource, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ColumnarImporter(DataSource dataSource, int parallelism) {
+        if (dataSource == null) {
+            throw new IllegalArgumentException("dataSource cannot be null");
+        }
+
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+
+        this.dataSource = dataSource;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Loads every columnar file of the given directory and returns the number of rows loaded.
+     */
+    public long importFrom(Path directory) {
+        if (directory == null) {
+            throw new IllegalArgumentException("directory cannot be null");
+        }
+
+        List<Path> events = new ArrayList<>();
+        List<Path> attributeRecords = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(ColumnarExporter.EXTENSION))
+                    .sorted().toList()) {
+                (file.getFileName().toString().startsWith("event") ? events : attributeRecords).add(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        long rows = 0;
+        for (Path file : events) {
+            rows += importFile(file);
+        }
+
+        List<CompletableFuture<Long>> partitions = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            for (Path file : attributeRecords) {
+                partitions.add(CompletableFuture.supplyAsync(() -> importFile(file), executor));
+            }
+
+            try {
+                for (CompletableFuture<Long> partition : partitions) {
+                    rows += partition.join();
+                }
+            } catch (CompletionException e) {
+                partitions.forEach(partition -> partition.cancel(false));
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        return rows;
+    }
+
+    private long importFile(Path file) {
+        try (ColumnarReader reader = new ColumnarReader(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+             Connection conn = DataSourceManager.getConnection(dataSource)) {
+            ColumnarTable table = ColumnarTable.of(reader.table());
+            if (!table.columns.equals(reader.columns())) {
+                throw new IllegalArgumentException("Columns of " + file + " do not match table " + table.name);
+            }
+
+            conn.setAutoCommit(false);
+            long rows = 0;
+            try {
+                try (CopyWriter copy = new CopyWriter(conn,
+                        "COPY datorum_data." + table.name + " (" + table.columnList() + ") FROM STDIN")) {
+                    while (reader.next()) {
+                        for (int r = 0; r < reader.rows(); r++) {
+                            appendRow(reader, r, copy.buffer());
+                            copy.flushIfFull();
+                        }
+                        rows += reader.rows();
+                    }
+                    copy.endCopy();
+                }
+                conn.commit();
+            } catch (SQLException | IOException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+            return rows;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void appendRow(ColumnarReader reader, int row, StringBuilder buffer) {
+        List<Column> columns = reader.columns();
+        for (int c = 0; c < columns.size(); c++) {
+            if (c > 0) {
+                buffer.append('\t');
+            }
+            if (reader.isNull(c, row)) {
+                CopyWriter.appendNull(buffer);
+                continue;
+            }
+            switch (columns.get(c).type()) {
+                case LONG -> buffer.append(reader.getLong(c, row));
+                case TIMESTAMP -> buffer.append(Instant.EPOCH.plus(reader.getLong(c, row), ChronoUnit.MICROS));
+                case STRING -> CopyWriter.appendText(buffer, reader.getString(c, row));
+                case BYTES -> CopyWriter.appendBytes(buffer, reader.getBytes(c, row));
+            }
+        }
+        buffer.append('\n');
+    }
+}
@@ -0,0 +1,152 @@
+package io.beandev.datorum.data.columnar;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a columnar file written by {@link ColumnarWriter} one row group at a time.
+ */
+final class ColumnarReader implements Closeable {
+    private final DataInputStream in;
+
+    private final String table;
+
+    private final List<Column> columns;
+
+    private final long[][] longs;
+
+    private final String[][] strings;
+
+    private final byte[][][] bytes;
+
+    private final boolean[][] nulls;
+
+    private int rows;
+
+    private boolean ended;
+
+    ColumnarReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(in);
+        if (this.in.readInt() != ColumnarWriter.MAGIC) {
+            throw new IOException("Not a columnar file");
+        }
+        int version = this.in.readUnsignedByte();
+        if (version != ColumnarWriter.FORMAT_VERSION) {
+            throw new IOException("Unsupported columnar format version " + version);
+        }
+
+        this.table = ColumnCodec.readString(this.in);
+        int count = Math.toIntExact(ColumnCodec.readVarLong(this.in));
+        Column.Type[] types = Column.Type.values();
+        List<Column> columns = new ArrayList<>(count);
+        for (int c = 0; c < count; c++) {
+            String name = ColumnCodec.readString(this.in);
+            int type = this.in.readUnsignedByte();
+            if (type >= types.length) {
+                throw new IOException("Unknown column type " + type);
+            }
+            columns.add(new Column(name, types[type]));
+        }
+        this.columns = List.copyOf(columns);
+        this.longs = new long[count][];
+        this.strings = new String[count][];
+        this.bytes = new byte[count][][];
+        this.nulls = new boolean[count][];
+    }
+
+    String table() {
+        return table;
+    }
+
+    List<Column> columns() {
+        return columns;
+    }
+
+    /**
+     * Reads the next row group, returning {@code false} at the end of the file.
+     */
+    boolean next() throws IOException {
+        if (ended) {
+            return false;
+        }
+
+        rows = Math.toIntExact(ColumnCodec.readVarLong(in));
+        if (rows == 0) {
+            ended = true;
+            return false;
+        }
+
+        long[] mask = new long[rows];
+        for (int c = 0; c < columns.size(); c++) {
+            Column.Type type = columns.get(c).type();
+            if (nulls[c] == null || nulls[c].length < rows) {
+                nulls[c] = new boolean[rows];
+                switch (type) {
+                    case STRING -> strings[c] = new String[rows];
+                    case BYTES -> bytes[c] = new byte[rows][];
+                    default -> longs[c] = new long[rows];
+                }
+            }
+
+            int nullCount = Math.toIntExact(ColumnCodec.readVarLong(in));
+            int present = rows - nullCount;
+            if (present < 0) {
+                throw new IOException("Column " + columns.get(c).name() + " has more nulls than rows");
+            }
+            if (present > 0 && present < rows) {
+                ColumnCodec.readLongs(in, mask, rows);
+            }
+            for (int r = 0; r < rows; r++) {
+                nulls[c][r] = present == 0 || (present < rows && mask[r] != 0);
+            }
+
+            if (present > 0) {
+                switch (type) {
+                    case STRING -> ColumnCodec.readStrings(in, strings[c], present);
+                    case BYTES -> ColumnCodec.readBytes(in, bytes[c], present);
+                    default -> ColumnCodec.readLongs(in, longs[c], present);
+                }
+                // Spread the values back to their rows, from the end so none is overwritten before it is moved
+                for (int r = rows - 1, v = present - 1; r >= 0 && v < r; r--) {
+                    if (!nulls[c][r]) {
+                        switch (type) {
+                            case STRING -> strings[c][r] = strings[c][v--];
+                            case BYTES -> bytes[c][r] = bytes[c][v--];
+                            default -> longs[c][r] = longs[c][v--];
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    boolean isNull(int column, int row) {
+        return nulls[column][row];
+    }
+
+    long getLong(int column, int row) {
+        return longs[column][row];
+    }
+
+    String getString(int column, int row) {
+        return nulls[column][row] ? null : strings[column][row];
+    }
+
+    byte[] getBytes(int column, int row) {
+        return nulls[column][row] ? null : bytes[column][row];
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,64 @@
+package io.beandev.datorum.data.columnar;
+
+import java.util.List;
+
+import static io.beandev.datorum.data.columnar.Column.Type.BYTES;
+import static io.beandev.datorum.data.columnar.Column.Type.LONG;
+import static io.beandev.datorum.data.columnar.Column.Type.STRING;
+import static io.beandev.datorum.data.columnar.Column.Type.TIMESTAMP;
+
+/**
+ * The tables of {@code datorum_data} that can be exported, with the columns in file order.
+ */
+enum ColumnarTable {
+    EVENT("event", "gen, num", List.of(
+            new Column("gen", LONG),
+            new Column("num", LONG),
+            new Column("correlation_gen", LONG),
+            new Column("correlation_num", LONG),
+            new Column("causation_event_id", LONG),
+            new Column("causation_aggregate_id", LONG),
+            new Column("recorded_at", TIMESTAMP))),
+    // Ordered like the attribute index, so the entity record and version columns compress into runs and small deltas
+    ATTRIBUTE_RECORD("attribute_record", "entity_record_gen, entity_record_num, version DESC", List.of(
+            new Column("gen", LONG),
+            new Column("num", LONG),
+            new Column("version", LONG),
+            new Column("attribute_id", LONG),
+            new Column("entity_record_gen", LONG),
+            new Column("entity_record_num", LONG),
+            new Column("event_gen", LONG),
+            new Column("event_num", LONG),
+            new Column("operator", STRING),
+            new Column("string_value", STRING),
+            new Column("long_value", LONG),
+            new Column("packed_value", BYTES),
+            new Column("root_record_gen", LONG),
+            new Column("root_record_num", LONG),
+            new Column("recorded_at", TIMESTAMP)));
+
+    final String name;
+
+    final String orderBy;
+
+    final List<Column> columns;
+
+    ColumnarTable(String name, String orderBy, List<Column> columns) {
+        this.name = name;
+        this.orderBy = orderBy;
+        this.columns = columns;
+    }
+
+    String columnList() {
+        return String.join(", ", columns.stream().map(Column::name).toList());
+    }
+
+    static ColumnarTable of(String name) {
+        for (ColumnarTable table : values()) {
+            if (table.name.equals(name)) {
+                return table;
+            }
+        }
+        throw new IllegalArgumentException("Unknown table " + name);
+    }
+}
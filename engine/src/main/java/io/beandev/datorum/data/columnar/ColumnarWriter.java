@@ -0,0 +1,160 @@
+package io.beandev.datorum.data.columnar;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes rows to a columnar file, buffering at most one row group.
+ * <p>
+ * A file starts with a header naming the table and its columns, followed by row groups and a terminating empty row
+ * group. Each row group holds, per column, the positions of its nulls, run-length encoded, and its encoded non-null
+ * values.
+ */
+final class ColumnarWriter implements Closeable {
+    static final int MAGIC = 0x44434F4C; // DCOL
+
+    static final int FORMAT_VERSION = 1;
+
+    static final int DEFAULT_ROW_GROUP_SIZE = 65_536;
+
+    private final DataOutputStream out;
+
+    private final List<Column> columns;
+
+    private final int rowGroupSize;
+
+    private final long[][] longs;
+
+    private final String[][] strings;
+
+    private final byte[][][] bytes;
+
+    private final boolean[][] nulls;
+
+    private int rows;
+
+    ColumnarWriter(OutputStream out, String table, List<Column> columns, int rowGroupSize) throws IOException {
+        if (rowGroupSize <= 0) {
+            throw new IllegalArgumentException("rowGroupSize must be positive");
+        }
+
+        this.out = new DataOutputStream(out);
+        this.columns = List.copyOf(columns);
+        this.rowGroupSize = rowGroupSize;
+        this.longs = new long[columns.size()][];
+        this.strings = new String[columns.size()][];
+        this.bytes = new byte[columns.size()][][];
+        this.nulls = new boolean[columns.size()][rowGroupSize];
+        for (int c = 0; c < columns.size(); c++) {
+            switch (columns.get(c).type()) {
+                case STRING -> strings[c] = new String[rowGroupSize];
+                case BYTES -> bytes[c] = new byte[rowGroupSize][];
+                default -> longs[c] = new long[rowGroupSize];
+            }
+        }
+
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(FORMAT_VERSION);
+        ColumnCodec.writeString(this.out, table);
+        ColumnCodec.writeVarLong(this.out, columns.size());
+        for (Column column : columns) {
+            ColumnCodec.writeString(this.out, column.name());
+            this.out.writeByte(column.type().ordinal());
+        }
+    }
+
+    void setLong(int column, long value) {
+        longs[column][rows] = value;
+        nulls[column][rows] = false;
+    }
+
+    void setString(int column, String value) {
+        if (value == null) {
+            setNull(column);
+        } else {
+            strings[column][rows] = value;
+            nulls[column][rows] = false;
+        }
+    }
+
+    void setBytes(int column, byte[] value) {
+        if (value == null) {
+            setNull(column);
+        } else {
+            bytes[column][rows] = value;
+            nulls[column][rows] = false;
+        }
+    }
+
+    void setNull(int column) {
+        nulls[column][rows] = true;
+    }
+
+    void endRow() throws IOException {
+        if (++rows == rowGroupSize) {
+            flushRowGroup();
+        }
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+
+        ColumnCodec.writeVarLong(out, rows);
+        long[] mask = new long[rows];
+        for (int c = 0; c < columns.size(); c++) {
+            boolean[] columnNulls = nulls[c];
+            int present = 0;
+            for (int r = 0; r < rows; r++) {
+                mask[r] = columnNulls[r] ? 1 : 0;
+                if (!columnNulls[r]) {
+                    // Compact the non-null values in place, they are encoded without gaps
+                    if (strings[c] != null) {
+                        strings[c][present] = strings[c][r];
+                    } else if (bytes[c] != null) {
+                        bytes[c][present] = bytes[c][r];
+                    } else {
+                        longs[c][present] = longs[c][r];
+                    }
+                    present++;
+                }
+            }
+
+            ColumnCodec.writeVarLong(out, rows - present);
+            if (present > 0 && present < rows) {
+                ColumnCodec.writeLongs(out, mask, rows);
+            }
+            if (present > 0) {
+                if (strings[c] != null) {
+                    ColumnCodec.writeStrings(out, strings[c], present);
+                } else if (bytes[c] != null) {
+                    ColumnCodec.writeBytes(out, bytes[c], present);
+                } else {
+                    ColumnCodec.writeLongs(out, longs[c], present);
+                }
+            }
+            if (strings[c] != null) {
+                Arrays.fill(strings[c], 0, rows, null);
+            } else if (bytes[c] != null) {
+                Arrays.fill(bytes[c], 0, rows, null);
+            }
+        }
+        rows = 0;
+    }
+
+    /**
+     * Writes the last row group and the end of the file, and closes the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        try (out) {
+            flushRowGroup();
+            ColumnCodec.writeVarLong(out, 0);
+        }
+    }
+}
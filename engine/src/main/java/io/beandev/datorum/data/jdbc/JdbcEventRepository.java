@@ -0,0 +1,782 @@
+package io.beandev.datorum.data.jdbc;
+
+import datorum.utilities.StringPool;
+import io.beandev.datorum.connection.DataSourceManager;
+import io.beandev.datorum.data.AggregateState;
+import io.beandev.datorum.data.AttributeRecord;
+import io.beandev.datorum.data.BigId;
+import io.beandev.datorum.data.EntityRecord;
+import io.beandev.datorum.data.Event;
+import io.beandev.datorum.data.EventRepository;
+import io.beandev.datorum.data.IndexColumn;
+import io.beandev.datorum.data.ValueCompression;
+import io.beandev.datorum.metrics.Metrics;
+import io.beandev.datorum.metrics.Operation;
+import io.beandev.datorum.schema.Attribute;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+public class JdbcEventRepository implements EventRepository {
+    private static final Operation SAVE = Metrics.operation("JdbcEventRepository.save");
+
+    private static final Operation CREATE_BASE_TABLES = Metrics.operation("JdbcEventRepository.createBaseTables");
+
+    private static final int INDEX_BUILD_BATCH_SIZE = 1000;
+
+    private static final long TRANSACTION_POLL_MILLIS = 50;
+
+    private static final long TRANSACTION_WAIT_MILLIS = 60_000;
+
+    private static final String INSERT_EVENT_SQL = """
+            INSERT INTO datorum_data.event (gen, num, correlation_gen, correlation_num, causation_event_id, causation_aggregate_id)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String INSERT_ATTRIBUTE_RECORD_SQL = """
+            INSERT INTO datorum_data.attribute_record (gen, num, version, attribute_id, entity_record_gen, entity_record_num, event_gen, event_num, operator, string_value, long_value, root_record_gen, root_record_num, packed_value)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    /*
+     * Index rows carry the version of the record they were written from and are only replaced by a newer version, so
+     * writers and the index build can write them in any order. A deleted value leaves a row without a value, so that an
+     * older value cannot come back.
+     */
+    private static final String INDEX_CONFLICT_SQL = """
+            ON CONFLICT (attribute_id, entity_record_gen, entity_record_num) DO UPDATE SET
+                boolean_value = EXCLUDED.boolean_value,
+                long_value = EXCLUDED.long_value,
+                double_value = EXCLUDED.double_value,
+                decimal_value = EXCLUDED.decimal_value,
+                string_value = EXCLUDED.string_value,
+                version = EXCLUDED.version
+            WHERE i.version < EXCLUDED.version
+            """;
+
+    // Only writes a row when an index is declared for the attribute
+    private static final String UPSERT_INDEX_SQL = """
+            INSERT INTO datorum_data.attribute_index AS i (attribute_id, entity_record_gen, entity_record_num, boolean_value, long_value, double_value, decimal_value, string_value, version)
+            SELECT d.attribute_id, ?, ?, ?::BOOLEAN, ?::BIGINT, ?::DOUBLE PRECISION, ?::NUMERIC, ?::TEXT, ?
+            FROM datorum_data.attribute_index_definition d
+            WHERE d.attribute_id = ?
+            """ + INDEX_CONFLICT_SQL;
+
+    private static final String BACKFILL_INDEX_SQL = """
+            INSERT INTO datorum_data.attribute_index AS i (attribute_id, entity_record_gen, entity_record_num, boolean_value, long_value, double_value, decimal_value, string_value, version)
+            VALUES (?, ?, ?, ?::BOOLEAN, ?::BIGINT, ?::DOUBLE PRECISION, ?::NUMERIC, ?::TEXT, ?)
+            """ + INDEX_CONFLICT_SQL;
+
+    private static final String LATEST_VALUES_SQL = """
+            SELECT DISTINCT ON (entity_record_gen, entity_record_num) entity_record_gen, entity_record_num, operator, string_value, long_value, packed_value, version
+            FROM datorum_data.attribute_record
+            WHERE attribute_id = ? AND (entity_record_gen, entity_record_num) > (?, ?)
+            ORDER BY entity_record_gen, entity_record_num, version DESC
+            LIMIT ?
+            """;
+
+    /*
+     * Picks the latest version of each attribute of each entity record among the values of the nearest snapshot up to
+     * the version and the records written after that snapshot, skipping deleted ones.
+     *
+     * The records are found through the (root record, version) index rather than by looking up each attribute in the
+     * (entity record, attribute, version DESC) one: those lookups need the entity records and attributes of the
+     * aggregate up front, and they are only known by reading its records. Starting from a snapshot, only the records
+     * written after it are read.
+     */
+    private static final String AS_OF_SQL = """
+            WITH snapshot AS (
+                SELECT version FROM datorum_data.aggregate_snapshot
+                WHERE root_record_gen = ? AND root_record_num = ? AND version <= ?
+                ORDER BY version DESC
+                LIMIT 1
+            )
+            SELECT entity_record_gen, entity_record_num, attribute_id, gen, num, version, recorded_at, string_value, long_value, packed_value
+            FROM (
+                SELECT DISTINCT ON (entity_record_gen, entity_record_num, attribute_id) *
+                FROM (
+                    SELECT entity_record_gen, entity_record_num, attribute_id, gen, num, version, operator, string_value, long_value, packed_value, recorded_at
+                    FROM datorum_data.aggregate_snapshot_value
+                    WHERE root_record_gen = ? AND root_record_num = ? AND snapshot_version = (SELECT version FROM snapshot)
+                    UNION ALL
+                    SELECT entity_record_gen, entity_record_num, attribute_id, gen, num, version, operator, string_value, long_value, packed_value, recorded_at
+                    FROM datorum_data.attribute_record
+                    WHERE root_record_gen = ? AND root_record_num = ? AND version <= ?
+                      AND ((SELECT version FROM snapshot) IS NULL OR version > (SELECT version FROM snapshot))
+                ) candidates
+                ORDER BY entity_record_gen, entity_record_num, attribute_id, version DESC
+            ) latest
+            WHERE operator <> 'DELETE'
+            ORDER BY entity_record_gen, entity_record_num, attribute_id
+            """;
+
+    /*
+     * recorded_at is the start time of the writing transaction, so concurrent writers can record a later version at an
+     * earlier time. Reads as of an instant are therefore reads as of the latest version recorded by then, which keeps
+     * them a prefix of the versions like every other read.
+     */
+    private static final String VERSION_AT_SQL = """
+            SELECT max(version)
+            FROM datorum_data.attribute_record
+            WHERE root_record_gen = ? AND root_record_num = ? AND recorded_at <= ?
+            """;
+
+    private static final String INSERT_SNAPSHOT_SQL = """
+            INSERT INTO datorum_data.aggregate_snapshot (root_record_gen, root_record_num, version, recorded_at)
+            SELECT ?, ?, ?, max(recorded_at)
+            FROM datorum_data.attribute_record
+            WHERE root_record_gen = ? AND root_record_num = ? AND version <= ?
+            HAVING count(*) > 0
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final String INSERT_SNAPSHOT_VALUE_SQL = """
+            INSERT INTO datorum_data.aggregate_snapshot_value (root_record_gen, root_record_num, snapshot_version, entity_record_gen, entity_record_num, attribute_id, gen, num, version, operator, string_value, long_value, recorded_at, packed_value)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 'CREATE', ?, ?, ?, ?)
+            """;
+
+    private final DataSource dataSource;
+
+    private final ValueCompression compression;
+
+    public JdbcEventRepository(DataSource dataSource) {
+        this(dataSource, new ValueCompression());
+    }
+
+    public JdbcEventRepository(DataSource dataSource, ValueCompression compression) {
+        if (compression == null) {
+            throw new IllegalArgumentException("compression cannot be null");
+        }
+
+        this.dataSource = dataSource;
+        this.compression = compression;
+    }
+
+    @Override
+    public Event save(Event event) {
+        return SAVE.time(() -> insert(event));
+    }
+
+    private Event insert(Event event) {
+        if (event == null) {
+            throw new IllegalArgumentException("event cannot be null");
+        }
+
+        try (Connection conn = DataSourceManager.getConnection(dataSource)) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_EVENT_SQL)) {
+                    stmt.setLong(1, event.id().gen());
+                    stmt.setLong(2, event.id().num());
+                    setNullableBigId(stmt, 3, event.correlationId());
+                    if (event.causation() != null) {
+                        stmt.setLong(5, event.causation().eventId());
+                        setNullableLong(stmt, 6, event.causation().eventAggregate() == null
+                                ? null : event.causation().eventAggregate().id());
+                    } else {
+                        stmt.setNull(5, Types.BIGINT);
+                        stmt.setNull(6, Types.BIGINT);
+                    }
+                    stmt.executeUpdate();
+                }
+
+                // The last operation on an attribute of an entity record decides its indexed value
+                Map<IndexKey, Event.Operation> indexed = new LinkedHashMap<>();
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_ATTRIBUTE_RECORD_SQL)) {
+                    for (Event.Operation operation : operations(event)) {
+                        AttributeRecord record = operation.operand().value();
+                        stmt.setLong(1, record.id().gen());
+                        stmt.setLong(2, record.id().num());
+                        stmt.setLong(3, record.version());
+                        stmt.setLong(4, record.attribute().id());
+                        setNullableBigId(stmt, 5, record.entityRecord() == null ? null : record.entityRecord().id());
+                        stmt.setLong(7, event.id().gen());
+                        stmt.setLong(8, event.id().num());
+                        stmt.setString(9, operation.operator().name());
+                        byte[] packed = compression.pack(record.attribute(), record.value());
+                        stmt.setString(10, record.value() == null || packed != null ? null : record.value().stringValue());
+                        setNullableLong(stmt, 11, record.value() == null ? null : record.value().longValue());
+                        setNullableBigId(stmt, 12, rootRecordId(record.entityRecord()));
+                        stmt.setBytes(14, packed);
+                        stmt.addBatch();
+
+                        if (record.entityRecord() != null && isIndexable(record.attribute())) {
+                            indexed.put(new IndexKey(record.attribute().id(), record.entityRecord().id()), operation);
+                        }
+                    }
+                    stmt.executeBatch();
+                }
+
+                maintainIndexes(conn, indexed);
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+
+        return event;
+    }
+
+    private static void maintainIndexes(Connection conn, Map<IndexKey, Event.Operation> indexed) throws SQLException {
+        if (indexed.isEmpty()) {
+            return;
+        }
+
+        try (PreparedStatement upsert = conn.prepareStatement(UPSERT_INDEX_SQL)) {
+            for (Map.Entry<IndexKey, Event.Operation> entry : indexed.entrySet()) {
+                IndexKey key = entry.getKey();
+                AttributeRecord record = entry.getValue().operand().value();
+                IndexColumn column = IndexColumn.of(record.attribute());
+                boolean deleted = entry.getValue().operator() == Event.Operator.DELETE;
+                upsert.setLong(1, key.entityRecordId().gen());
+                upsert.setLong(2, key.entityRecordId().num());
+                setIndexValue(upsert, 3, column, deleted ? null : column.convert(record.value()));
+                upsert.setLong(8, record.version());
+                upsert.setLong(9, key.attributeId());
+                upsert.addBatch();
+            }
+            upsert.executeBatch();
+        }
+    }
+
+    @Override
+    public void createBaseTables() {
+        CREATE_BASE_TABLES.run(this::createTables);
+    }
+
+    private void createTables() {
+        try (Connection conn = DataSourceManager.getConnection(dataSource)) {
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("""
+                        CREATE SCHEMA IF NOT EXISTS datorum_data;
+
+                        CREATE TABLE IF NOT EXISTS datorum_data.event (
+                            gen                     BIGINT,
+                            num                     BIGINT,
+                            correlation_gen         BIGINT,
+                            correlation_num         BIGINT,
+                            causation_event_id      BIGINT,
+                            causation_aggregate_id  BIGINT,
+                            recorded_at             TIMESTAMPTZ NOT NULL DEFAULT now(),
+                            PRIMARY KEY (gen, num)
+                        );
+
+                        CREATE TABLE IF NOT EXISTS datorum_data.attribute_record (
+                            gen                 BIGINT,
+                            num                 BIGINT,
+                            version             BIGINT,
+                            attribute_id        BIGINT NOT NULL,
+                            entity_record_gen   BIGINT,
+                            entity_record_num   BIGINT,
+                            event_gen           BIGINT,
+                            event_num           BIGINT,
+                            operator            VARCHAR(10),
+                            string_value        TEXT,
+                            long_value          BIGINT,
+                            packed_value        BYTEA,
+                            root_record_gen     BIGINT,
+                            root_record_num     BIGINT,
+                            recorded_at         TIMESTAMPTZ NOT NULL DEFAULT now(),
+                            PRIMARY KEY (gen, num, version),
+                            FOREIGN KEY (event_gen, event_num) REFERENCES datorum_data.event(gen, num)
+                        );
+
+                        CREATE INDEX IF NOT EXISTS attribute_record__attribute_id
+                            ON datorum_data.attribute_record (attribute_id, entity_record_gen, entity_record_num, version DESC);
+                        CREATE INDEX IF NOT EXISTS attribute_record__entity_record
+                            ON datorum_data.attribute_record (entity_record_gen, entity_record_num, attribute_id, version DESC);
+                        CREATE INDEX IF NOT EXISTS attribute_record__root_record
+                            ON datorum_data.attribute_record (root_record_gen, root_record_num, version);
+
+                        CREATE TABLE IF NOT EXISTS datorum_data.aggregate_snapshot (
+                            root_record_gen     BIGINT,
+                            root_record_num     BIGINT,
+                            version             BIGINT,
+                            recorded_at         TIMESTAMPTZ NOT NULL,
+                            PRIMARY KEY (root_record_gen, root_record_num, version)
+                        );
+
+                        CREATE TABLE IF NOT EXISTS datorum_data.aggregate_snapshot_value (
+                            root_record_gen     BIGINT,
+                            root_record_num     BIGINT,
+                            snapshot_version    BIGINT,
+                            entity_record_gen   BIGINT,
+                            entity_record_num   BIGINT,
+                            attribute_id        BIGINT,
+                            gen                 BIGINT NOT NULL,
+                            num                 BIGINT NOT NULL,
+                            version             BIGINT NOT NULL,
+                            operator            VARCHAR(10),
+                            string_value        TEXT,
+                            long_value          BIGINT,
+                            packed_value        BYTEA,
+                            recorded_at         TIMESTAMPTZ NOT NULL,
+                            PRIMARY KEY (root_record_gen, root_record_num, snapshot_version, entity_record_gen, entity_record_num, attribute_id),
+                            FOREIGN KEY (root_record_gen, root_record_num, snapshot_version)
+                                REFERENCES datorum_data.aggregate_snapshot(root_record_gen, root_record_num, version)
+                        );
+
+                        CREATE TABLE IF NOT EXISTS datorum_data.attribute_index_definition (
+                            attribute_id    BIGINT PRIMARY KEY,
+                            data_type       VARCHAR(20) NOT NULL,
+                            status          VARCHAR(20) NOT NULL
+                        );
+
+                        CREATE TABLE IF NOT EXISTS datorum_data.attribute_index (
+                            attribute_id        BIGINT NOT NULL,
+                            entity_record_gen   BIGINT NOT NULL,
+                            entity_record_num   BIGINT NOT NULL,
+                            boolean_value       BOOLEAN,
+                            long_value          BIGINT,
+                            double_value        DOUBLE PRECISION,
+                            decimal_value       NUMERIC,
+                            string_value        TEXT,
+                            version             BIGINT NOT NULL DEFAULT 0,
+                            PRIMARY KEY (attribute_id, entity_record_gen, entity_record_num),
+                            FOREIGN KEY (attribute_id) REFERENCES datorum_data.attribute_index_definition(attribute_id)
+                        );
+
+                        ALTER TABLE datorum_data.attribute_index ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+                        CREATE INDEX IF NOT EXISTS attribute_index__boolean_value
+                            ON datorum_data.attribute_index (attribute_id, boolean_value) WHERE boolean_value IS NOT NULL;
+                        CREATE INDEX IF NOT EXISTS attribute_index__long_value
+                            ON datorum_data.attribute_index (attribute_id, long_value) WHERE long_value IS NOT NULL;
+                        CREATE INDEX IF NOT EXISTS attribute_index__double_value
+                            ON datorum_data.attribute_index (attribute_id, double_value) WHERE double_value IS NOT NULL;
+                        CREATE INDEX IF NOT EXISTS attribute_index__decimal_value
+                            ON datorum_data.attribute_index (attribute_id, decimal_value) WHERE decimal_value IS NOT NULL;
+                        CREATE INDEX IF NOT EXISTS attribute_index__string_value
+                            ON datorum_data.attribute_index (attribute_id, string_value) WHERE string_value IS NOT NULL;
+                        """);
+                conn.commit();
+            } catch (Exception e) {
+                conn.rollback();
+                throw new RuntimeException(e);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Declares the index first, so writers start maintaining it, and waits for the transactions that were running
+     * before, which may have written records without seeing the declaration. Then indexes the current values of the
+     * existing records in batches of {@value #INDEX_BUILD_BATCH_SIZE}, one short transaction per batch. Both the build
+     * and the writers only replace an index row with a newer version, so the values read by the build cannot overwrite
+     * values written meanwhile, and deleted values stay deleted.
+     * <p>
+     * An index is declared with the type of its attribute, and declaring it again with another type is rejected, since
+     * the values already indexed are of the declared one.
+     */
+    @Override
+    public void createIndex(Attribute attribute) {
+        IndexColumn column = IndexColumn.of(attribute);
+
+        try (Connection conn = DataSourceManager.getConnection(dataSource)) {
+            String status;
+            try (PreparedStatement stmt = conn.prepareStatement("""
+                    INSERT INTO datorum_data.attribute_index_definition (attribute_id, data_type, status)
+                    VALUES (?, ?, 'BUILDING')
+                    ON CONFLICT (attribute_id) DO UPDATE SET data_type = datorum_data.attribute_index_definition.data_type
+                    RETURNING data_type, status
+                    """)) {
+                stmt.setLong(1, attribute.id());
+                stmt.setString(2, attribute.type().type().name());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    if (!attribute.type().type().name().equals(rs.getString(1))) {
+                        throw new IllegalArgumentException("Attribute " + attribute.id() + " is indexed as "
+                                + rs.getString(1) + ", not " + attribute.type().type());
+                    }
+                    status = rs.getString(2);
+                }
+            }
+
+            if ("READY".equals(status)) {
+                return;
+            }
+
+            awaitRunningTransactions(conn, attribute.id());
+            conn.setAutoCommit(false);
+            long lastGen = Long.MIN_VALUE;
+            long lastNum = Long.MIN_VALUE;
+            int fetched;
+            do {
+                fetched = 0;
+                try (PreparedStatement select = conn.prepareStatement(LATEST_VALUES_SQL);
+                     PreparedStatement insert = conn.prepareStatement(BACKFILL_INDEX_SQL)) {
+                    select.setLong(1, attribute.id());
+                    select.setLong(2, lastGen);
+                    select.setLong(3, lastNum);
+                    select.setInt(4, INDEX_BUILD_BATCH_SIZE);
+                    try (ResultSet rs = select.executeQuery()) {
+                        while (rs.next()) {
+                            fetched++;
+                            lastGen = rs.getLong(1);
+                            lastNum = rs.getLong(2);
+                            boolean deleted = Event.Operator.DELETE.name().equals(rs.getString(3));
+
+                            insert.setLong(1, attribute.id());
+                            insert.setLong(2, lastGen);
+                            insert.setLong(3, lastNum);
+                            setIndexValue(insert, 4, column,
+                                    deleted ? null : column.convert(readValue(rs, 4, attribute.id())));
+                            insert.setLong(9, rs.getLong(7));
+                            insert.addBatch();
+                        }
+                    }
+                    insert.executeBatch();
+                    conn.commit();
+                } catch (SQLException | RuntimeException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            } while (fetched == INDEX_BUILD_BATCH_SIZE);
+            conn.setAutoCommit(true);
+
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "UPDATE datorum_data.attribute_index_definition SET status = 'READY' WHERE attribute_id = ?")) {
+                stmt.setLong(1, attribute.id());
+                stmt.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Waits until the transactions that were running when this is called have ended. A writer gets its transaction
+     * id when it inserts its records, before it maintains the indexes, so the writers that did not see a newly
+     * declared index all have ids below the snapshot's upper bound. Fails the build, naming the oldest transaction
+     * still running, if they have not all ended within {@value #TRANSACTION_WAIT_MILLIS} ms.
+     */
+    private static void awaitRunningTransactions(Connection conn, long attributeId) throws SQLException {
+        String xmax;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT pg_snapshot_xmax(pg_current_snapshot())::TEXT")) {
+            rs.next();
+            xmax = rs.getString(1);
+        }
+
+        long deadline = System.nanoTime() + TRANSACTION_WAIT_MILLIS * 1_000_000;
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT pg_snapshot_xmin(pg_current_snapshot()) >= ?::TEXT::XID8, pg_snapshot_xmin(pg_current_snapshot())::TEXT")) {
+            stmt.setString(1, xmax);
+            while (true) {
+                String oldest;
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    if (rs.getBoolean(1)) {
+                        return;
+                    }
+                    oldest = rs.getString(2);
+                }
+
+                if (System.nanoTime() - deadline > 0) {
+                    throw new RuntimeException("Index of attribute " + attributeId + " not built: transaction "
+                            + oldest + " still running after " + TRANSACTION_WAIT_MILLIS + " ms");
+                }
+                Thread.sleep(TRANSACTION_POLL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Uses the typed index once it is built, and falls back to scanning the current values of the attribute otherwise.
+     */
+    @Override
+    public List<BigId> findEntityRecordIds(Attribute attribute, Object value) {
+        IndexColumn column = IndexColumn.of(attribute);
+        Object key = column.convert(value);
+        if (key == null) {
+            throw new IllegalArgumentException("value cannot be null");
+        }
+
+        try (Connection conn = DataSourceManager.getConnection(dataSource)) {
+            return isIndexReady(conn, attribute)
+                    ? findIndexed(conn, attribute, column, key)
+                    : scanLatest(conn, attribute, column, key);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public AggregateState findAsOf(BigId rootRecordId, long version) {
+        if (rootRecordId == null) {
+            throw new IllegalArgumentException("rootRecordId cannot be null");
+        }
+
+        try (Connection conn = DataSourceManager.getConnection(dataSource)) {
+            return asOf(conn, rootRecordId, version);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public AggregateState findAsOf(BigId rootRecordId, Instant instant) {
+        if (rootRecordId == null || instant == null) {
+            throw new IllegalArgumentException("rootRecordId and instant cannot be null");
+        }
+
+        try (Connection conn = DataSourceManager.getConnection(dataSource)) {
+            try (PreparedStatement stmt = conn.prepareStatement(VERSION_AT_SQL)) {
+                setNullableBigId(stmt, 1, rootRecordId);
+                stmt.setObject(3, OffsetDateTime.ofInstant(instant, ZoneOffset.UTC));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    long version = rs.getLong(1);
+                    return rs.wasNull()
+                            ? new AggregateState(rootRecordId, 0, List.of())
+                            : asOf(conn, rootRecordId, version);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void snapshot(BigId rootRecordId, long version) {
+        if (rootRecordId == null) {
+            throw new IllegalArgumentException("rootRecordId cannot be null");
+        }
+
+        try (Connection conn = DataSourceManager.getConnection(dataSource)) {
+            conn.setAutoCommit(false);
+            try {
+                AggregateState state = asOf(conn, rootRecordId, version);
+
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_SNAPSHOT_SQL)) {
+                    setNullableBigId(stmt, 1, rootRecordId);
+                    stmt.setLong(3, version);
+                    setNullableBigId(stmt, 4, rootRecordId);
+                    stmt.setLong(6, version);
+                    if (stmt.executeUpdate() == 0) {
+                        // Nothing recorded up to this version, or the snapshot already exists
+                        conn.rollback();
+                        return;
+                    }
+                }
+
+                try (PreparedStatement stmt = conn.prepareStatement(INSERT_SNAPSHOT_VALUE_SQL)) {
+                    for (AggregateState.Value value : state.values()) {
+                        setNullableBigId(stmt, 1, rootRecordId);
+                        stmt.setLong(3, version);
+                        setNullableBigId(stmt, 4, value.entityRecordId());
+                        stmt.setLong(6, value.attributeId());
+                        setNullableBigId(stmt, 7, value.recordId());
+                        stmt.setLong(9, value.version());
+                        stmt.setString(10, value.value().packed() == null ? value.value().stringValue() : null);
+                        setNullableLong(stmt, 11, value.value().longValue());
+                        stmt.setObject(12, OffsetDateTime.ofInstant(value.recordedAt(), ZoneOffset.UTC));
+                        stmt.setBytes(13, value.value().packed() == null ? null : value.value().packed().bytes());
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private AggregateState asOf(Connection conn, BigId rootRecordId, long bound) throws SQLException {
+        List<AggregateState.Value> values = new ArrayList<>();
+        long version = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(AS_OF_SQL)) {
+            setNullableBigId(stmt, 1, rootRecordId);
+            stmt.setLong(3, bound);
+            setNullableBigId(stmt, 4, rootRecordId);
+            setNullableBigId(stmt, 6, rootRecordId);
+            stmt.setLong(8, bound);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    long attributeId = rs.getLong(3);
+                    AggregateState.Value value = new AggregateState.Value(
+                            new BigId(rs.getLong(1), rs.getLong(2)),
+                            attributeId,
+                            new BigId(rs.getLong(4), rs.getLong(5)),
+                            rs.getLong(6),
+                            rs.getObject(7, OffsetDateTime.class).toInstant(),
+                            readValue(rs, 8, attributeId));
+                    values.add(value);
+                    version = Math.max(version, value.version());
+                }
+            }
+        }
+        return new AggregateState(rootRecordId, version, values);
+    }
+
+    private static boolean isIndexReady(Connection conn, Attribute attribute) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT 1 FROM datorum_data.attribute_index_definition WHERE attribute_id = ? AND status = 'READY'")) {
+            stmt.setLong(1, attribute.id());
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static List<BigId> findIndexed(Connection conn, Attribute attribute, IndexColumn column, Object key)
+            throws SQLException {
+        List<BigId> result = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT entity_record_gen, entity_record_num FROM datorum_data.attribute_index WHERE attribute_id = ? AND "
+                        + columnName(column) + " = ?")) {
+            stmt.setLong(1, attribute.id());
+            stmt.setObject(2, key, sqlType(column));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    result.add(new BigId(rs.getLong(1), rs.getLong(2)));
+                }
+            }
+        }
+        return result;
+    }
+
+    private List<BigId> scanLatest(Connection conn, Attribute attribute, IndexColumn column, Object key)
+            throws SQLException {
+        List<BigId> result = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(LATEST_VALUES_SQL)) {
+            stmt.setLong(1, attribute.id());
+            stmt.setLong(2, Long.MIN_VALUE);
+            stmt.setLong(3, Long.MIN_VALUE);
+            stmt.setNull(4, Types.INTEGER);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (!Event.Operator.DELETE.name().equals(rs.getString(3))
+                            && matches(column.convert(readValue(rs, 4, attribute.id())), key)) {
+                        result.add(new BigId(rs.getLong(1), rs.getLong(2)));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean matches(Object value, Object key) {
+        if (value instanceof BigDecimal decimal && key instanceof BigDecimal other) {
+            return decimal.compareTo(other) == 0;
+        }
+        return Objects.equals(value, key);
+    }
+
+    /**
+     * Reads the string, long and packed value columns starting at {@code index}. A packed value is only decompressed
+     * when its string is read.
+     */
+    private AttributeRecord.Value readValue(ResultSet rs, int index, long attributeId) throws SQLException {
+        String stringValue = StringPool.shared().intern(rs.getString(index));
+        long longValue = rs.getLong(index + 1);
+        Long nullableLongValue = rs.wasNull() ? null : longValue;
+        return compression.read(attributeId, stringValue, nullableLongValue, rs.getBytes(index + 2));
+    }
+
+    private static List<Event.Operation> operations(Event event) {
+        List<Event.Operation> result = new ArrayList<>();
+        if (event.operations() != null) {
+            for (Event.Operation operation : event.operations()) {
+                if (operation != null && operation.operand() != null && operation.operand().value() != null) {
+                    result.add(operation);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean isIndexable(Attribute attribute) {
+        if (attribute.type() == null) {
+            return false;
+        }
+        Attribute.DataType.Type type = attribute.type().type();
+        return type != Attribute.DataType.Type.BYTES && type != Attribute.DataType.Type.MAP;
+    }
+
+    /**
+     * Binds the five typed columns starting at {@code index}, leaving all but the one of the attribute null.
+     */
+    private static void setIndexValue(PreparedStatement stmt, int index, IndexColumn column, Object value)
+            throws SQLException {
+        for (IndexColumn candidate : IndexColumn.values()) {
+            int position = index + candidate.ordinal();
+            if (candidate == column && value != null) {
+                stmt.setObject(position, value, sqlType(candidate));
+            } else {
+                stmt.setNull(position, sqlType(candidate));
+            }
+        }
+    }
+
+    // The columns of datorum_data.attribute_index are named after the constants
+    private static String columnName(IndexColumn column) {
+        return column.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static int sqlType(IndexColumn column) {
+        return switch (column) {
+            case BOOLEAN_VALUE -> Types.BOOLEAN;
+            case LONG_VALUE -> Types.BIGINT;
+            case DOUBLE_VALUE -> Types.DOUBLE;
+            case DECIMAL_VALUE -> Types.NUMERIC;
+            case STRING_VALUE -> Types.VARCHAR;
+        };
+    }
+
+    private static BigId rootRecordId(EntityRecord entityRecord) {
+        if (entityRecord == null) {
+            return null;
+        }
+
+        return entityRecord.rootRecord() != null ? entityRecord.rootRecord().id() : entityRecord.id();
+    }
+
+    private static void setNullableBigId(PreparedStatement stmt, int index, BigId id) throws SQLException {
+        if (id != null) {
+            stmt.setLong(index, id.gen());
+            stmt.setLong(index + 1, id.num());
+        } else {
+            stmt.setNull(index, Types.BIGINT);
+            stmt.setNull(index + 1, Types.BIGINT);
+        }
+    }
+
+    private static void setNullableLong(PreparedStatement stmt, int index, Long value) throws SQLException {
+        if (value != null) {
+            stmt.setLong(index, value);
+        } else {
+            stmt.setNull(index, Types.BIGINT);
+        }
+    }
+
+    private record IndexKey(long attributeId, BigId entityRecordId) {
+    }
+}
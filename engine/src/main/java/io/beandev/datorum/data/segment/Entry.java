@@ -0,0 +1,217 @@
+package io.beandev.datorum.data.segment;
+
+import datorum.utilities.StringPool;
+import io.beandev.datorum.data.AggregateState;
+import io.beandev.datorum.data.AttributeRecord;
+import io.beandev.datorum.data.BigId;
+import io.beandev.datorum.data.EntityRecord;
+import io.beandev.datorum.data.Event;
+import io.beandev.datorum.schema.Attribute;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An entry of the segment log and its binary encoding. Timestamps are microseconds since the epoch.
+ */
+sealed interface Entry {
+    byte EVENT = 0;
+
+    byte SNAPSHOT = 1;
+
+    byte INDEX = 2;
+
+    record EventEntry(BigId id,
+                      BigId correlationId,
+                      Long causationEventId,
+                      Long causationAggregateId,
+                      long recordedAt,
+                      List<RecordEntry> records) implements Entry {
+        static EventEntry of(Event event, long recordedAt) {
+            List<RecordEntry> records = new ArrayList<>();
+            if (event.operations() != null) {
+                for (Event.Operation operation : event.operations()) {
+                    if (operation == null || operation.operand() == null || operation.operand().value() == null) {
+                        continue;
+                    }
+
+                    AttributeRecord record = operation.operand().value();
+                    EntityRecord entityRecord = record.entityRecord();
+                    records.add(new RecordEntry(record.id(), record.version(), record.attribute().id(),
+                            entityRecord == null ? null : entityRecord.id(),
+                            entityRecord == null ? null
+                                    : entityRecord.rootRecord() != null ? entityRecord.rootRecord().id() : entityRecord.id(),
+                            operation.operator(),
+                            record.value() == null ? new AttributeRecord.Value(null, null) : record.value()));
+                }
+            }
+
+            Event.Causation causation = event.causation();
+            return new EventEntry(event.id(), event.correlationId(),
+                    causation == null ? null : causation.eventId(),
+                    causation == null || causation.eventAggregate() == null ? null : causation.eventAggregate().id(),
+                    recordedAt, records);
+        }
+    }
+
+    record RecordEntry(BigId id,
+                       long version,
+                       long attributeId,
+                       BigId entityRecordId,
+                       BigId rootRecordId,
+                       Event.Operator operator,
+                       AttributeRecord.Value value) {
+    }
+
+    record SnapshotEntry(BigId rootRecordId,
+                         long version,
+                         long recordedAt,
+                         List<AggregateState.Value> values) implements Entry {
+    }
+
+    record IndexEntry(long attributeId, Attribute.DataType.Type type) implements Entry {
+    }
+
+    static byte[] encode(Entry entry) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            switch (entry) {
+                case EventEntry event -> {
+                    out.writeByte(EVENT);
+                    writeBigId(out, event.id());
+                    writeBigId(out, event.correlationId());
+                    writeLong(out, event.causationEventId());
+                    writeLong(out, event.causationAggregateId());
+                    out.writeLong(event.recordedAt());
+                    out.writeInt(event.records().size());
+                    for (RecordEntry record : event.records()) {
+                        writeBigId(out, record.id());
+                        out.writeLong(record.version());
+                        out.writeLong(record.attributeId());
+                        writeBigId(out, record.entityRecordId());
+                        writeBigId(out, record.rootRecordId());
+                        out.writeByte(record.operator().ordinal());
+                        writeValue(out, record.value());
+                    }
+                }
+                case SnapshotEntry snapshot -> {
+                    out.writeByte(SNAPSHOT);
+                    writeBigId(out, snapshot.rootRecordId());
+                    out.writeLong(snapshot.version());
+                    out.writeLong(snapshot.recordedAt());
+                    out.writeInt(snapshot.values().size());
+                    for (AggregateState.Value value : snapshot.values()) {
+                        writeBigId(out, value.entityRecordId());
+                        out.writeLong(value.attributeId());
+                        writeBigId(out, value.recordId());
+                        out.writeLong(value.version());
+                        out.writeLong(micros(value.recordedAt()));
+                        writeValue(out, value.value());
+                    }
+                }
+                case IndexEntry index -> {
+                    out.writeByte(INDEX);
+                    out.writeLong(index.attributeId());
+                    out.writeByte(index.type().ordinal());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Entry decode(ByteBuffer in) {
+        byte type = in.get();
+        return switch (type) {
+            case EVENT -> {
+                BigId id = readBigId(in);
+                BigId correlationId = readBigId(in);
+                Long causationEventId = readLong(in);
+                Long causationAggregateId = readLong(in);
+                long recordedAt = in.getLong();
+                int count = in.getInt();
+                List<RecordEntry> records = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    records.add(new RecordEntry(readBigId(in), in.getLong(), in.getLong(), readBigId(in), readBigId(in),
+                            Event.Operator.values()[in.get()], readValue(in)));
+                }
+                yield new EventEntry(id, correlationId, causationEventId, causationAggregateId, recordedAt, records);
+            }
+            case SNAPSHOT -> {
+                BigId rootRecordId = readBigId(in);
+                long version = in.getLong();
+                long recordedAt = in.getLong();
+                int count = in.getInt();
+                List<AggregateState.Value> values = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    values.add(new AggregateState.Value(readBigId(in), in.getLong(), readBigId(in), in.getLong(),
+                            instant(in.getLong()), readValue(in)));
+                }
+                yield new SnapshotEntry(rootRecordId, version, recordedAt, values);
+            }
+            case INDEX -> new IndexEntry(in.getLong(), Attribute.DataType.Type.values()[in.get()]);
+            default -> throw new IllegalStateException("Unknown entry type " + type);
+        };
+    }
+
+    static long micros(Instant instant) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+
+    static Instant instant(long micros) {
+        return Instant.EPOCH.plus(micros, ChronoUnit.MICROS);
+    }
+
+    private static void writeBigId(DataOutputStream out, BigId id) throws IOException {
+        out.writeBoolean(id != null);
+        if (id != null) {
+            out.writeLong(id.gen());
+            out.writeLong(id.num());
+        }
+    }
+
+    private static BigId readBigId(ByteBuffer in) {
+        return in.get() != 0 ? new BigId(in.getLong(), in.getLong()) : null;
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(ByteBuffer in) {
+        return in.get() != 0 ? in.getLong() : null;
+    }
+
+    private static void writeValue(DataOutputStream out, AttributeRecord.Value value) throws IOException {
+        String stringValue = value == null ? null : value.stringValue();
+        out.writeBoolean(stringValue != null);
+        if (stringValue != null) {
+            byte[] bytes = stringValue.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        writeLong(out, value == null ? null : value.longValue());
+    }
+
+    private static AttributeRecord.Value readValue(ByteBuffer in) {
+        String stringValue = null;
+        if (in.get() != 0) {
+            byte[] bytes = new byte[in.getInt()];
+            in.get(bytes);
+            stringValue = StringPool.shared().intern(bytes, 0, bytes.length);
+        }
+        return new AttributeRecord.Value(stringValue, readLong(in));
+    }
+}
@@ -0,0 +1,205 @@
+package io.beandev.datorum.data.segment;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only file of entries, each framed as {@code [length][crc32c][payload]}.
+ * <p>
+ * Entries are numbered by a global offset, starting at the base offset of the segment, which names the file. The
+ * segment keeps a sparse index of the file position of an entry every {@value #INDEX_INTERVAL} bytes, so an entry is
+ * read by scanning at most that many bytes of frame headers from the nearest indexed one. Reads go through a read-only
+ * mapping of the file, which is remapped only once the segment has doubled past it, so a segment is mapped a logarithmic
+ * number of times; the entries appended since are read from the channel.
+ */
+final class Segment implements Closeable {
+    static final String SUFFIX = ".seg";
+
+    static final int HEADER_SIZE = 8;
+
+    private static final int INDEX_INTERVAL = 4096;
+
+    final long baseOffset;
+
+    private final Path path;
+
+    private final FileChannel channel;
+
+    private long size;
+
+    private long nextOffset;
+
+    private long[] indexOffsets = new long[16];
+
+    private long[] indexPositions = new long[16];
+
+    private int indexSize;
+
+    private long lastIndexedPosition = -INDEX_INTERVAL;
+
+    private MappedByteBuffer mapped;
+
+    private Segment(long baseOffset, Path path, FileChannel channel) {
+        this.baseOffset = baseOffset;
+        this.path = path;
+        this.channel = channel;
+        this.nextOffset = baseOffset;
+    }
+
+    static Segment open(Path directory, long baseOffset) throws IOException {
+        Path path = directory.resolve(fileName(baseOffset));
+        return new Segment(baseOffset, path, FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+    }
+
+    static String fileName(long baseOffset) {
+        return String.format("%020d%s", baseOffset, SUFFIX);
+    }
+
+    static long baseOffset(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * Scans the segment, handing every valid entry to the consumer. An entry that is cut short or fails its checksum
+     * marks a write that did not complete: in the last segment the file is truncated before it, anywhere else the
+     * segment is corrupt.
+     */
+    void recover(boolean last, EntryConsumer consumer) throws IOException {
+        long fileSize = channel.size();
+        ByteBuffer buffer = fileSize == 0 ? ByteBuffer.allocate(0) : channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+        CRC32C crc = new CRC32C();
+        long position = 0;
+        long offset = baseOffset;
+        while (position < fileSize) {
+            int length = fileSize - position >= HEADER_SIZE ? buffer.getInt((int) position) : -1;
+            boolean valid = length >= 0 && length <= fileSize - position - HEADER_SIZE;
+            if (valid) {
+                ByteBuffer payload = buffer.slice((int) position + HEADER_SIZE, length);
+                crc.reset();
+                crc.update(payload.duplicate());
+                valid = (int) crc.getValue() == buffer.getInt((int) position + 4);
+                if (valid) {
+                    index(offset, position);
+                    consumer.accept(offset, payload);
+                }
+            }
+
+            if (!valid) {
+                if (!last) {
+                    throw new IOException("Corrupt entry " + offset + " at position " + position + " of " + path);
+                }
+                channel.truncate(position);
+                break;
+            }
+            position += HEADER_SIZE + length;
+            offset++;
+        }
+        size = position;
+        nextOffset = offset;
+    }
+
+    /**
+     * Appends an entry and returns its offset.
+     */
+    long append(byte[] payload) throws IOException {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + payload.length)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .flip();
+
+        long position = size;
+        while (frame.hasRemaining()) {
+            position += channel.write(frame, position);
+        }
+        index(nextOffset, size);
+        size = position;
+        return nextOffset++;
+    }
+
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    /**
+     * Returns the payload of the entry with the given offset.
+     */
+    synchronized ByteBuffer read(long offset) throws IOException {
+        if (offset < baseOffset || offset >= nextOffset) {
+            throw new IllegalArgumentException("Offset " + offset + " is not in segment " + path);
+        }
+
+        if (mapped == null || size >= 2L * mapped.capacity()) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        int i = Arrays.binarySearch(indexOffsets, 0, indexSize, offset);
+        if (i < 0) {
+            i = -i - 2;
+        }
+        long position = indexPositions[i];
+        for (long current = indexOffsets[i]; current < offset; current++) {
+            position += HEADER_SIZE + bytes(position, 4).getInt(0);
+        }
+        return bytes(position + HEADER_SIZE, bytes(position, 4).getInt(0));
+    }
+
+    private ByteBuffer bytes(long position, int length) throws IOException {
+        if (position + length <= mapped.capacity()) {
+            return mapped.slice((int) position, length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of " + path + " at position " + position);
+            }
+        }
+        return buffer.flip();
+    }
+
+    long size() {
+        return size;
+    }
+
+    long nextOffset() {
+        return nextOffset;
+    }
+
+    private void index(long offset, long position) {
+        if (position - lastIndexedPosition < INDEX_INTERVAL) {
+            return;
+        }
+
+        if (indexSize == indexOffsets.length) {
+            indexOffsets = Arrays.copyOf(indexOffsets, indexSize * 2);
+            indexPositions = Arrays.copyOf(indexPositions, indexSize * 2);
+        }
+        indexOffsets[indexSize] = offset;
+        indexPositions[indexSize] = position;
+        indexSize++;
+        lastIndexedPosition = position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        mapped = null;
+        channel.close();
+    }
+
+    @FunctionalInterface
+    interface EntryConsumer {
+        void accept(long offset, ByteBuffer payload);
+    }
+}
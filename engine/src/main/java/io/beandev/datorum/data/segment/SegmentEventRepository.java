@@ -0,0 +1,454 @@
+package io.beandev.datorum.data.segment;
+
+import io.beandev.datorum.data.AggregateState;
+import io.beandev.datorum.data.AttributeRecord;
+import io.beandev.datorum.data.BigId;
+import io.beandev.datorum.data.Event;
+import io.beandev.datorum.data.EventRepository;
+import io.beandev.datorum.data.IndexColumn;
+import io.beandev.datorum.metrics.Metrics;
+import io.beandev.datorum.metrics.Operation;
+import io.beandev.datorum.schema.Attribute;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * An in-process {@link EventRepository} backed by append-only segment files in a directory.
+ * <p>
+ * Events, snapshots and index declarations are appended to the active segment through its {@code FileChannel}, and a
+ * new segment is started once it reaches the segment size. Opening the repository replays the segments to rebuild the
+ * in-memory lookup structures, truncating an incomplete entry left at the end of the log by a crash. With
+ * {@code sync}, every write is forced to the device before it returns.
+ * <p>
+ * The current value of every attribute of every entity record is kept in memory, together with the log offsets of the
+ * events of each aggregate, which as-of reads load through the sparse index of their segment.
+ */
+public class SegmentEventRepository implements EventRepository, Closeable {
+    private static final Operation SAVE = Metrics.operation("SegmentEventRepository.save");
+
+    public static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+    private static final Comparator<AggregateState.Value> VALUE_ORDER = Comparator
+            .comparingLong((AggregateState.Value value) -> value.entityRecordId().gen())
+            .thenComparingLong(value -> value.entityRecordId().num())
+            .thenComparingLong(AggregateState.Value::attributeId);
+
+    private final Path directory;
+
+    private final long segmentSize;
+
+    private final boolean sync;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+
+    private final Map<BigId, List<RootEntry>> entriesByRoot = new HashMap<>();
+
+    private final Map<BigId, TreeMap<Long, Entry.SnapshotEntry>> snapshots = new HashMap<>();
+
+    private final Map<Long, Map<BigId, Latest>> latest = new HashMap<>();
+
+    private final Map<Long, IndexColumn> indexColumns = new HashMap<>();
+
+    private final Map<Long, Map<Object, Set<BigId>>> indexes = new HashMap<>();
+
+    private long lastRecordedAt = Long.MIN_VALUE;
+
+    public SegmentEventRepository(Path directory) {
+        this(directory, DEFAULT_SEGMENT_SIZE, true);
+    }
+
+    public SegmentEventRepository(Path directory, long segmentSize, boolean sync) {
+        if (directory == null) {
+            throw new IllegalArgumentException("directory cannot be null");
+        }
+
+        if (segmentSize <= Segment.HEADER_SIZE || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("segmentSize must be between " + Segment.HEADER_SIZE + " and 2 GiB");
+        }
+
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.sync = sync;
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(file -> file.getFileName().toString().endsWith(Segment.SUFFIX))
+                    .sorted(Comparator.comparingLong(Segment::baseOffset))
+                    .toList();
+        }
+
+        for (int i = 0; i < files.size(); i++) {
+            Segment segment = Segment.open(directory, Segment.baseOffset(files.get(i)));
+            segments.put(segment.baseOffset, segment);
+            segment.recover(i == files.size() - 1, (offset, payload) -> apply(offset, Entry.decode(payload)));
+        }
+
+        if (segments.isEmpty()) {
+            segments.put(0L, Segment.open(directory, 0));
+        }
+    }
+
+    /**
+     * Segments are created on demand, so there is nothing to create.
+     */
+    @Override
+    public void createBaseTables() {
+    }
+
+    @Override
+    public Event save(Event event) {
+        return SAVE.time(() -> append(event));
+    }
+
+    private Event append(Event event) {
+        if (event == null) {
+            throw new IllegalArgumentException("event cannot be null");
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Taken under the lock and never behind the previous event, so the log is ordered by recording time
+            Entry.EventEntry entry = Entry.EventEntry.of(event, Math.max(lastRecordedAt, Entry.micros(Instant.now())));
+
+            // Values that cannot be indexed are rejected before anything is written
+            for (Entry.RecordEntry record : entry.records()) {
+                IndexColumn column = indexColumns.get(record.attributeId());
+                if (column != null && record.operator() != Event.Operator.DELETE) {
+                    column.convert(record.value());
+                }
+            }
+
+            apply(write(entry), entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return event;
+    }
+
+    @Override
+    public void createIndex(Attribute attribute) {
+        IndexColumn column = IndexColumn.of(attribute);
+
+        lock.writeLock().lock();
+        try {
+            IndexColumn declared = indexColumns.get(attribute.id());
+            if (declared != null) {
+                // The values already indexed are of the declared type
+                if (declared != column) {
+                    throw new IllegalArgumentException("Attribute " + attribute.id() + " is indexed as " + declared
+                            + ", not " + column);
+                }
+                return;
+            }
+
+            Map<Object, Set<BigId>> index = buildIndex(attribute.id(), column);
+            write(new Entry.IndexEntry(attribute.id(), attribute.type().type()));
+            indexColumns.put(attribute.id(), column);
+            indexes.put(attribute.id(), index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<BigId> findEntityRecordIds(Attribute attribute, Object value) {
+        IndexColumn column = IndexColumn.of(attribute);
+        Object key = column.convert(value);
+        if (key == null) {
+            throw new IllegalArgumentException("value cannot be null");
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Object, Set<BigId>> index = indexes.get(attribute.id());
+            if (index != null) {
+                return new ArrayList<>(index.getOrDefault(indexKey(key), Set.of()));
+            }
+
+            List<BigId> result = new ArrayList<>();
+            latest.getOrDefault(attribute.id(), Map.of()).forEach((entityRecordId, current) -> {
+                if (!current.deleted() && indexKey(key).equals(indexKey(column.convert(current.value())))) {
+                    result.add(entityRecordId);
+                }
+            });
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public AggregateState findAsOf(BigId rootRecordId, long version) {
+        if (rootRecordId == null) {
+            throw new IllegalArgumentException("rootRecordId cannot be null");
+        }
+
+        lock.readLock().lock();
+        try {
+            return asOf(rootRecordId, version).state();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public AggregateState findAsOf(BigId rootRecordId, Instant instant) {
+        if (rootRecordId == null || instant == null) {
+            throw new IllegalArgumentException("rootRecordId and instant cannot be null");
+        }
+
+        lock.readLock().lock();
+        try {
+            return asOf(rootRecordId, versionAt(rootRecordId, Entry.micros(instant))).state();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the latest version of the aggregate recorded at or before the given time, or {@code 0} if it had none.
+     */
+    private long versionAt(BigId rootRecordId, long recordedAt) {
+        long version = 0;
+        for (RootEntry rootEntry : entriesByRoot.getOrDefault(rootRecordId, List.of())) {
+            if (rootEntry.recordedAt() <= recordedAt) {
+                version = Math.max(version, rootEntry.maxVersion());
+            }
+        }
+        return version;
+    }
+
+    @Override
+    public void snapshot(BigId rootRecordId, long version) {
+        if (rootRecordId == null) {
+            throw new IllegalArgumentException("rootRecordId cannot be null");
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (snapshots.getOrDefault(rootRecordId, new TreeMap<>()).containsKey(version)) {
+                return;
+            }
+
+            AsOf asOf = asOf(rootRecordId, version);
+            if (asOf.recordedAt() == Long.MIN_VALUE) {
+                return;
+            }
+
+            Entry.SnapshotEntry entry = new Entry.SnapshotEntry(rootRecordId, version, asOf.recordedAt(),
+                    asOf.state().values());
+            apply(write(entry), entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Starts from the latest snapshot up to the version and applies the records of the later events of the aggregate,
+     * keeping the highest version of each attribute of each entity record.
+     */
+    private AsOf asOf(BigId rootRecordId, long maxVersion) {
+        TreeMap<Long, Entry.SnapshotEntry> rootSnapshots = snapshots.get(rootRecordId);
+        Map.Entry<Long, Entry.SnapshotEntry> floor = rootSnapshots == null ? null : rootSnapshots.floorEntry(maxVersion);
+        Entry.SnapshotEntry start = floor == null ? null : floor.getValue();
+
+        Map<ValueKey, Candidate> candidates = new HashMap<>();
+        long fromVersion = Long.MIN_VALUE;
+        long recordedAt = Long.MIN_VALUE;
+        if (start != null) {
+            fromVersion = start.version();
+            recordedAt = start.recordedAt();
+            for (AggregateState.Value value : start.values()) {
+                candidates.put(new ValueKey(value.entityRecordId(), value.attributeId()), new Candidate(value, false));
+            }
+        }
+
+        for (RootEntry rootEntry : entriesByRoot.getOrDefault(rootRecordId, List.of())) {
+            if (rootEntry.maxVersion() <= fromVersion) {
+                continue;
+            }
+
+            Entry.EventEntry event = (Entry.EventEntry) read(rootEntry.offset());
+            for (Entry.RecordEntry record : event.records()) {
+                if (!rootRecordId.equals(record.rootRecordId())
+                        || record.version() <= fromVersion || record.version() > maxVersion) {
+                    continue;
+                }
+
+                recordedAt = Math.max(recordedAt, event.recordedAt());
+                ValueKey key = new ValueKey(record.entityRecordId(), record.attributeId());
+                Candidate current = candidates.get(key);
+                if (current == null || current.value().version() <= record.version()) {
+                    candidates.put(key, new Candidate(new AggregateState.Value(record.entityRecordId(),
+                            record.attributeId(), record.id(), record.version(), Entry.instant(event.recordedAt()),
+                            record.value()), record.operator() == Event.Operator.DELETE));
+                }
+            }
+        }
+
+        List<AggregateState.Value> values = new ArrayList<>(candidates.size());
+        long version = 0;
+        for (Candidate candidate : candidates.values()) {
+            if (!candidate.deleted()) {
+                values.add(candidate.value());
+                version = Math.max(version, candidate.value().version());
+            }
+        }
+        values.sort(VALUE_ORDER);
+        return new AsOf(new AggregateState(rootRecordId, version, values), recordedAt);
+    }
+
+    private long write(Entry entry) {
+        byte[] payload = Entry.encode(entry);
+        try {
+            Segment active = segments.lastEntry().getValue();
+            if (active.size() > 0 && active.size() + Segment.HEADER_SIZE + payload.length > segmentSize) {
+                active = Segment.open(directory, active.nextOffset());
+                segments.put(active.baseOffset, active);
+            }
+
+            long offset = active.append(payload);
+            if (sync) {
+                active.force();
+            }
+            return offset;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Entry read(long offset) {
+        try {
+            return Entry.decode(segments.floorEntry(offset).getValue().read(offset));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void apply(long offset, Entry entry) {
+        switch (entry) {
+            case Entry.EventEntry event -> applyEvent(offset, event);
+            case Entry.SnapshotEntry snapshot -> snapshots
+                    .computeIfAbsent(snapshot.rootRecordId(), rootRecordId -> new TreeMap<>())
+                    .put(snapshot.version(), snapshot);
+            case Entry.IndexEntry index -> {
+                IndexColumn column = IndexColumn.of(index.type());
+                indexColumns.put(index.attributeId(), column);
+                indexes.put(index.attributeId(), buildIndex(index.attributeId(), column));
+            }
+        }
+    }
+
+    private void applyEvent(long offset, Entry.EventEntry event) {
+        lastRecordedAt = Math.max(lastRecordedAt, event.recordedAt());
+        Map<BigId, Long> maxVersions = new LinkedHashMap<>();
+        for (Entry.RecordEntry record : event.records()) {
+            if (record.entityRecordId() == null) {
+                continue;
+            }
+            maxVersions.merge(record.rootRecordId(), record.version(), Math::max);
+
+            Map<BigId, Latest> values = latest.computeIfAbsent(record.attributeId(), attributeId -> new HashMap<>());
+            Latest previous = values.get(record.entityRecordId());
+            if (previous != null && previous.version() > record.version()) {
+                continue;
+            }
+
+            Latest current = new Latest(record.version(), record.operator() == Event.Operator.DELETE, record.value());
+            values.put(record.entityRecordId(), current);
+
+            IndexColumn column = indexColumns.get(record.attributeId());
+            if (column != null) {
+                Map<Object, Set<BigId>> index = indexes.get(record.attributeId());
+                if (previous != null && !previous.deleted()) {
+                    Object key = indexKey(column.convert(previous.value()));
+                    Set<BigId> ids = index.get(key);
+                    if (ids != null && ids.remove(record.entityRecordId()) && ids.isEmpty()) {
+                        index.remove(key);
+                    }
+                }
+                if (!current.deleted()) {
+                    index.computeIfAbsent(indexKey(column.convert(current.value())), key -> new HashSet<>())
+                            .add(record.entityRecordId());
+                }
+            }
+        }
+
+        maxVersions.forEach((rootRecordId, maxVersion) -> entriesByRoot
+                .computeIfAbsent(rootRecordId, id -> new ArrayList<>())
+                .add(new RootEntry(offset, maxVersion, event.recordedAt())));
+    }
+
+    private Map<Object, Set<BigId>> buildIndex(long attributeId, IndexColumn column) {
+        Map<Object, Set<BigId>> index = new HashMap<>();
+        latest.getOrDefault(attributeId, Map.of()).forEach((entityRecordId, current) -> {
+            if (!current.deleted()) {
+                index.computeIfAbsent(indexKey(column.convert(current.value())), key -> new HashSet<>())
+                        .add(entityRecordId);
+            }
+        });
+        return index;
+    }
+
+    // Decimals that differ only in scale are the same value
+    private static Object indexKey(Object value) {
+        return value instanceof BigDecimal decimal ? decimal.stripTrailingZeros() : value;
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+            segments.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private record RootEntry(long offset, long maxVersion, long recordedAt) {
+    }
+
+    private record Latest(long version, boolean deleted, AttributeRecord.Value value) {
+    }
+
+    private record ValueKey(BigId entityRecordId, long attributeId) {
+    }
+
+    private record Candidate(AggregateState.Value value, boolean deleted) {
+    }
+
+    private record AsOf(AggregateState state, long recordedAt) {
+    }
+}
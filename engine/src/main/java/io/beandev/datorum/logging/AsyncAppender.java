@@ -0,0 +1,191 @@
+package io.beandev.datorum.logging;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes log records from a bounded ring buffer on a background thread, so callers never wait for the writer.
+ * <p>
+ * Producers claim a slot by advancing the tail and then publish their record into it; the single consumer takes
+ * records in claim order, formats them and writes them, flushing whenever it has caught up. When the buffer is full
+ * the record is dropped and counted rather than blocking the caller.
+ */
+public final class AsyncAppender implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+
+    private final Writer out;
+
+    private final int mask;
+
+    private final AtomicReferenceArray<LogRecord> slots;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    private final AtomicLong head = new AtomicLong();
+
+    private final AtomicLong written = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final Thread consumer;
+
+    private volatile boolean running = true;
+
+    /**
+     * @param capacity the number of records the buffer holds, rounded up to a power of two
+     */
+    public AsyncAppender(Writer out, int capacity) {
+        if (out == null) {
+            throw new IllegalArgumentException("out cannot be null");
+        }
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.out = out;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.consumer = Thread.ofPlatform()
+                .name("datorum-logging")
+                .daemon()
+                .start(this::drain);
+    }
+
+    /**
+     * Queues the record, or drops it when the buffer is full or the appender is closed.
+     *
+     * @return whether the record was queued
+     */
+    boolean append(LogRecord record) {
+        if (!running) {
+            dropped.incrementAndGet();
+            return false;
+        }
+
+        while (true) {
+            long t = tail.get();
+            if (t - head.get() > mask) {
+                dropped.incrementAndGet();
+                return false;
+            }
+
+            if (tail.compareAndSet(t, t + 1)) {
+                slots.set((int) (t & mask), record);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of records dropped because the buffer was full.
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Waits until the records queued before the call have been written and flushed.
+     */
+    public void flush() {
+        long target = tail.get();
+        while (written.get() < target && consumer.isAlive()) {
+            LockSupport.unpark(consumer);
+            LockSupport.parkNanos(50_000);
+        }
+    }
+
+    /**
+     * Writes the queued records and stops the background thread.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            long h = head.get();
+            int index = (int) (h & mask);
+            LogRecord record = slots.get(index);
+            if (record != null) {
+                slots.set(index, null);
+                head.set(h + 1);
+                write(format(record));
+                continue;
+            }
+
+            if (h < tail.get()) {
+                // A producer has claimed the slot but not published its record yet
+                Thread.onSpinWait();
+                continue;
+            }
+
+            if (written.get() < h) {
+                try {
+                    out.flush();
+                } catch (IOException e) {
+                    // There is nowhere left to report a failing log writer
+                }
+                written.set(h);
+            } else if (!running) {
+                return;
+            } else {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void write(String line) {
+        try {
+            out.write(line);
+        } catch (IOException e) {
+            // There is nowhere left to report a failing log writer
+        }
+    }
+
+    static String format(LogRecord record) {
+        StringBuilder result = new StringBuilder(96 + record.pattern().length());
+        result.append(Instant.ofEpochMilli(record.epochMillis()))
+                .append(' ')
+                .append(record.level())
+                .append(" [")
+                .append(record.thread())
+                .append("] ")
+                .append(record.logger())
+                .append(" - ");
+
+        Object[] arguments = record.arguments();
+        int used = 0;
+        String pattern = record.pattern();
+        int from = 0;
+        int at;
+        while (arguments != null && used < arguments.length && (at = pattern.indexOf("{}", from)) != -1) {
+            result.append(pattern, from, at).append(arguments[used++]);
+            from = at + 2;
+        }
+        result.append(pattern, from, pattern.length()).append(System.lineSeparator());
+
+        if (arguments != null && used < arguments.length && arguments[arguments.length - 1] instanceof Throwable t) {
+            StringWriter trace = new StringWriter();
+            t.printStackTrace(new PrintWriter(trace));
+            result.append(trace);
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,10 @@
+package io.beandev.datorum.logging;
+
+public enum Level {
+    TRACE,
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR,
+    OFF
+}
@@ -0,0 +1,13 @@
+package io.beandev.datorum.logging;
+
+/**
+ * A log statement as captured on the calling thread. The message is formatted later, on the appender thread, so the
+ * arguments should not be mutated after they are logged.
+ */
+record LogRecord(long epochMillis,
+                 Level level,
+                 String logger,
+                 String thread,
+                 String pattern,
+                 Object[] arguments) {
+}
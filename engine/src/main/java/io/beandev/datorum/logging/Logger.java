@@ -0,0 +1,161 @@
+package io.beandev.datorum.logging;
+
+/**
+ * A named logger with level guards and {@code {}} placeholders.
+ * <p>
+ * A disabled statement costs a level comparison: the one and two argument variants allocate nothing, and arguments
+ * are only turned into text on the appender thread. A {@link Throwable} passed as the last argument and not used by a
+ * placeholder is printed with its stack trace.
+ */
+public final class Logger {
+    private final String name;
+
+    Logger(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.ordinal() >= Logging.threshold();
+    }
+
+    public boolean isTraceEnabled() {
+        return isEnabled(Level.TRACE);
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    public boolean isInfoEnabled() {
+        return isEnabled(Level.INFO);
+    }
+
+    public void trace(String message) {
+        if (isEnabled(Level.TRACE)) {
+            log(Level.TRACE, message, null);
+        }
+    }
+
+    public void trace(String pattern, Object argument) {
+        if (isEnabled(Level.TRACE)) {
+            log(Level.TRACE, pattern, new Object[]{argument});
+        }
+    }
+
+    public void trace(String pattern, Object first, Object second) {
+        if (isEnabled(Level.TRACE)) {
+            log(Level.TRACE, pattern, new Object[]{first, second});
+        }
+    }
+
+    public void trace(String pattern, Object... arguments) {
+        if (isEnabled(Level.TRACE)) {
+            log(Level.TRACE, pattern, arguments);
+        }
+    }
+
+    public void debug(String message) {
+        if (isEnabled(Level.DEBUG)) {
+            log(Level.DEBUG, message, null);
+        }
+    }
+
+    public void debug(String pattern, Object argument) {
+        if (isEnabled(Level.DEBUG)) {
+            log(Level.DEBUG, pattern, new Object[]{argument});
+        }
+    }
+
+    public void debug(String pattern, Object first, Object second) {
+        if (isEnabled(Level.DEBUG)) {
+            log(Level.DEBUG, pattern, new Object[]{first, second});
+        }
+    }
+
+    public void debug(String pattern, Object... arguments) {
+        if (isEnabled(Level.DEBUG)) {
+            log(Level.DEBUG, pattern, arguments);
+        }
+    }
+
+    public void info(String message) {
+        if (isEnabled(Level.INFO)) {
+            log(Level.INFO, message, null);
+        }
+    }
+
+    public void info(String pattern, Object argument) {
+        if (isEnabled(Level.INFO)) {
+            log(Level.INFO, pattern, new Object[]{argument});
+        }
+    }
+
+    public void info(String pattern, Object first, Object second) {
+        if (isEnabled(Level.INFO)) {
+            log(Level.INFO, pattern, new Object[]{first, second});
+        }
+    }
+
+    public void info(String pattern, Object... arguments) {
+        if (isEnabled(Level.INFO)) {
+            log(Level.INFO, pattern, arguments);
+        }
+    }
+
+    public void warn(String message) {
+        if (isEnabled(Level.WARN)) {
+            log(Level.WARN, message, null);
+        }
+    }
+
+    public void warn(String pattern, Object argument) {
+        if (isEnabled(Level.WARN)) {
+            log(Level.WARN, pattern, new Object[]{argument});
+        }
+    }
+
+    public void warn(String pattern, Object first, Object second) {
+        if (isEnabled(Level.WARN)) {
+            log(Level.WARN, pattern, new Object[]{first, second});
+        }
+    }
+
+    public void warn(String pattern, Object... arguments) {
+        if (isEnabled(Level.WARN)) {
+            log(Level.WARN, pattern, arguments);
+        }
+    }
+
+    public void error(String message) {
+        if (isEnabled(Level.ERROR)) {
+            log(Level.ERROR, message, null);
+        }
+    }
+
+    public void error(String pattern, Object argument) {
+        if (isEnabled(Level.ERROR)) {
+            log(Level.ERROR, pattern, new Object[]{argument});
+        }
+    }
+
+    public void error(String pattern, Object first, Object second) {
+        if (isEnabled(Level.ERROR)) {
+            log(Level.ERROR, pattern, new Object[]{first, second});
+        }
+    }
+
+    public void error(String pattern, Object... arguments) {
+        if (isEnabled(Level.ERROR)) {
+            log(Level.ERROR, pattern, arguments);
+        }
+    }
+
+    private void log(Level level, String pattern, Object[] arguments) {
+        Logging.appender().append(new LogRecord(System.currentTimeMillis(), level, name,
+                Thread.currentThread().getName(), pattern, arguments));
+    }
+}
@@ -0,0 +1,81 @@
+package io.beandev.datorum.logging;
+
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The loggers of the engine and their shared level and appender.
+ * <p>
+ * The level defaults to the {@code datorum.log.level} system property, or {@link Level#INFO}, and records go to
+ * standard error through an {@link AsyncAppender} that is flushed when the JVM shuts down.
+ */
+public final class Logging {
+    private static final Map<String, Logger> LOGGERS = new ConcurrentHashMap<>();
+
+    private static volatile int threshold =
+            Level.valueOf(System.getProperty("datorum.log.level", "INFO").toUpperCase(Locale.ROOT)).ordinal();
+
+    private static volatile AsyncAppender appender = defaultAppender();
+
+    private Logging() {
+    }
+
+    public static Logger getLogger(Class<?> clazz) {
+        if (clazz == null) {
+            throw new IllegalArgumentException("clazz cannot be null");
+        }
+
+        return getLogger(clazz.getName());
+    }
+
+    public static Logger getLogger(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("name cannot be null");
+        }
+
+        return LOGGERS.computeIfAbsent(name, Logger::new);
+    }
+
+    public static Level level() {
+        return Level.values()[threshold];
+    }
+
+    public static void setLevel(Level level) {
+        if (level == null) {
+            throw new IllegalArgumentException("level cannot be null");
+        }
+
+        threshold = level.ordinal();
+    }
+
+    public static AsyncAppender appender() {
+        return appender;
+    }
+
+    /**
+     * Replaces the appender records are sent to and returns the previous one, which is left open.
+     */
+    public static AsyncAppender setAppender(AsyncAppender appender) {
+        if (appender == null) {
+            throw new IllegalArgumentException("appender cannot be null");
+        }
+
+        AsyncAppender previous = Logging.appender;
+        Logging.appender = appender;
+        return previous;
+    }
+
+    static int threshold() {
+        return threshold;
+    }
+
+    private static AsyncAppender defaultAppender() {
+        AsyncAppender result = new AsyncAppender(new OutputStreamWriter(System.err, StandardCharsets.UTF_8),
+                AsyncAppender.DEFAULT_CAPACITY);
+        Runtime.getRuntime().addShutdownHook(new Thread(result::close, "datorum-logging-shutdown"));
+        return result;
+    }
+}
@@ -0,0 +1,37 @@
+package io.beandev.datorum.metrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The registry of instrumented operations of the engine.
+ * <p>
+ * Operations are looked up once, typically into a static field, and recorded on without going through the registry.
+ */
+public final class Metrics {
+    private static final ConcurrentMap<String, Operation> OPERATIONS = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    public static Operation operation(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("name cannot be null");
+        }
+
+        return OPERATIONS.computeIfAbsent(name, Operation::new);
+    }
+
+    /**
+     * Returns the registered operations ordered by name.
+     */
+    public static Collection<Operation> operations() {
+        List<Operation> operations = new ArrayList<>(OPERATIONS.values());
+        operations.sort(Comparator.comparing(Operation::name));
+        return operations;
+    }
+}
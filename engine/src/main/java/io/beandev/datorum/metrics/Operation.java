@@ -0,0 +1,143 @@
+package io.beandev.datorum.metrics;
+
+import jdk.jfr.EventType;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The latencies, calls and failures of one instrumented operation.
+ * <p>
+ * Call sites keep the operation in a static field and wrap their work in {@link #time(Call)} or
+ * {@link #run(Action)}, which record it as failed when it throws:
+ * <pre>{@code
+ * public T save(T entity) {
+ *     return SAVE.time(() -> upsert(entity));
+ * }
+ * }</pre>
+ * The lambda of a call site that captures variables, like the one above, is allocated on every call, and so is the
+ * Flight Recorder event while it is enabled. Hot paths can use {@link #start()} and {@link #stop(long, boolean)} in a
+ * {@code try}/{@code finally} instead, which allocate nothing but only record the latencies, calls and failures, not
+ * the Flight Recorder event.
+ */
+public final class Operation {
+    private static final EventType EVENT_TYPE = EventType.getEventType(OperationEvent.class);
+
+    private final String name;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final LongAdder calls = new LongAdder();
+
+    private final LongAdder failures = new LongAdder();
+
+    Operation(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Calls the work and records its latency, letting its exception through.
+     */
+    public <T, E extends Exception> T time(Call<T, E> call) throws E {
+        OperationEvent event = begin();
+        long start = start();
+        boolean failed = true;
+        try {
+            T result = call.call();
+            failed = false;
+            return result;
+        } finally {
+            commit(event, record(start, failed), failed);
+        }
+    }
+
+    /**
+     * Runs the work and records its latency, letting its exception through.
+     */
+    public <E extends Exception> void run(Action<E> action) throws E {
+        OperationEvent event = begin();
+        long start = start();
+        boolean failed = true;
+        try {
+            action.run();
+            failed = false;
+        } finally {
+            commit(event, record(start, failed), failed);
+        }
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void stop(long start, boolean failed) {
+        record(start, failed);
+    }
+
+    private long record(long start, boolean failed) {
+        long nanos = System.nanoTime() - start;
+        latency.record(nanos);
+        calls.increment();
+        if (failed) {
+            failures.increment();
+        }
+        return nanos;
+    }
+
+    private static OperationEvent begin() {
+        if (!EVENT_TYPE.isEnabled()) {
+            return null;
+        }
+
+        OperationEvent event = new OperationEvent();
+        event.begin();
+        return event;
+    }
+
+    // Committed only when the operation took at least the threshold of the recording
+    private void commit(OperationEvent event, long nanos, boolean failed) {
+        if (event == null) {
+            return;
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = name;
+            event.latency = nanos;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public LatencyHistogram latency() {
+        return latency;
+    }
+
+    public long calls() {
+        return calls.sum();
+    }
+
+    public long failures() {
+        return failures.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s calls=%d failures=%d mean=%.0fns p50=%dns p99=%dns max=%dns",
+                name, calls(), failures(), latency.mean(), latency.percentile(0.5), latency.percentile(0.99),
+                latency.max());
+    }
+
+    @FunctionalInterface
+    public interface Call<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    @FunctionalInterface
+    public interface Action<E extends Exception> {
+        void run() throws E;
+    }
+}
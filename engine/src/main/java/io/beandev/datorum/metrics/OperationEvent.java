@@ -0,0 +1,30 @@
+package io.beandev.datorum.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A Flight Recorder event spanning an operation timed with {@link Operation#time(Operation.Call)} or
+ * {@link Operation#run(Operation.Action)}, committed while it is enabled and the operation took at least its threshold.
+ */
+@Name("io.beandev.datorum.Operation")
+@Label("Datorum Operation")
+@Category("Datorum")
+@Description("An instrumented engine operation, e.g. a repository save")
+@StackTrace(false)
+final class OperationEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+
+    @Label("Failed")
+    boolean failed;
+}
@@ -1,8 +1,17 @@
 package io.beandev.datorum.migration;
 
+import io.beandev.datorum.logging.Logger;
+import io.beandev.datorum.logging.Logging;
+import io.beandev.datorum.metrics.Metrics;
+import io.beandev.datorum.metrics.Operation;
+
 import java.util.Arrays;
 
 public class Migrator {
+    private static final Logger LOG = Logging.getLogger(Migrator.class);
+
+    private static final Operation APPLY = Metrics.operation("Migrator.apply");
+
     private final MigrationRepository repository;
 
     public Migrator(MigrationRepository repository) {
@@ -10,36 +19,12 @@ public class Migrator {
     }
 
     public void apply(Migration migration) {
-        Arrays.stream(migration.differences()).forEach(difference -> {
-            System.out.println(difference);
-            Scope scope = difference.scope();
-            switch (scope) {
-                case Scope.APP:
-                    System.out.println("APP");
-                    break;
-                case Scope.CONTEXT:
-                    System.out.println("CONTEXT");
-                    break;
-                case Scope.AGGREGATE:
-                    System.out.println("AGGREGATE");
-                    break;
-                case Scope.ENTITY:
-                    System.out.println("ENTITY");
-                    break;
-                case Scope.ATTRIBUTE:
-                    System.out.println("ATTRIBUTE");
-                default:
-                    break;
-            }
-            difference.id();
-            Difference.Action type = difference.action();
-            switch (type) {
-                case Difference.Action.CREATE -> System.out.println("CREATE");
-                case Difference.Action.RENAME -> System.out.println("RENAME");
-                case Difference.Action.CHANGE_ATTRIBUTE_OWNER -> System.out.println("ATTRIBUTE_OWNER");
-                case Difference.Action.CHANGE_DATA_TYPE -> System.out.println("DATA_TYPE");
-            }
-        });
+        APPLY.run(() -> applyDifferences(migration));
+    }
+
+    private void applyDifferences(Migration migration) {
+        Arrays.stream(migration.differences()).forEach(difference ->
+                LOG.debug("Applying {} {}", difference.action(), difference));
         repository.save(migration);
     }
 
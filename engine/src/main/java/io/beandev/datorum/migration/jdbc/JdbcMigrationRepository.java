@@ -1,5 +1,8 @@
 package io.beandev.datorum.migration.jdbc;
 
+import io.beandev.datorum.connection.DataSourceManager;
+import io.beandev.datorum.metrics.Metrics;
+import io.beandev.datorum.metrics.Operation;
 import io.beandev.datorum.migration.AggregateSnapshot;
 import io.beandev.datorum.migration.Difference;
 import io.beandev.datorum.migration.Migration;
@@ -15,6 +18,10 @@ import java.sql.Statement;
 import java.util.stream.Stream;
 
 public class JdbcMigrationRepository implements MigrationRepository {
+    private static final Operation SAVE = Metrics.operation("JdbcMigrationRepository.save");
+
+    private static final Operation CREATE_BASE_TABLES = Metrics.operation("JdbcMigrationRepository.createBaseTables");
+
 
     private final DataSource dataSource;
 
@@ -24,7 +31,11 @@ public class JdbcMigrationRepository implements MigrationRepository {
 
     @Override
     public Migration save(Migration migration) {
-        try (Connection conn = dataSource.getConnection()) {
+        return SAVE.time(() -> insert(migration));
+    }
+
+    private Migration insert(Migration migration) {
+        try (Connection conn = DataSourceManager.getConnection(dataSource)) {
             conn.setAutoCommit(false);
             // save migration to migration table
             String insertMigrationSql = "INSERT INTO datorum_schema.migration (parent_id, id, previous_parent_id, previous_id, hash, status) VALUES (?, ?, ?, ?, ?, ?::datorum_schema.statusenum)";
@@ -86,7 +97,11 @@ public class JdbcMigrationRepository implements MigrationRepository {
 
     @Override
     public void createBaseTables() {
-        try (Connection conn = dataSource.getConnection()) {
+        CREATE_BASE_TABLES.run(this::createTables);
+    }
+
+    private void createTables() {
+        try (Connection conn = DataSourceManager.getConnection(dataSource)) {
             conn.setAutoCommit(false);
             try (Statement stmt = conn.createStatement()) {
                 // Check the types
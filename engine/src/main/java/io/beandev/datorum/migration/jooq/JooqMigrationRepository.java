@@ -1,109 +1,172 @@
 package io.beandev.datorum.migration.jooq;
 
+import io.beandev.datorum.connection.DslContexts;
+import io.beandev.datorum.metrics.Metrics;
+import io.beandev.datorum.metrics.Operation;
 import io.beandev.datorum.migration.AggregateSnapshot;
+import io.beandev.datorum.migration.Difference;
 import io.beandev.datorum.migration.Migration;
 import io.beandev.datorum.migration.MigrationRepository;
 import io.beandev.datorum.schema.Aggregate;
+import io.beandev.datorum.schema.Attribute;
 import org.jooq.DSLContext;
-import org.jooq.Record;
-import org.jooq.Result;
-import org.jooq.SQLDialect;
+import org.jooq.Select;
+import org.jooq.Table;
 import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
 
 import javax.sql.DataSource;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.util.Arrays;
+import java.sql.Types;
 import java.util.stream.Stream;
 
 import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.name;
+import static org.jooq.impl.DSL.param;
+import static org.jooq.impl.DSL.selectOne;
 import static org.jooq.impl.DSL.table;
 
 public class JooqMigrationRepository implements MigrationRepository {
+    private static final Operation SAVE = Metrics.operation("JooqMigrationRepository.save");
 
-    private final DataSource dataSource;
+    private static final Operation CREATE_BASE_TABLES = Metrics.operation("JooqMigrationRepository.createBaseTables");
+
+
+    private static final Table<?> MIGRATION = table(name("datorum_schema", "migration"));
+    private static final Table<?> DIFFERENCE = table(name("datorum_schema", "difference"));
+    private static final Table<?> PG_TYPE = table(name("pg_catalog", "pg_type"));
+    private static final Table<?> PG_NAMESPACE = table(name("pg_catalog", "pg_namespace"));
+
+    private static final String INSERT_MIGRATION_SQL = DslContexts.render(ctx -> ctx.insertInto(
+            MIGRATION,
+            field(name("parent_id"), SQLDataType.BIGINT),
+            field(name("id"), SQLDataType.BIGINT),
+            field(name("previous_parent_id"), SQLDataType.BIGINT),
+            field(name("previous_id"), SQLDataType.BIGINT),
+            field(name("hash"), SQLDataType.VARCHAR),
+            field(name("status"), SQLDataType.VARCHAR)
+    ).values(
+            param(SQLDataType.BIGINT),
+            param(SQLDataType.BIGINT),
+            param(SQLDataType.BIGINT),
+            param(SQLDataType.BIGINT),
+            param(SQLDataType.VARCHAR),
+            field("?::datorum_schema.statusenum", SQLDataType.VARCHAR, (Object) null)
+    ));
+
+    private static final String INSERT_DIFFERENCE_SQL = DslContexts.render(ctx -> ctx.insertInto(
+            DIFFERENCE,
+            field(name("id"), SQLDataType.BIGINT),
+            field(name("migration_parent_id"), SQLDataType.BIGINT),
+            field(name("migration_id"), SQLDataType.BIGINT),
+            field(name("name"), SQLDataType.VARCHAR),
+            field(name("scope"), SQLDataType.VARCHAR),
+            field(name("action"), SQLDataType.VARCHAR),
+            field(name("data_type"), SQLDataType.OTHER),
+            field(name("relation_entity_id"), SQLDataType.BIGINT),
+            field(name("owner_entity_id"), SQLDataType.BIGINT)
+    ).values(
+            param(SQLDataType.BIGINT),
+            param(SQLDataType.BIGINT),
+            param(SQLDataType.BIGINT),
+            param(SQLDataType.VARCHAR),
+            field("?::datorum_schema.scopeenum", SQLDataType.VARCHAR, (Object) null),
+            field("?::datorum_schema.differenceactionenum", SQLDataType.VARCHAR, (Object) null),
+            field("?::datorum_schema.datatype", SQLDataType.OTHER, (Object) null),
+            param(SQLDataType.BIGINT),
+            param(SQLDataType.BIGINT)
+    ));
+
+    private static final Select<?> BASE_TYPES_EXIST = selectOne()
+            .from(PG_TYPE)
+            .join(PG_NAMESPACE)
+            .on(field(name("pg_type", "typnamespace")).eq(field(name("pg_namespace", "oid"))))
+            .where(field(name("pg_type", "typname")).eq("_scopeenum"))
+            .and(field(name("pg_namespace", "nspname")).eq("datorum_schema"))
+            .and(field(name("pg_type", "typtype")).eq("b"));
+
+    private final DSLContext dsl;
 
     public JooqMigrationRepository(DataSource ds) {
-        dataSource = ds;
+        this(DslContexts.of(ds));
+    }
+
+    public JooqMigrationRepository(DSLContext dsl) {
+        this.dsl = dsl;
     }
 
     @Override
     public Migration save(Migration migration) {
-        try (var conn = dataSource.getConnection()) {
-            // Initialize the DSLContext
-            DSLContext create = DSL.using(conn, SQLDialect.POSTGRES);
+        return SAVE.time(() -> insert(migration));
+    }
 
-            // Start the transaction
-            create.transaction(configuration -> {
-                DSLContext ctx = DSL.using(configuration);
-                ctx.insertInto(
-                        table("datorum_schema.migration"),
-                        field("parent_id"),
-                        field("id"),
-                        field("previous_parent_id"),
-                        field("previous_id"),
-                        field("hash"),
-                        field("status")
-                ).values(
-                        migration.parentId(),
-                        migration.id(),
-                        migration.previousMigrationParentId(),
-                        migration.previousMigrationId(),
-                        migration.hash(),
-                        migration.status()
-                ).execute();
-
-                Arrays.stream(migration.differences()).forEach(difference -> {
-                    ctx.insertInto(
-                            table("datorum_schema.difference"),
-                            field("id"),
-                            field("migration_parent_id"),
-                            field("migration_id"),
-                            field("name"),
-                            field("scope"),
-                            field("action"),
-                            field("data_type"),
-                            field("relation_entity_id"),
-                            field("owner_entity_id")
-                    ).values(
-                            difference.id(),
-                            migration.parentId(),
-                            migration.id(),
-                            difference.name(),
-                            difference.scope().name(),
-                            difference.action().name(),
-                            difference.dataTypeName(),
-                            difference.relationEntityId(),
-                            difference.ownerEntityId()
-                    ).execute();
-                });
-            });
+    private Migration insert(Migration migration) {
+        dsl.transaction(configuration -> DSL.using(configuration).connection(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_MIGRATION_SQL)) {
+                stmt.setLong(1, migration.parentId());
+                stmt.setLong(2, migration.id());
+                setNullableLong(stmt, 3, migration.previousMigrationParentId());
+                setNullableLong(stmt, 4, migration.previousMigrationId());
+                stmt.setString(5, migration.hash());
+                stmt.setString(6, migration.status() != null ? migration.status().name() : null);
+                stmt.executeUpdate();
+            }
+
+            // One prepared statement for all the differences, sent as a single batch
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_DIFFERENCE_SQL)) {
+                for (Difference difference : migration.differences()) {
+                    stmt.setLong(1, difference.id());
+                    stmt.setLong(2, migration.parentId());
+                    stmt.setLong(3, migration.id());
+                    stmt.setString(4, difference.name());
+                    stmt.setString(5, difference.scope().name());
+                    stmt.setString(6, difference.action().name());
+                    stmt.setString(7, dataTypeLiteral(difference.dataType()));
+                    setNullableLong(stmt, 8, difference.relationEntityId());
+                    setNullableLong(stmt, 9, difference.ownerEntityId());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        }));
 
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        }
         return migration;
     }
 
+    /**
+     * Returns the data type as a {@code datorum_schema.DataType} composite literal, e.g. {@code (DECIMAL,10,2)}.
+     */
+    private static String dataTypeLiteral(Attribute.DataType dataType) {
+        if (dataType == null) {
+            return null;
+        }
+
+        return "(" + dataType.type().name()
+                + "," + (dataType.precisionOrLength() == null ? "" : dataType.precisionOrLength())
+                + "," + (dataType.scale() == null ? "" : dataType.scale()) + ")";
+    }
+
+    private static void setNullableLong(PreparedStatement stmt, int index, Long value) throws SQLException {
+        if (value != null) {
+            stmt.setLong(index, value);
+        } else {
+            stmt.setNull(index, Types.BIGINT);
+        }
+    }
+
     @Override
     public void createBaseTables() {
-        try (var conn = dataSource.getConnection()) {
-            // Initialize the DSLContext
-            DSLContext create = DSL.using(conn, SQLDialect.POSTGRES);
+        CREATE_BASE_TABLES.run(this::createTables);
+    }
 
+    private void createTables() {
+        try {
             // Start the transaction
-            create.transaction(configuration -> {
+            dsl.transaction(configuration -> {
                 DSLContext ctx = DSL.using(configuration);
 
-                Result<Record> result = ctx.select()
-                        .from(table("pg_catalog.pg_type"))
-                        .join(table("pg_catalog.pg_namespace"))
-                        .on(field("pg_type.typnamespace").eq(field("pg_namespace.oid")))
-                        .where(field("typname").eq("_scopeenum"))
-                        .and(field("pg_namespace.nspname").eq("datorum_schema"))
-                        .and(field("pg_type.typtype").eq("b"))
-                        .fetch();
-
-                if (result.stream().count() > 0) {
+                if (ctx.fetchExists(BASE_TYPES_EXIST)) {
                     return;
                 }
 
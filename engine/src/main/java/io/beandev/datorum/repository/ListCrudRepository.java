@@ -1,6 +1,7 @@
 package io.beandev.datorum.repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ListCrudRepository<T, ID> extends CrudRepository<T, ID> {
 
@@ -25,6 +26,17 @@ public interface ListCrudRepository<T, ID> extends CrudRepository<T, ID> {
      */
     List<T> findAll();
 
+    /**
+     * Returns all instances of the type as a lazily fetched {@link Stream}.
+     * <p>
+     * Rows are fetched in batches while the stream is consumed, so memory use does not grow with the number of
+     * entities. The stream holds database resources until it is closed and should be used in a try-with-resources
+     * block.
+     *
+     * @return all entities, in no particular order
+     */
+    Stream<T> streamAll();
+
     /**
      * Returns all instances of the type {@code T} with the given IDs.
      * <p>
@@ -0,0 +1,155 @@
+package io.beandev.datorum.repository.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.beandev.datorum.repository.ListCrudRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * A read-through cache in front of any {@link ListCrudRepository}.
+ * <p>
+ * Lookups by id go through a Caffeine cache, which evicts by size or weight with W-TinyLFU (frequency-aware)
+ * admission and supports expiry and refresh-ahead. Concurrent misses on the same id share a single load, and the
+ * missing ids of a {@link #findAllById(Iterable)} call are loaded with one {@code findAllById} on the delegate.
+ * {@link #save(Object)} and {@link #saveAll(Iterable)} write through to the delegate and invalidate the saved ids.
+ * <p>
+ * {@link #findAll()} and {@link #streamAll()} are not cached.
+ */
+public class CachingListCrudRepository<T, ID> implements ListCrudRepository<T, ID> {
+    private final ListCrudRepository<T, ID> delegate;
+
+    private final Function<? super T, ? extends ID> idOf;
+
+    private final AsyncLoadingCache<ID, T> cache;
+
+    private final LoadingCache<ID, T> view;
+
+    /**
+     * Caches up to 10 000 entities for 10 minutes and refreshes the ones read after 1 minute, loading on Caffeine's
+     * default executor.
+     */
+    public CachingListCrudRepository(ListCrudRepository<T, ID> delegate, Function<? super T, ? extends ID> idOf) {
+        this(delegate, idOf, Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMinutes(10))
+                .refreshAfterWrite(Duration.ofMinutes(1)));
+    }
+
+    /**
+     * @param spec the eviction, expiry and refresh settings, e.g. {@code maximumWeight} with a {@code weigher}, and
+     *             the {@code executor} loads run on, which the caller owns and shuts down. Statistics are always
+     *             recorded.
+     */
+    public CachingListCrudRepository(ListCrudRepository<T, ID> delegate, Function<? super T, ? extends ID> idOf,
+                                     Caffeine<? super ID, ? super T> spec) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("delegate cannot be null");
+        }
+
+        if (idOf == null) {
+            throw new IllegalArgumentException("idOf cannot be null");
+        }
+
+        if (spec == null) {
+            throw new IllegalArgumentException("spec cannot be null");
+        }
+
+        this.delegate = delegate;
+        this.idOf = idOf;
+        this.cache = spec.recordStats().buildAsync(new Loader());
+        this.view = cache.synchronous();
+    }
+
+    /**
+     * Returns the entity with the given id, or {@literal null} if there is none.
+     */
+    public T findById(ID id) {
+        if (id == null) {
+            throw new IllegalArgumentException("id cannot be null");
+        }
+
+        return view.get(id);
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<ID> ids) {
+        if (ids == null) {
+            throw new IllegalArgumentException("ids cannot be null");
+        }
+
+        // Copied once, so an Iterable that can only be iterated once is both checked and loaded
+        List<ID> idList = new ArrayList<>();
+        for (ID id : ids) {
+            if (id == null) {
+                throw new IllegalArgumentException("ids cannot contain null");
+            }
+            idList.add(id);
+        }
+
+        return new ArrayList<>(view.getAll(idList).values());
+    }
+
+    @Override
+    public T save(T entity) {
+        T saved = delegate.save(entity);
+        view.invalidate(idOf.apply(entity));
+        return saved;
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = delegate.saveAll(entities);
+        view.invalidateAll(saved.stream().map(idOf).toList());
+        return saved;
+    }
+
+    @Override
+    public List<T> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Stream<T> streamAll() {
+        return delegate.streamAll();
+    }
+
+    /**
+     * Hit count, hit ratio, load count and average load latency ({@link CacheStats#averageLoadPenalty()}, in
+     * nanoseconds) since the repository was created.
+     */
+    public CacheStats stats() {
+        return view.stats();
+    }
+
+    public void invalidateAll() {
+        view.invalidateAll();
+    }
+
+    private final class Loader implements CacheLoader<ID, T> {
+        @Override
+        public T load(ID id) {
+            List<T> found = delegate.findAllById(List.of(id));
+            return found.isEmpty() ? null : found.getFirst();
+        }
+
+        @Override
+        public Map<ID, T> loadAll(Set<? extends ID> ids) {
+            Map<ID, T> result = new HashMap<>();
+            for (T entity : delegate.findAllById(new ArrayList<>(ids))) {
+                result.put(idOf.apply(entity), entity);
+            }
+            return result;
+        }
+    }
+}
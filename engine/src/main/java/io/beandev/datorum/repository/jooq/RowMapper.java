@@ -0,0 +1,532 @@
+package io.beandev.datorum.repository.jooq;
+
+import datorum.utilities.StringPool;
+import io.beandev.datorum.connection.CopyWriter;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Maps JDBC rows to Java records, and records to statement parameters, without per-row reflection.
+ * <p>
+ * A mapper is generated once per record class: the canonical constructor becomes a spreading {@link MethodHandle}
+ * and every component accessor becomes a {@link Function} spun by {@link LambdaMetafactory}. Rows are read straight
+ * from the {@link ResultSet} by column position, so no intermediate jOOQ {@code Record} is created.
+ * <p>
+ * Components are mapped to snake_case columns. A component whose type is a record with an {@code id} component (for
+ * example {@code Aggregate.context}) is stored as a {@code <name>_id} reference column and read back as a record
+ * holding only its id. A component whose type is a record without an id (for example {@code Attribute.type}) is stored
+ * in one column per component: the first in {@code <name>}, the others in {@code <name>_<component>}. Such records
+ * must have all their columns in the table, or none, so that none of their components is lost. Components without a
+ * column keep their default value.
+ */
+final class RowMapper<T> {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final ClassValue<RowMapper<?>> MAPPERS = new ClassValue<>() {
+        @Override
+        protected RowMapper<?> computeValue(Class<?> type) {
+            return new RowMapper<>(type);
+        }
+    };
+
+    private final Class<T> type;
+    private final MethodHandle constructor;
+    private final Object[] defaults;
+    private final Class<?>[] componentTypes;
+    private final int idComponent;
+    private final Class<?> idType;
+    private final Column[] columns;
+
+    @SuppressWarnings("unchecked")
+    static <T> RowMapper<T> of(Class<T> type) {
+        return (RowMapper<T>) MAPPERS.get(type);
+    }
+
+    private RowMapper(Class<T> type) {
+        if (!type.isRecord()) {
+            throw new IllegalArgumentException(type.getName() + " is not a record");
+        }
+
+        RecordComponent[] components = type.getRecordComponents();
+        Class<?>[] parameterTypes = new Class<?>[components.length];
+        List<Column> mapped = new ArrayList<>();
+        int id = -1;
+
+        this.defaults = new Object[components.length];
+        for (int i = 0; i < components.length; i++) {
+            RecordComponent component = components[i];
+            parameterTypes[i] = component.getType();
+            defaults[i] = defaultValue(component.getType());
+            if ("id".equals(component.getName())) {
+                id = i;
+            }
+
+            Codec codec = Codec.of(component.getType());
+            if (codec != null) {
+                String column = snakeCase(component.getName()) + (codec instanceof ReferenceCodec ? "_id" : "");
+                mapped.add(new Column(column, i, -1, codec, accessor(component)));
+            } else if (ValueColumns.stores(component.getType())) {
+                if (i == id) {
+                    throw new IllegalArgumentException(type.getName() + " has an id of several components, which "
+                            + "cannot be stored in one column");
+                }
+
+                ValueColumns value = ValueColumns.of(component.getType());
+                Function<Object, Object> outer = accessor(component);
+                RecordComponent[] parts = component.getType().getRecordComponents();
+                for (int p = 0; p < parts.length; p++) {
+                    String column = snakeCase(component.getName())
+                            + (p == 0 ? "" : "_" + snakeCase(parts[p].getName()))
+                            + (value.parts()[p] instanceof ReferenceCodec ? "_id" : "");
+                    Function<Object, Object> inner = accessor(parts[p]);
+                    mapped.add(new Column(column, i, p, value.parts()[p], entity -> {
+                        Object part = outer.apply(entity);
+                        return part == null ? null : inner.apply(part);
+                    }));
+                }
+            }
+        }
+
+        try {
+            this.constructor = LOOKUP.findConstructor(type, MethodType.methodType(void.class, parameterTypes))
+                    .asSpreader(Object[].class, components.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot access the canonical constructor of " + type.getName(), e);
+        }
+
+        this.type = type;
+        this.componentTypes = parameterTypes;
+        this.idComponent = id;
+        this.idType = id < 0 ? null : parameterTypes[id];
+        this.columns = mapped.toArray(Column[]::new);
+    }
+
+    private RowMapper(RowMapper<T> mapper, Column[] columns) {
+        this.type = mapper.type;
+        this.constructor = mapper.constructor;
+        this.defaults = mapper.defaults;
+        this.componentTypes = mapper.componentTypes;
+        this.idComponent = mapper.idComponent;
+        this.idType = mapper.idType;
+        this.columns = columns;
+    }
+
+    /**
+     * Returns a mapper that only reads and writes the given columns, e.g. the ones present in the target table.
+     */
+    RowMapper<T> restrictTo(Collection<String> available) {
+        Column[] restricted = Arrays.stream(columns)
+                .filter(column -> available.contains(column.name()))
+                .toArray(Column[]::new);
+
+        for (Column column : columns) {
+            boolean partial = column.part() >= 0 && !available.contains(column.name()) && Arrays.stream(restricted)
+                    .anyMatch(kept -> kept.component() == column.component());
+            if (partial) {
+                throw new IllegalStateException("Table " + schemaName() + "." + tableName() + " has no column "
+                        + column.name() + " for a component of " + type.getName());
+            }
+        }
+
+        return new RowMapper<>(this, restricted);
+    }
+
+    Class<T> type() {
+        return type;
+    }
+
+    String schemaName() {
+        String[] packages = type.getPackageName().split("\\.");
+        return "datorum_" + packages[packages.length - 1];
+    }
+
+    String tableName() {
+        return snakeCase(type.getSimpleName());
+    }
+
+    List<String> columnNames() {
+        return Arrays.stream(columns).map(Column::name).toList();
+    }
+
+    /**
+     * The position of the id column in {@link #columnNames()}, or {@code -1} when the id is not mapped.
+     */
+    int idColumn() {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].component() == idComponent) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    Class<?> idType() {
+        return idType;
+    }
+
+    Object id(T entity) {
+        int column = idColumn();
+        if (column < 0) {
+            throw new IllegalStateException(type.getName() + " has no mapped id");
+        }
+        return columns[column].accessor().apply(entity);
+    }
+
+    /**
+     * Reads the current row, expecting the columns of this mapper at positions {@code 1..n}.
+     */
+    T map(ResultSet rs) throws SQLException {
+        Object[] args = defaults.clone();
+        Object[][] parts = null;
+        for (int i = 0; i < columns.length; i++) {
+            Column column = columns[i];
+            Object value = column.codec().read(rs, i + 1);
+            if (column.part() < 0) {
+                args[column.component()] = value;
+            } else if (value != null) {
+                if (parts == null) {
+                    parts = new Object[args.length][];
+                }
+                if (parts[column.component()] == null) {
+                    parts[column.component()] = new Object[of(componentTypes[column.component()]).defaults.length];
+                }
+                parts[column.component()][column.part()] = value;
+            }
+        }
+
+        // A record stored in several columns is null when all of them are
+        if (parts != null) {
+            for (int component = 0; component < parts.length; component++) {
+                if (parts[component] != null) {
+                    args[component] = of(componentTypes[component]).value(parts[component]);
+                }
+            }
+        }
+        return construct(args);
+    }
+
+    /**
+     * Binds the columns of this mapper at positions {@code offset + 1..offset + n}.
+     */
+    void bind(PreparedStatement stmt, int offset, T entity) throws SQLException {
+        for (int i = 0; i < columns.length; i++) {
+            Column column = columns[i];
+            column.codec().write(stmt, offset + i + 1, column.accessor().apply(entity));
+        }
+    }
+
+    /**
+     * Appends the columns of this mapper as one line of Postgres {@code COPY} text format.
+     */
+    void copy(StringBuilder line, T entity) {
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                line.append('\t');
+            }
+            Column column = columns[i];
+            column.codec().copy(line, column.accessor().apply(entity));
+        }
+        line.append('\n');
+    }
+
+    T reference(Object id) {
+        if (idComponent < 0) {
+            throw new IllegalStateException(type.getName() + " has no id");
+        }
+        Object[] args = defaults.clone();
+        args[idComponent] = id;
+        return construct(args);
+    }
+
+    /**
+     * Constructs a record from its components, using the default value of the ones that are null.
+     */
+    T value(Object[] components) {
+        Object[] args = defaults.clone();
+        for (int i = 0; i < components.length; i++) {
+            if (components[i] != null) {
+                args[i] = components[i];
+            }
+        }
+        return construct(args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T construct(Object[] args) {
+        try {
+            return (T) (Object) constructor.invokeExact(args);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> accessor(RecordComponent component) {
+        try {
+            MethodHandle getter = LOOKUP.unreflect(component.getAccessor());
+            CallSite site = LambdaMetafactory.metafactory(
+                    LOOKUP,
+                    "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    getter,
+                    MethodType.methodType(getter.type().wrap().returnType(), component.getDeclaringRecord()));
+            return (Function<Object, Object>) site.getTarget().invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("Cannot access " + component, e);
+        }
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == double.class) {
+            return 0d;
+        }
+        if (type == float.class) {
+            return 0f;
+        }
+        throw new IllegalArgumentException("Unsupported primitive " + type);
+    }
+
+    static String snakeCase(String name) {
+        StringBuilder result = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                if (i > 0) {
+                    result.append('_');
+                }
+                result.append(Character.toLowerCase(c));
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean hasId(Class<?> type) {
+        return Arrays.stream(type.getRecordComponents()).anyMatch(component -> "id".equals(component.getName()));
+    }
+
+    /**
+     * @param part the component of the record stored in several columns that this column holds, or {@code -1}
+     */
+    record Column(String name, int component, int part, Codec codec, Function<Object, Object> accessor) {
+    }
+
+    /**
+     * Reads and writes one column of a given Java type.
+     */
+    interface Codec {
+        Object read(ResultSet rs, int index) throws SQLException;
+
+        void write(PreparedStatement stmt, int index, Object value) throws SQLException;
+
+        default void copy(StringBuilder line, Object value) {
+            copyText(line, value);
+        }
+
+        static Codec of(Class<?> type) {
+            if (type == long.class || type == Long.class) {
+                return new ScalarCodec(Types.BIGINT, type.isPrimitive(), ResultSet::getLong,
+                        (stmt, index, value) -> stmt.setLong(index, (Long) value));
+            }
+            if (type == int.class || type == Integer.class) {
+                return new ScalarCodec(Types.INTEGER, type.isPrimitive(), ResultSet::getInt,
+                        (stmt, index, value) -> stmt.setInt(index, (Integer) value));
+            }
+            if (type == boolean.class || type == Boolean.class) {
+                return new ScalarCodec(Types.BOOLEAN, type.isPrimitive(), ResultSet::getBoolean,
+                        (stmt, index, value) -> stmt.setBoolean(index, (Boolean) value));
+            }
+            if (type == double.class || type == Double.class) {
+                return new ScalarCodec(Types.DOUBLE, type.isPrimitive(), ResultSet::getDouble,
+                        (stmt, index, value) -> stmt.setDouble(index, (Double) value));
+            }
+            if (type == float.class || type == Float.class) {
+                return new ScalarCodec(Types.REAL, type.isPrimitive(), ResultSet::getFloat,
+                        (stmt, index, value) -> stmt.setFloat(index, (Float) value));
+            }
+            if (type == String.class) {
+                // Names and enum-like values repeat across rows, so they share one pooled instance
+                return new ScalarCodec(Types.VARCHAR, false, (rs, index) -> StringPool.shared().intern(rs.getString(index)),
+                        (stmt, index, value) -> stmt.setString(index, (String) value));
+            }
+            if (type == BigDecimal.class) {
+                return new ScalarCodec(Types.DECIMAL, false, ResultSet::getBigDecimal,
+                        (stmt, index, value) -> stmt.setBigDecimal(index, (BigDecimal) value));
+            }
+            if (type == byte[].class) {
+                return new ScalarCodec(Types.BINARY, false, ResultSet::getBytes,
+                        (stmt, index, value) -> stmt.setBytes(index, (byte[]) value));
+            }
+            if (type.isEnum()) {
+                return new EnumCodec(type);
+            }
+            if (type.isRecord() && hasId(type)) {
+                return new ReferenceCodec(type);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Appends a value in {@code COPY} text format: {@code \N} for null, {@code t}/{@code f} for booleans, hex for bytes
+     * and backslash escapes for delimiters in strings.
+     */
+    static void copyText(StringBuilder line, Object value) {
+        switch (value) {
+            case null -> CopyWriter.appendNull(line);
+            case Boolean b -> line.append(b ? 't' : 'f');
+            case BigDecimal d -> line.append(d.toPlainString());
+            case Enum<?> e -> line.append(e.name());
+            case byte[] bytes -> CopyWriter.appendBytes(line, bytes);
+            case String string -> CopyWriter.appendText(line, string);
+            default -> line.append(value);
+        }
+    }
+
+    @FunctionalInterface
+    interface Reader {
+        Object read(ResultSet rs, int index) throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface Writer {
+        void write(PreparedStatement stmt, int index, Object value) throws SQLException;
+    }
+
+    record ScalarCodec(int sqlType, boolean primitive, Reader reader, Writer writer) implements Codec {
+        @Override
+        public Object read(ResultSet rs, int index) throws SQLException {
+            Object value = reader.read(rs, index);
+            return primitive || !rs.wasNull() ? value : null;
+        }
+
+        @Override
+        public void write(PreparedStatement stmt, int index, Object value) throws SQLException {
+            if (value == null) {
+                stmt.setNull(index, sqlType);
+            } else {
+                writer.write(stmt, index, value);
+            }
+        }
+    }
+
+    record EnumCodec(Class<?> type) implements Codec {
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public Object read(ResultSet rs, int index) throws SQLException {
+            String name = rs.getString(index);
+            return name == null ? null : Enum.valueOf((Class) type, name);
+        }
+
+        /**
+         * Binds the name untyped, so that Postgres converts it to the enum type of the column, or to text.
+         */
+        @Override
+        public void write(PreparedStatement stmt, int index, Object value) throws SQLException {
+            stmt.setObject(index, value == null ? null : ((Enum<?>) value).name(), Types.OTHER);
+        }
+    }
+
+    /**
+     * A record with an id, stored as the id only. The target mapper is resolved lazily because record graphs may be
+     * cyclic (for example {@code Attribute.migration.from}).
+     */
+    static final class ReferenceCodec implements Codec {
+        private final Class<?> type;
+        private RowMapper<Object> target;
+
+        ReferenceCodec(Class<?> type) {
+            this.type = type;
+        }
+
+        @SuppressWarnings("unchecked")
+        private RowMapper<Object> target() {
+            RowMapper<Object> mapper = target;
+            if (mapper == null) {
+                mapper = (RowMapper<Object>) of(type);
+                target = mapper;
+            }
+            return mapper;
+        }
+
+        @Override
+        public Object read(ResultSet rs, int index) throws SQLException {
+            long id = rs.getLong(index);
+            return rs.wasNull() ? null : target().reference(id);
+        }
+
+        @Override
+        public void write(PreparedStatement stmt, int index, Object value) throws SQLException {
+            if (value == null) {
+                stmt.setNull(index, Types.BIGINT);
+            } else {
+                stmt.setObject(index, target().id(value), Types.BIGINT);
+            }
+        }
+
+        @Override
+        public void copy(StringBuilder line, Object value) {
+            copyText(line, value == null ? null : target().id(value));
+        }
+    }
+
+    /**
+     * A record without an id, which has no codec of its own: {@link RowMapper} expands it into one column per component,
+     * each read and written with the codec of that component.
+     */
+    record ValueColumns(Codec[] parts) {
+        static boolean stores(Class<?> type) {
+            return type.isRecord() && !hasId(type) && type.getRecordComponents().length > 0;
+        }
+
+        static ValueColumns of(Class<?> type) {
+            RecordComponent[] components = type.getRecordComponents();
+            Codec[] parts = new Codec[components.length];
+            for (int i = 0; i < components.length; i++) {
+                // Boxed, so that a null record can be told apart from one holding zeros
+                Class<?> partType = MethodType.methodType(components[i].getType()).wrap().returnType();
+                parts[i] = Codec.of(partType);
+                if (parts[i] == null) {
+                    throw new IllegalArgumentException("Component " + components[i].getName() + " of "
+                            + type.getName() + " cannot be stored in a column");
+                }
+            }
+            return new ValueColumns(parts);
+        }
+    }
+}
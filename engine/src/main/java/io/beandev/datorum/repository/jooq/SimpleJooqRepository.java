@@ -1,87 +1,534 @@
 package io.beandev.datorum.repository.jooq;
 
+import io.beandev.datorum.connection.CopyWriter;
+import io.beandev.datorum.connection.DslContexts;
+import io.beandev.datorum.logging.Logger;
+import io.beandev.datorum.logging.Logging;
+import io.beandev.datorum.metrics.Metrics;
+import io.beandev.datorum.metrics.Operation;
 import io.beandev.datorum.repository.ListCrudRepository;
+import org.jooq.ConnectionProvider;
 import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.InsertOnDuplicateStep;
+import org.jooq.Param;
 import org.jooq.Query;
-import org.jooq.Result;
-import org.jooq.SQLDialect;
+import org.jooq.Table;
+import org.jooq.exception.DataAccessException;
 import org.jooq.impl.DSL;
 
 import javax.sql.DataSource;
+import java.sql.Array;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import static java.lang.System.out;
+import static org.jooq.impl.DSL.excluded;
 import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.name;
 import static org.jooq.impl.DSL.table;
 
+/**
+ * A {@link ListCrudRepository} for Java records, stored in the {@code datorum_<package>} schema in a table named after
+ * the record (e.g. {@code Aggregate} in {@code datorum_schema.aggregate}).
+ * <p>
+ * Only the record components that have a column in the table are mapped. The table columns are looked up once, on
+ * first use, and the statements are rendered once for them.
+ */
 public class SimpleJooqRepository<T, ID> implements ListCrudRepository<T, ID> {
-    private final DataSource dataSource;
+    private static final Logger LOG = Logging.getLogger(SimpleJooqRepository.class);
+
+    private static final Operation SAVE = Metrics.operation("SimpleJooqRepository.save");
+
+    private static final Operation SAVE_ALL = Metrics.operation("SimpleJooqRepository.saveAll");
+
+    private static final Operation FIND_ALL = Metrics.operation("SimpleJooqRepository.findAll");
+
+    private static final Table<?> COLUMNS = table(name("information_schema", "columns"));
+    private static final Field<String> COLUMN_NAME = field(name("column_name"), String.class);
+    private static final Field<String> TABLE_SCHEMA = field(name("table_schema"), String.class);
+    private static final Field<String> TABLE_NAME = field(name("table_name"), String.class);
+
+    private static final int DEFAULT_CHUNK_SIZE = 2000;
+
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+
+    private static final int DEFAULT_COPY_THRESHOLD = 5000;
+
+    // Rows per multi-row upsert, bounded by the 32767 bind parameters Postgres accepts per statement
+    private static final int MAX_ROWS_PER_UPSERT = 100;
+
+    // Lookups block on JDBC, so they run on virtual threads rather than on the common pool
+    private static final Executor DEFAULT_LOOKUP_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final DSLContext dsl;
 
     private final Class<T> clazz;
 
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+
+    private int copyThreshold = DEFAULT_COPY_THRESHOLD;
+
+    private Executor lookupExecutor = DEFAULT_LOOKUP_EXECUTOR;
+
+    private volatile Statements<T> statements;
+
     public SimpleJooqRepository(Class<T> clazz, DataSource ds) {
+        this(clazz, DslContexts.of(ds));
+    }
+
+    public SimpleJooqRepository(Class<T> clazz, DSLContext dsl) {
         this.clazz = clazz;
-        this.dataSource = ds;
+        this.dsl = dsl;
 
-        out.println("Class name is " + this.clazz.getSimpleName());
+        LOG.debug("Repository of {} created", clazz.getName());
     }
 
     @Override
     public T save(T entity) {
-        return null;
+        return SAVE.time(() -> upsert(entity));
     }
 
+    private T upsert(T entity) {
+        if (entity == null) {
+            throw new IllegalArgumentException("entity cannot be null");
+        }
+
+        Statements<T> s = statements();
+        dsl.connection(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(s.upsert())) {
+                s.mapper().bind(stmt, 0, entity);
+                stmt.executeUpdate();
+            }
+        });
+
+        return entity;
+    }
+
+    /**
+     * Upserts the given entities in one transaction and returns them in input order. When an id occurs more than once,
+     * the last occurrence wins.
+     * <p>
+     * Batches of at least the copy threshold are streamed with {@code COPY} into a temporary staging table and merged
+     * with a single {@code INSERT ... ON CONFLICT DO UPDATE}. Smaller batches use batched multi-row upserts.
+     */
     @Override
     public <S extends T> List<S> saveAll(Iterable<S> entities) {
-        return null;
+        return SAVE_ALL.time(() -> upsertAll(entities));
     }
 
-    @Override
-    public List<T> findAll() {
-        var ps = this.clazz.getPackageName().split("\\.");
-        out.println("Package is " + ps);
-        out.println("Package is " + ps[ps.length - 1]);
-        // Connection is the only JDBC resource that we need
-        // PreparedStatement and ResultSet are handled by jOOQ, internally
-        try (Connection conn = this.dataSource.getConnection()) {
-            DSLContext create = DSL.using(conn, SQLDialect.POSTGRES);
-//            DSLContext create = DSL.using(ds, SQLDialect.POSTGRES);
+    private <S extends T> List<S> upsertAll(Iterable<S> entities) {
+        List<S> result = toList(entities, "entities");
+        if (result.isEmpty()) {
+            return result;
+        }
 
-// Fetch a SQL string from a jOOQ Query in order to manually execute it with another tool.
-// For simplicity reasons, we're using the API to construct case-insensitive object references, here.
-            Query query = create.select(field("book.title")
-//                            , field("AUTHOR.FIRST_NAME"), field("AUTHOR.LAST_NAME")
-                    )
-                    .from(table("book"))
-//                    .join(table("AUTHOR"))
-//                    .on(field("BOOK.AUTHOR_ID").eq(field("AUTHOR.ID")))
-//                    .where(field("BOOK.PUBLISHED_IN").eq(1948))
-                    ;
+        Statements<T> s = statements();
+        Map<Object, T> latest = new LinkedHashMap<>();
+        for (S entity : result) {
+            latest.put(s.mapper().id(entity), entity);
+        }
+        List<T> rows = new ArrayList<>(latest.values());
 
-            String sql = query.getSQL();
-            List<Object> bindValues = query.getBindValues();
+        dsl.transaction(configuration -> DSL.using(configuration).connection(conn -> {
+            if (rows.size() >= copyThreshold) {
+                copyUpsert(conn, s, rows);
+            } else {
+                multiRowUpsert(conn, s, rows);
+            }
+        }));
 
-            var queryStmt = create.select(field("book.title"))
-                    .from(table("book"));
-            Result<?> result = queryStmt.fetch();
-            result.stream().forEach(out::println);
+        return result;
+    }
 
-            queryStmt.fetch().stream().forEach(title -> out.println("Title: " + title.value1()));
+    private static <T> void multiRowUpsert(Connection conn, Statements<T> s, List<T> rows) throws SQLException {
+        int columns = s.fields().size();
+        int full = rows.size() - rows.size() % s.rowsPerUpsert();
 
-//            var col = queryStmt.fetch().stream().map(Record1::value1).toList();
+        if (full > 0) {
+            try (PreparedStatement stmt = conn.prepareStatement(s.multiRowUpsert())) {
+                for (int from = 0; from < full; from += s.rowsPerUpsert()) {
+                    for (int row = 0; row < s.rowsPerUpsert(); row++) {
+                        s.mapper().bind(stmt, row * columns, rows.get(from + row));
+                    }
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        }
+
+        if (full < rows.size()) {
+            try (PreparedStatement stmt = conn.prepareStatement(s.upsert())) {
+                for (T row : rows.subList(full, rows.size())) {
+                    s.mapper().bind(stmt, 0, row);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        }
+    }
 
+    private static <T> void copyUpsert(Connection conn, Statements<T> s, List<T> rows) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(s.createStaging());
         }
-        // For the sake of this tutorial, let's keep exception handling simple
-        catch (Exception e) {
-            e.printStackTrace();
+
+        try (CopyWriter copy = new CopyWriter(conn, s.copyStaging())) {
+            for (T row : rows) {
+                s.mapper().copy(copy.buffer(), row);
+                copy.flushIfFull();
+            }
+            copy.endCopy();
+        }
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(s.mergeStaging());
+        }
+    }
+
+    @Override
+    public List<T> findAll() {
+        return FIND_ALL.time(this::selectAll);
+    }
+
+    private List<T> selectAll() {
+        Statements<T> s = statements();
+        return dsl.connectionResult(conn -> {
+            List<T> result = new ArrayList<>();
+            try (PreparedStatement stmt = conn.prepareStatement(s.selectAll());
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    result.add(s.mapper().map(rs));
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Streams all rows through a server-side cursor. Postgres only uses a cursor inside a transaction, so the stream
+     * keeps a connection with auto-commit disabled until it is closed.
+     */
+    @Override
+    public Stream<T> streamAll() {
+        Statements<T> s = statements();
+        ConnectionProvider provider = dsl.configuration().connectionProvider();
+        Connection conn = provider.acquire();
+        RowCursor<T> cursor = new RowCursor<>(s.mapper(), provider, conn);
+        try {
+            cursor.open(s.selectAll(), fetchSize);
+        } catch (SQLException e) {
+            DataAccessException failure = new DataAccessException("Cannot open cursor on " + s.table(), e);
+            try {
+                cursor.close();
+            } catch (DataAccessException closing) {
+                failure.addSuppressed(closing);
+            }
+            throw failure;
         }
 
-        return null;
+        return StreamSupport.stream(cursor, false).onClose(cursor::close);
     }
 
+    /**
+     * Fetches the given ids with {@code id = ANY(?)}, sending each chunk of ids as a single array parameter.
+     * <p>
+     * When there is more than one chunk, the chunks run concurrently on the lookup executor, each on its own pooled
+     * connection, and their results are merged. Duplicate ids are fetched once.
+     */
     @Override
     public List<T> findAllById(Iterable<ID> ids) {
-        return null;
+        List<ID> distinct = new ArrayList<>(new LinkedHashSet<>(toList(ids, "ids")));
+        if (distinct.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Statements<T> s = statements();
+        if (distinct.size() <= chunkSize) {
+            return findChunk(s, distinct);
+        }
+
+        List<CompletableFuture<List<T>>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += chunkSize) {
+            List<ID> chunk = distinct.subList(from, Math.min(from + chunkSize, distinct.size()));
+            chunks.add(CompletableFuture.supplyAsync(() -> findChunk(s, chunk), lookupExecutor));
+        }
+
+        List<T> result = new ArrayList<>(distinct.size());
+        try {
+            for (CompletableFuture<List<T>> chunk : chunks) {
+                result.addAll(chunk.join());
+            }
+        } catch (CompletionException e) {
+            chunks.forEach(chunk -> chunk.cancel(false));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return result;
+    }
+
+    private List<T> findChunk(Statements<T> s, List<ID> ids) {
+        return dsl.connectionResult(conn -> {
+            List<T> result = new ArrayList<>(ids.size());
+            try (PreparedStatement stmt = conn.prepareStatement(s.selectById())) {
+                Array array = conn.createArrayOf(s.idArrayType(), ids.toArray());
+                try {
+                    stmt.setArray(1, array);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            result.add(s.mapper().map(rs));
+                        }
+                    }
+                } finally {
+                    array.free();
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Sets the batch size from which {@link #saveAll(Iterable)} switches from multi-row upserts to {@code COPY}.
+     */
+    public SimpleJooqRepository<T, ID> withCopyThreshold(int copyThreshold) {
+        if (copyThreshold < 1) {
+            throw new IllegalArgumentException("copyThreshold must be positive");
+        }
+
+        this.copyThreshold = copyThreshold;
+        return this;
+    }
+
+    /**
+     * Sets how many rows {@link #streamAll()} fetches per round trip.
+     */
+    public SimpleJooqRepository<T, ID> withFetchSize(int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("fetchSize must be positive");
+        }
+
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    /**
+     * Sets how many ids {@link #findAllById(Iterable)} sends per query.
+     */
+    public SimpleJooqRepository<T, ID> withChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * Sets the executor that runs the chunks of {@link #findAllById(Iterable)} concurrently. The effective
+     * concurrency is bounded by the connection pool.
+     */
+    public SimpleJooqRepository<T, ID> withLookupExecutor(Executor lookupExecutor) {
+        if (lookupExecutor == null) {
+            throw new IllegalArgumentException("lookupExecutor cannot be null");
+        }
+
+        this.lookupExecutor = lookupExecutor;
+        return this;
+    }
+
+    static <E> List<E> toList(Iterable<E> items, String name) {
+        if (items == null) {
+            throw new IllegalArgumentException(name + " cannot be null");
+        }
+
+        List<E> result = new ArrayList<>();
+        for (E item : items) {
+            if (item == null) {
+                throw new IllegalArgumentException(name + " cannot contain null");
+            }
+            result.add(item);
+        }
+        return result;
+    }
+
+    private Statements<T> statements() {
+        Statements<T> s = statements;
+        if (s == null) {
+            synchronized (this) {
+                s = statements;
+                if (s == null) {
+                    s = Statements.of(dsl, RowMapper.of(clazz));
+                    statements = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    /**
+     * A forward-only cursor over the rows of one query, mapped one row at a time.
+     */
+    private static final class RowCursor<T> extends Spliterators.AbstractSpliterator<T> {
+        private final RowMapper<T> mapper;
+        private final ConnectionProvider provider;
+        private final Connection conn;
+        private boolean autoCommit;
+        private PreparedStatement stmt;
+        private ResultSet rs;
+        private boolean closed;
+
+        RowCursor(RowMapper<T> mapper, ConnectionProvider provider, Connection conn) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.mapper = mapper;
+            this.provider = provider;
+            this.conn = conn;
+        }
+
+        void open(String sql, int fetchSize) throws SQLException {
+            autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(fetchSize);
+            rs = stmt.executeQuery();
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (closed) {
+                return false;
+            }
+
+            try {
+                if (!rs.next()) {
+                    return false;
+                }
+                action.accept(mapper.map(rs));
+                return true;
+            } catch (SQLException e) {
+                throw new DataAccessException("Cannot fetch the next row", e);
+            }
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            PreparedStatement statement = stmt;
+            ResultSet resultSet = rs;
+            try (statement; resultSet) {
+                // Nothing was written, committing only ends the transaction opened for the cursor
+                if (autoCommit && !conn.getAutoCommit()) {
+                    conn.commit();
+                    conn.setAutoCommit(autoCommit);
+                }
+            } catch (SQLException e) {
+                throw new DataAccessException("Cannot close cursor", e);
+            } finally {
+                provider.release(conn);
+            }
+        }
+    }
+
+    /**
+     * The mapper restricted to the columns of the table, and the SQL rendered once for them.
+     */
+    record Statements<T>(RowMapper<T> mapper, Table<?> table, List<Field<Object>> fields,
+                         String selectAll, String selectById, String idArrayType,
+                         String upsert, int rowsPerUpsert, String multiRowUpsert,
+                         String createStaging, String copyStaging, String mergeStaging) {
+        static <T> Statements<T> of(DSLContext dsl, RowMapper<T> candidate) {
+            List<String> available = dsl.select(COLUMN_NAME)
+                    .from(COLUMNS)
+                    .where(TABLE_SCHEMA.eq(candidate.schemaName()))
+                    .and(TABLE_NAME.eq(candidate.tableName()))
+                    .fetch(COLUMN_NAME);
+
+            RowMapper<T> mapper = candidate.restrictTo(available);
+            if (mapper.idColumn() < 0) {
+                throw new IllegalStateException("Table " + candidate.schemaName() + "." + candidate.tableName()
+                        + " has no id column for " + candidate.type().getName());
+            }
+
+            Table<?> table = table(name(mapper.schemaName(), mapper.tableName()));
+            List<Field<Object>> fields = mapper.columnNames().stream()
+                    .map(column -> field(name(column)))
+                    .toList();
+            Field<Object> id = fields.get(mapper.idColumn());
+
+            String selectAll = DslContexts.render(ctx -> ctx.select(fields).from(table));
+            String selectById = selectAll + " where " + DslContexts.render(ctx -> id) + " = any (?)";
+
+            Map<Field<Object>, Field<Object>> updates = new LinkedHashMap<>();
+            fields.stream().filter(f -> f != id).forEach(f -> updates.put(f, excluded(f)));
+            String upsert = DslContexts.render(ctx -> onConflict(ctx.insertInto(table, fields).values(params(fields)),
+                    id, updates));
+
+            int rowsPerUpsert = Math.max(1, Math.min(MAX_ROWS_PER_UPSERT, Short.MAX_VALUE / fields.size()));
+            String multiRowUpsert = DslContexts.render(ctx -> {
+                var insert = ctx.insertInto(table, fields);
+                for (int row = 0; row < rowsPerUpsert; row++) {
+                    insert = insert.values(params(fields));
+                }
+                return onConflict(insert, id, updates);
+            });
+
+            Table<?> staging = table(name("datorum_staging_" + mapper.tableName()));
+            String createStaging = "create temporary table " + DslContexts.render(ctx -> staging)
+                    + " (like " + DslContexts.render(ctx -> table) + " including defaults) on commit drop";
+            String copyStaging = "copy " + DslContexts.render(ctx -> staging) + " ("
+                    + fields.stream().map(f -> DslContexts.render(ctx -> f)).collect(Collectors.joining(", "))
+                    + ") from stdin";
+            String mergeStaging = DslContexts.render(ctx -> onConflict(
+                    ctx.insertInto(table, fields).select(ctx.select(fields).from(staging)), id, updates));
+
+            return new Statements<>(mapper, table, fields, selectAll, selectById, arrayType(mapper.idType()),
+                    upsert, rowsPerUpsert, multiRowUpsert, createStaging, copyStaging, mergeStaging);
+        }
+
+        private static List<Param<Object>> params(List<Field<Object>> fields) {
+            return fields.stream().map(DSL::param).toList();
+        }
+
+        private static Query onConflict(InsertOnDuplicateStep<?> insert, Field<Object> id,
+                                        Map<Field<Object>, Field<Object>> updates) {
+            var conflict = insert.onConflict(id);
+            return updates.isEmpty() ? conflict.doNothing() : conflict.doUpdate().set(updates);
+        }
+
+        private static String arrayType(Class<?> idType) {
+            if (idType == long.class || idType == Long.class) {
+                return "bigint";
+            }
+            if (idType == int.class || idType == Integer.class) {
+                return "integer";
+            }
+            if (idType == String.class) {
+                return "varchar";
+            }
+            throw new IllegalStateException("Unsupported id type " + idType);
+        }
     }
 }
@@ -1,5 +1,10 @@
 package io.beandev.datorum.schema.jdbc;
 
+import io.beandev.datorum.connection.DataSourceManager;
+import io.beandev.datorum.logging.Logger;
+import io.beandev.datorum.logging.Logging;
+import io.beandev.datorum.metrics.Metrics;
+import io.beandev.datorum.metrics.Operation;
 import io.beandev.datorum.schema.SchemaRepository;
 
 import javax.sql.DataSource;
@@ -10,6 +15,17 @@ import java.sql.SQLException;
 import java.sql.Statement;
 
 public class JdbcSchemaRepository implements SchemaRepository {
+    private static final Logger LOG = Logging.getLogger(JdbcSchemaRepository.class);
+
+    private static final Operation CREATE_BASE_TABLES = Metrics.operation("JdbcSchemaRepository.createBaseTables");
+
+    // Attribute types store their precision or length and scale since these columns were added
+    private static final String ADD_ATTRIBUTE_TYPE_COLUMNS_SQL = """
+            ALTER TABLE "datorum_schema"."attribute"
+            ADD COLUMN IF NOT EXISTS type_precision_or_length INTEGER,
+            ADD COLUMN IF NOT EXISTS type_scale INTEGER
+            """;
+
     private final DataSource dataSource;
 
     public JdbcSchemaRepository(DataSource dataSource) {
@@ -18,7 +34,11 @@ public class JdbcSchemaRepository implements SchemaRepository {
 
     @Override
     public void createBaseTables() {
-        try (Connection conn = dataSource.getConnection()) {
+        CREATE_BASE_TABLES.run(this::createTables);
+    }
+
+    private void createTables() {
+        try (Connection conn = DataSourceManager.getConnection(dataSource)) {
             try {
                 //Disable auto commit
                 conn.setAutoCommit(false);
@@ -37,8 +57,11 @@ public class JdbcSchemaRepository implements SchemaRepository {
                     exists = rs.next();
                 }
 
-                //If the type exists end transaction
+                //If the type exists, add the columns of later versions and end transaction
                 if (exists) {
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.execute(ADD_ATTRIBUTE_TYPE_COLUMNS_SQL);
+                    }
                     conn.commit();
                     return;
                 }
@@ -134,6 +157,8 @@ public class JdbcSchemaRepository implements SchemaRepository {
                             id BIGINT PRIMARY KEY,
                             name VARCHAR(255),
                             type VARCHAR(50),
+                            type_precision_or_length INTEGER,
+                            type_scale INTEGER,
                             entity_id BIGINT,
                             relation_id BIGINT,
                             FOREIGN KEY (entity_id) REFERENCES "datorum_schema"."entity"(id)
@@ -154,20 +179,20 @@ public class JdbcSchemaRepository implements SchemaRepository {
                 //Commit all the changes
                 conn.commit();
             } catch (SQLException e) {
-                e.printStackTrace();
+                LOG.error("Creating the schema base tables failed", e);
 
                 //If there is exception, rollback the transaction
                 try {
                     conn.rollback();
                 } catch (SQLException ex) {
-                    ex.printStackTrace();
+                    LOG.error("Rolling back the schema base tables failed", ex);
                 }
             } finally {
                 try {
                     //Set auto commit true at the end
                     conn.setAutoCommit(true);
                 } catch (SQLException e) {
-                    e.printStackTrace();
+                    LOG.warn("Restoring auto-commit failed", e);
                 }
             }
         } catch (Exception e) {
@@ -1,47 +1,65 @@
 package io.beandev.datorum.schema.jooq;
 
+import io.beandev.datorum.connection.DslContexts;
+import io.beandev.datorum.metrics.Metrics;
+import io.beandev.datorum.metrics.Operation;
 import io.beandev.datorum.schema.SchemaRepository;
 import org.jooq.DSLContext;
-import org.jooq.Record;
-import org.jooq.Result;
-import org.jooq.SQLDialect;
+import org.jooq.Select;
 import org.jooq.impl.DSL;
 
 import javax.sql.DataSource;
 
 import static org.jooq.impl.DSL.field;
+import static org.jooq.impl.DSL.name;
+import static org.jooq.impl.DSL.selectOne;
 import static org.jooq.impl.DSL.table;
 
 public class JooqSchemaRepository implements SchemaRepository {
-    private final DataSource dataSource;
+    private static final Operation CREATE_BASE_TABLES = Metrics.operation("JooqSchemaRepository.createBaseTables");
+
+    private static final Select<?> BASE_TYPES_EXIST = selectOne()
+            .from(table(name("pg_catalog", "pg_type")))
+            .join(table(name("pg_catalog", "pg_namespace")))
+            .on(field(name("pg_type", "typnamespace")).eq(field(name("pg_namespace", "oid"))))
+            .where(field(name("pg_type", "typname")).eq("_apptype"))
+            .and(field(name("pg_namespace", "nspname")).eq("datorum_schema"))
+            .and(field(name("pg_type", "typtype")).eq("b"));
+
+    // Attribute types store their precision or length and scale since these columns were added
+    private static final String ADD_ATTRIBUTE_TYPE_COLUMNS_SQL = """
+            ALTER TABLE datorum_schema.attribute
+            ADD COLUMN IF NOT EXISTS type_precision_or_length INTEGER,
+            ADD COLUMN IF NOT EXISTS type_scale INTEGER
+            """;
+
+    private final DSLContext dsl;
 
     public JooqSchemaRepository(DataSource ds) {
-        dataSource = ds;
+        this(DslContexts.of(ds));
+    }
+
+    public JooqSchemaRepository(DSLContext dsl) {
+        this.dsl = dsl;
     }
 
     @Override
     public void createBaseTables() {
-        try (var conn = dataSource.getConnection()) {
-            // Initialize the DSLContext
-            DSLContext create = DSL.using(conn, SQLDialect.POSTGRES);
+        CREATE_BASE_TABLES.run(this::createTables);
+    }
 
+    private void createTables() {
+        try {
             // Start the transaction
-            create.transaction(configuration -> {
+            dsl.transaction(configuration -> {
                 DSLContext ctx = DSL.using(configuration);
                 ctx.execute("""
                             CREATE SCHEMA IF NOT EXISTS "datorum_schema"
                         """);
 
-                Result<Record> result = ctx.select()
-                        .from(table("pg_catalog.pg_type"))
-                        .join(table("pg_catalog.pg_namespace"))
-                        .on(field("pg_type.typnamespace").eq(field("pg_namespace.oid")))
-                        .where(field("typname").eq("_apptype"))
-                        .and(field("pg_namespace.nspname").eq("datorum_schema"))
-                        .and(field("pg_type.typtype").eq("b"))
-                        .fetch();
-
-                if (result.stream().count() > 0) {
+                // If the types exist, only add the columns of later versions
+                if (ctx.fetchExists(BASE_TYPES_EXIST)) {
+                    ctx.execute(ADD_ATTRIBUTE_TYPE_COLUMNS_SQL);
                     return;
                 }
 
@@ -148,6 +166,8 @@ public class JooqSchemaRepository implements SchemaRepository {
                             id BIGINT PRIMARY KEY, 
                             name VARCHAR(255),
                             type VARCHAR(50), 
+                            type_precision_or_length INTEGER,
+                            type_scale INTEGER,
                             entity_id BIGINT,
                             relation_id BIGINT,
                             FOREIGN KEY (entity_id) REFERENCES datorum_schema.entity(id)
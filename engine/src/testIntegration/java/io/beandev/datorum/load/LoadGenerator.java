@@ -0,0 +1,190 @@
+package io.beandev.datorum.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.beandev.datorum.data.Event;
+import io.beandev.datorum.data.EventRepository;
+import io.beandev.datorum.data.jdbc.JdbcEventRepository;
+import io.beandev.datorum.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.lang.System.out;
+
+/**
+ * Appends synthetic events to, and reads aggregate states from, a {@link JdbcEventRepository} on a local Postgres
+ * with a fixed number of threads, then writes throughput and latency percentiles to a JSON report.
+ * <p>
+ * Only operations that succeed count towards throughput and latency; failed ones are counted as errors, and the report
+ * keeps the first failure of each kind.
+ * <p>
+ * Run it with {@code make load-test} or {@code ./gradlew engine:loadTest -Ddatorum.load.threads=8 ...}; see
+ * {@link Workload} for the settings.
+ */
+public class LoadGenerator {
+    private final Workload workload;
+
+    private final EventRepository repository;
+
+    private final SyntheticSchema schema;
+
+    private final LatencyHistogram writes = new LatencyHistogram();
+
+    private final LatencyHistogram reads = new LatencyHistogram();
+
+    private final AtomicLong writeErrors = new AtomicLong();
+
+    private final AtomicLong readErrors = new AtomicLong();
+
+    private final AtomicReference<RuntimeException> firstWriteError = new AtomicReference<>();
+
+    private final AtomicReference<RuntimeException> firstReadError = new AtomicReference<>();
+
+    private volatile boolean measuring;
+
+    private volatile boolean running = true;
+
+    public LoadGenerator(Workload workload, EventRepository repository) {
+        if (workload == null || repository == null) {
+            throw new IllegalArgumentException("workload and repository cannot be null");
+        }
+
+        this.workload = workload;
+        this.repository = repository;
+        this.schema = new SyntheticSchema(workload, System.currentTimeMillis());
+    }
+
+    public static void main(String[] args) throws Exception {
+        Workload workload = Workload.of(System.getProperties());
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(workload.url());
+        config.setUsername(workload.user());
+        config.setPassword(workload.password());
+        config.setMaximumPoolSize(workload.threads());
+
+        try (HikariDataSource dataSource = new HikariDataSource(config)) {
+            EventRepository repository = new JdbcEventRepository(dataSource);
+            repository.createBaseTables();
+
+            Map<String, Object> report = new LoadGenerator(workload, repository).run();
+
+            Path file = Path.of(workload.report());
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+            out.println("Load report written to " + file.toAbsolutePath());
+        }
+    }
+
+    public Map<String, Object> run() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(workload.threads());
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < workload.threads(); i++) {
+            SplittableRandom random = new SplittableRandom(workload.seed() + i);
+            workers.add(executor.submit(() -> work(random)));
+        }
+
+        TimeUnit.SECONDS.sleep(workload.warmupSeconds());
+        measuring = true;
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(workload.durationSeconds());
+        measuring = false;
+        long elapsed = System.nanoTime() - start;
+        running = false;
+
+        executor.shutdown();
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (Exception e) {
+                throw new IllegalStateException("Load worker failed", e);
+            }
+        }
+
+        double seconds = elapsed / 1e9;
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", startedAt.toString());
+        report.put("durationSeconds", seconds);
+        report.put("workload", settings());
+        report.put("throughput", (writes.count() + reads.count()) / seconds);
+        report.put("writes", result(writes, writeErrors.get(), firstWriteError.get(), seconds));
+        report.put("reads", result(reads, readErrors.get(), firstReadError.get(), seconds));
+        return report;
+    }
+
+    private void work(SplittableRandom random) {
+        while (running) {
+            int aggregate = schema.pick(random);
+            boolean read = random.nextDouble() < workload.readRatio();
+            long start = System.nanoTime();
+            try {
+                if (read) {
+                    repository.findAsOf(schema.rootRecordId(aggregate), schema.savedVersion(aggregate));
+                } else {
+                    Event event = schema.event(aggregate, random);
+                    repository.save(event);
+                    schema.saved(aggregate, event);
+                }
+
+                if (measuring) {
+                    (read ? reads : writes).record(System.nanoTime() - start);
+                }
+            } catch (RuntimeException e) {
+                (read ? firstReadError : firstWriteError).compareAndSet(null, e);
+                if (measuring) {
+                    (read ? readErrors : writeErrors).incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private Map<String, Object> settings() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("url", workload.url());
+        result.put("aggregates", workload.aggregates());
+        result.put("entitiesPerAggregate", workload.entitiesPerAggregate());
+        result.put("attributesPerEntity", workload.attributesPerEntity());
+        result.put("operationsPerEvent", workload.operationsPerEvent());
+        result.put("valueLength", workload.valueLength());
+        result.put("skew", workload.skew());
+        result.put("readRatio", workload.readRatio());
+        result.put("threads", workload.threads());
+        result.put("warmupSeconds", workload.warmupSeconds());
+        result.put("seed", workload.seed());
+        return result;
+    }
+
+    private static Map<String, Object> result(LatencyHistogram latency, long errors, RuntimeException firstError,
+                                              double seconds) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("operations", latency.count());
+        result.put("errors", errors);
+        result.put("firstError", firstError == null ? null : firstError.toString());
+        result.put("throughput", latency.count() / seconds);
+        result.put("meanMicros", latency.mean() / 1000);
+        result.put("p50Micros", latency.percentile(0.5) / 1000.0);
+        result.put("p90Micros", latency.percentile(0.9) / 1000.0);
+        result.put("p99Micros", latency.percentile(0.99) / 1000.0);
+        result.put("p999Micros", latency.percentile(0.999) / 1000.0);
+        result.put("maxMicros", latency.max() / 1000.0);
+        return result;
+    }
+}
@@ -0,0 +1,136 @@
+package io.beandev.datorum.load;
+
+import io.beandev.datorum.data.AttributeRecord;
+import io.beandev.datorum.data.BigId;
+import io.beandev.datorum.data.EntityRecord;
+import io.beandev.datorum.data.Event;
+import io.beandev.datorum.schema.Aggregate;
+import io.beandev.datorum.schema.App;
+import io.beandev.datorum.schema.Attribute;
+import io.beandev.datorum.schema.Context;
+import io.beandev.datorum.schema.Entity;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * An aggregate type with a root and child entities and their attributes, and a population of aggregate instances
+ * that events are generated for.
+ * <p>
+ * Instances are picked with a Zipf distribution, so a few hot aggregates receive most of the traffic. Ids are taken
+ * from the given generation, which should differ between runs against the same database.
+ */
+final class SyntheticSchema {
+    private static final Attribute.DataType.Type[] TYPES = {
+            Attribute.DataType.Type.STRING,
+            Attribute.DataType.Type.LONG
+    };
+
+    private final Workload workload;
+
+    private final long gen;
+
+    private final Attribute[][] attributes;
+
+    private final EntityRecord[][] records;
+
+    private final double[] cumulative;
+
+    // The last version handed out, and the highest version saved, of each aggregate
+    private final AtomicLongArray versions;
+
+    private final AtomicLongArray savedVersions;
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private final String text;
+
+    SyntheticSchema(Workload workload, long gen) {
+        this.workload = workload;
+        this.gen = gen;
+
+        App app = new App(1, "Load");
+        Aggregate aggregate = new Aggregate(1, "Order", new Context(1, "Load", app));
+        Entity[] entities = new Entity[workload.entitiesPerAggregate()];
+        attributes = new Attribute[entities.length][workload.attributesPerEntity()];
+        for (int e = 0; e < entities.length; e++) {
+            entities[e] = new Entity(e + 1, "Entity" + e, aggregate, e == 0);
+            for (int a = 0; a < attributes[e].length; a++) {
+                Attribute.DataType.Type type = TYPES[a % TYPES.length];
+                attributes[e][a] = new Attribute(e * attributes[e].length + a + 1, "attribute" + a,
+                        new Attribute.DataType(type), entities[e]);
+            }
+        }
+
+        records = new EntityRecord[workload.aggregates()][entities.length];
+        for (int i = 0; i < records.length; i++) {
+            EntityRecord root = new EntityRecord(nextId(), entities[0], null, "order-" + i);
+            records[i][0] = root;
+            for (int e = 1; e < entities.length; e++) {
+                records[i][e] = new EntityRecord(nextId(), entities[e], root, "line-" + i + "-" + e);
+            }
+        }
+
+        cumulative = new double[workload.aggregates()];
+        double sum = 0;
+        for (int i = 0; i < cumulative.length; i++) {
+            sum += 1 / Math.pow(i + 1, workload.skew());
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= sum;
+        }
+
+        versions = new AtomicLongArray(workload.aggregates());
+        savedVersions = new AtomicLongArray(workload.aggregates());
+        char[] chars = new char[workload.valueLength()];
+        Arrays.fill(chars, 'x');
+        text = new String(chars);
+    }
+
+    int pick(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1);
+    }
+
+    BigId rootRecordId(int aggregate) {
+        return records[aggregate][0].id();
+    }
+
+    /**
+     * Returns the highest version of the aggregate whose event has been saved, so reads never ask for a version that
+     * is still being written.
+     */
+    long savedVersion(int aggregate) {
+        return savedVersions.get(aggregate);
+    }
+
+    void saved(int aggregate, Event event) {
+        long version = 0;
+        for (Event.Operation operation : event.operations()) {
+            version = Math.max(version, operation.operand().value().version());
+        }
+        savedVersions.accumulateAndGet(aggregate, version, Math::max);
+    }
+
+    Event event(int aggregate, SplittableRandom random) {
+        Event.Operation[] operations = new Event.Operation[workload.operationsPerEvent()];
+        for (int i = 0; i < operations.length; i++) {
+            int e = random.nextInt(records[aggregate].length);
+            Attribute attribute = attributes[e][random.nextInt(attributes[e].length)];
+            long version = versions.incrementAndGet(aggregate);
+            AttributeRecord record = attribute.type().type() == Attribute.DataType.Type.LONG
+                    ? new AttributeRecord(nextId(), version, attribute, records[aggregate][e], random.nextLong())
+                    : new AttributeRecord(nextId(), version, attribute, records[aggregate][e], text);
+            operations[i] = new Event.Operation(version == 1 ? Event.Operator.CREATE : Event.Operator.UPDATE,
+                    new Event.Operand(record));
+        }
+        return new Event(nextId(), operations);
+    }
+
+    private BigId nextId() {
+        return new BigId(gen, ids.incrementAndGet());
+    }
+}
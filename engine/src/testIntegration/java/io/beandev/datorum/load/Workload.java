@@ -0,0 +1,71 @@
+package io.beandev.datorum.load;
+
+import java.util.Properties;
+
+/**
+ * The shape of a load run, read from {@code datorum.load.*} system properties so runs can be repeated exactly.
+ *
+ * @param skew      the Zipf exponent of the aggregate popularity, 0 for uniform access
+ * @param readRatio the share of operations that read the state of an aggregate instead of appending an event
+ * @param seed      the seed of the random choices; the same seed and thread count give the same operation sequence
+ */
+public record Workload(String url,
+                       String user,
+                       String password,
+                       int aggregates,
+                       int entitiesPerAggregate,
+                       int attributesPerEntity,
+                       int operationsPerEvent,
+                       int valueLength,
+                       double skew,
+                       double readRatio,
+                       int threads,
+                       int warmupSeconds,
+                       int durationSeconds,
+                       long seed,
+                       String report) {
+    public Workload {
+        if (aggregates < 1 || entitiesPerAggregate < 1 || attributesPerEntity < 1 || operationsPerEvent < 1) {
+            throw new IllegalArgumentException("aggregates, entities, attributes and operations must be positive");
+        }
+
+        if (skew < 0) {
+            throw new IllegalArgumentException("skew cannot be negative");
+        }
+
+        if (readRatio < 0 || readRatio > 1) {
+            throw new IllegalArgumentException("readRatio must be between 0 and 1");
+        }
+
+        if (threads < 1 || durationSeconds < 1 || warmupSeconds < 0) {
+            throw new IllegalArgumentException("threads and duration must be positive");
+        }
+    }
+
+    public static Workload of(Properties properties) {
+        return new Workload(
+                properties.getProperty("datorum.load.url", "jdbc:postgresql://127.0.0.1:5433/eventstore_db"),
+                properties.getProperty("datorum.load.user", "postgres"),
+                properties.getProperty("datorum.load.password", "password"),
+                intProperty(properties, "aggregates", 1000),
+                intProperty(properties, "entities", 3),
+                intProperty(properties, "attributes", 8),
+                intProperty(properties, "operations", 4),
+                intProperty(properties, "valueLength", 32),
+                doubleProperty(properties, "skew", 1.0),
+                doubleProperty(properties, "readRatio", 0.2),
+                intProperty(properties, "threads", Runtime.getRuntime().availableProcessors()),
+                intProperty(properties, "warmup", 5),
+                intProperty(properties, "duration", 30),
+                Long.parseLong(properties.getProperty("datorum.load.seed", "42")),
+                properties.getProperty("datorum.load.report", "build/reports/load/report.json"));
+    }
+
+    private static int intProperty(Properties properties, String name, int defaultValue) {
+        return Integer.parseInt(properties.getProperty("datorum.load." + name, String.valueOf(defaultValue)));
+    }
+
+    private static double doubleProperty(Properties properties, String name, double defaultValue) {
+        return Double.parseDouble(properties.getProperty("datorum.load." + name, String.valueOf(defaultValue)));
+    }
+}
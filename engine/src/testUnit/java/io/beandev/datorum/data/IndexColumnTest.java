@@ -0,0 +1,37 @@
+package io.beandev.datorum.data;
+
+import io.beandev.datorum.schema.Attribute;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class IndexColumnTest {
+    @Test
+    void mapsTypesToColumns() {
+        assertEquals(IndexColumn.LONG_VALUE, IndexColumn.of(Attribute.DataType.Type.INTEGER));
+        assertEquals(IndexColumn.LONG_VALUE, IndexColumn.of(Attribute.DataType.Type.RELATION));
+        assertEquals(IndexColumn.DOUBLE_VALUE, IndexColumn.of(Attribute.DataType.Type.FLOAT));
+        assertEquals(IndexColumn.DECIMAL_VALUE, IndexColumn.of(Attribute.DataType.Type.DECIMAL));
+        assertEquals(IndexColumn.STRING_VALUE, IndexColumn.of(Attribute.DataType.Type.STRING));
+    }
+
+    @Test
+    void rejectsUnindexableTypes() {
+        assertThrows(IllegalArgumentException.class, () -> IndexColumn.of(Attribute.DataType.Type.BYTES));
+        assertThrows(IllegalArgumentException.class, () -> IndexColumn.of(Attribute.DataType.Type.MAP));
+    }
+
+    @Test
+    void convertsStoredValues() {
+        assertEquals(42L, IndexColumn.LONG_VALUE.convert(new AttributeRecord.Value(null, 42L)));
+        assertEquals(42L, IndexColumn.LONG_VALUE.convert(new AttributeRecord.Value("42", null)));
+        assertEquals(true, IndexColumn.BOOLEAN_VALUE.convert(new AttributeRecord.Value(null, 1L)));
+        assertEquals(new BigDecimal("1.50"), IndexColumn.DECIMAL_VALUE.convert(new AttributeRecord.Value("1.50", null)));
+        assertEquals(2.5, IndexColumn.DOUBLE_VALUE.convert("2.5"));
+        assertNull(IndexColumn.STRING_VALUE.convert((AttributeRecord.Value) null));
+    }
+}
@@ -0,0 +1,90 @@
+package io.beandev.datorum.data;
+
+import io.beandev.datorum.schema.Attribute;
+import io.beandev.datorum.schema.Entity;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ValueCompressionTest {
+    private static final Entity DOCUMENT = new Entity(1, "Document", null, true);
+
+    private static final Attribute BODY = new Attribute(7, "body", new Attribute.DataType(Attribute.DataType.Type.STRING), DOCUMENT);
+
+    private static final Attribute COUNT = new Attribute(8, "count", new Attribute.DataType(Attribute.DataType.Type.LONG), DOCUMENT);
+
+    private static final String TEXT = "The quick brown fox jumps over the lazy dog. ".repeat(100);
+
+    @Test
+    void packsLargeValuesOfCompressibleTypes() {
+        ValueCompression compression = new ValueCompression();
+
+        byte[] packed = compression.pack(BODY, new AttributeRecord.Value(TEXT, null));
+
+        assertNotNull(packed);
+        assertTrue(packed.length < TEXT.length() / 10);
+        assertEquals(TEXT, compression.unpack(BODY.id(), packed));
+        assertNull(compression.pack(BODY, new AttributeRecord.Value("short", null)));
+        assertNull(compression.pack(COUNT, new AttributeRecord.Value(TEXT, null)));
+    }
+
+    @Test
+    void decompressesOnFirstRead() {
+        ValueCompression compression = new ValueCompression();
+        byte[] packed = compression.pack(BODY, new AttributeRecord.Value(TEXT, null));
+
+        AttributeRecord.Value value = compression.read(BODY.id(), null, null, packed);
+
+        assertFalse(value.packed().isDecoded());
+        assertEquals(new AttributeRecord.Value(TEXT, null), value);
+        assertTrue(value.packed().isDecoded());
+        assertEquals(new AttributeRecord.Value("plain", 1L), compression.read(BODY.id(), "plain", 1L, null));
+    }
+
+    @Test
+    void usesAttributeDictionaries() {
+        List<String> samples = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            samples.add("{\"customer\":\"c-" + i + "\",\"status\":\"ACTIVE\",\"country\":\"Netherlands\"}");
+        }
+        byte[] dictionary = ValueCompression.trainDictionary(samples, 1024);
+        ValueCompression compression = new ValueCompression(32, Map.of(BODY.id(), Map.of(1, dictionary)));
+        String json = "{\"customer\":\"c-77\",\"status\":\"ACTIVE\",\"country\":\"Netherlands\"}";
+
+        byte[] packed = compression.pack(BODY, new AttributeRecord.Value(json, null));
+
+        assertNotNull(packed);
+        assertEquals(json, compression.unpack(BODY.id(), packed));
+        assertThrows(IllegalStateException.class, () -> new ValueCompression().unpack(BODY.id(), packed));
+    }
+
+    @Test
+    void keepsOlderDictionariesReadable() {
+        List<String> samples = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            samples.add("{\"customer\":\"c-" + i + "\",\"status\":\"ACTIVE\",\"country\":\"Netherlands\"}");
+        }
+        byte[] first = ValueCompression.trainDictionary(samples, 1024);
+        byte[] second = ValueCompression.trainDictionary(samples.subList(0, 10), 512);
+        String json = "{\"customer\":\"c-77\",\"status\":\"ACTIVE\",\"country\":\"Netherlands\"}";
+        byte[] old = new ValueCompression(32, Map.of(BODY.id(), Map.of(1, first)))
+                .pack(BODY, new AttributeRecord.Value(json, null));
+
+        ValueCompression compression = new ValueCompression(32, Map.of(BODY.id(), Map.of(1, first, 2, second)));
+        byte[] packed = compression.pack(BODY, new AttributeRecord.Value(json, null));
+
+        assertEquals(json, compression.unpack(BODY.id(), old));
+        assertEquals(json, compression.unpack(BODY.id(), packed));
+        assertEquals(2, ByteBuffer.wrap(packed).getInt(1));
+    }
+}
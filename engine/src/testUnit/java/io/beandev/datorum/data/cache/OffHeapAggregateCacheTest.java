@@ -0,0 +1,140 @@
+package io.beandev.datorum.data.cache;
+
+import io.beandev.datorum.data.AggregateState;
+import io.beandev.datorum.data.AttributeRecord;
+import io.beandev.datorum.data.BigId;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OffHeapAggregateCacheTest {
+    @Test
+    void roundTripsState() {
+        OffHeapAggregateCache cache = new OffHeapAggregateCache(1 << 20, 4096);
+        AggregateState state = state(1, 3, "ä—\n");
+
+        assertTrue(cache.put(state));
+
+        assertEquals(state, cache.find(new BigId(1)));
+        assertEquals(1, cache.hits());
+    }
+
+    @Test
+    void decodesSingleValue() {
+        OffHeapAggregateCache cache = new OffHeapAggregateCache(1 << 20, 4096);
+        cache.put(state(1, 5, "value"));
+
+        AggregateState.Value value = cache.find(new BigId(1), new BigId(7, 3), 12);
+
+        assertEquals(new AttributeRecord.Value("value3", 3L), value.value());
+        assertNull(cache.find(new BigId(1), new BigId(7, 3), 99));
+        assertNull(cache.find(new BigId(2), new BigId(7, 3), 12));
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        // One slab of four 1 KiB chunks
+        OffHeapAggregateCache cache = new OffHeapAggregateCache(4096, 4096);
+        for (long root = 1; root <= 4; root++) {
+            assertTrue(cache.put(state(root, 8, "x")));
+        }
+        cache.find(new BigId(1));
+
+        cache.put(state(5, 8, "x"));
+
+        assertEquals(4, cache.size());
+        assertEquals(1, cache.evictions());
+        assertNull(cache.find(new BigId(2)));
+        assertEquals(state(1, 8, "x"), cache.find(new BigId(1)));
+    }
+
+    @Test
+    void movesSlabsBetweenSizeClasses() {
+        OffHeapAggregateCache cache = new OffHeapAggregateCache(4096, 4096);
+        cache.put(state(1, 1, "x"));
+
+        assertTrue(cache.put(state(2, 40, "x")));
+
+        assertNull(cache.find(new BigId(1)));
+        assertEquals(4096, cache.reserved());
+    }
+
+    @Test
+    void skipsStatesLargerThanSlab() {
+        OffHeapAggregateCache cache = new OffHeapAggregateCache(4096, 4096);
+        cache.put(state(1, 1, "x"));
+
+        assertFalse(cache.put(state(1, 200, "x")));
+
+        assertNull(cache.find(new BigId(1)));
+    }
+
+    @Test
+    void keepsLaterCachedVersion() {
+        OffHeapAggregateCache cache = new OffHeapAggregateCache(1 << 20, 4096);
+        cache.put(state(1, 5, "new"));
+
+        assertFalse(cache.put(state(1, 3, "old")));
+        assertFalse(cache.put(state(1, 5, "same")));
+
+        assertEquals(state(1, 5, "new"), cache.find(new BigId(1)));
+    }
+
+    @Test
+    void sharesConcurrentLoads() throws Exception {
+        OffHeapAggregateCache cache = new OffHeapAggregateCache(1 << 20, 4096);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<BigId, AggregateState> loader = root -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return state(root.num(), 2, "x");
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<AggregateState> first = executor.submit(() -> cache.find(new BigId(1), loader));
+            loading.await();
+            Future<AggregateState> second = executor.submit(() -> cache.find(new BigId(1), loader));
+            Thread.sleep(50);
+            release.countDown();
+
+            assertEquals(state(1, 2, "x"), first.get());
+            assertEquals(state(1, 2, "x"), second.get());
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static AggregateState state(long root, int count, String prefix) {
+        List<AggregateState.Value> values = new ArrayList<>();
+        for (int i = count - 1; i >= 0; i--) {
+            values.add(new AggregateState.Value(new BigId(7, i), 12, new BigId(100 + i), i + 1,
+                    Instant.ofEpochSecond(1_700_000_000L, i * 1000L),
+                    new AttributeRecord.Value(prefix + i, (long) i)));
+        }
+        values.sort((a, b) -> Long.compare(a.entityRecordId().num(), b.entityRecordId().num()));
+        return new AggregateState(new BigId(root), count, values);
+    }
+}
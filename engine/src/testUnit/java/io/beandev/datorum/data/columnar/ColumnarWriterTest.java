@@ -0,0 +1,98 @@
+package io.beandev.datorum.data.columnar;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ColumnarWriterTest {
+    private static final List<Column> COLUMNS = List.of(
+            new Column("id", Column.Type.LONG),
+            new Column("kind", Column.Type.STRING),
+            new Column("note", Column.Type.STRING));
+
+    @Test
+    void roundTripsRowGroupsWithNulls() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ColumnarWriter writer = new ColumnarWriter(bytes, "event", COLUMNS, 4)) {
+            for (int i = 0; i < 10; i++) {
+                writer.setLong(0, 1000 + i);
+                writer.setString(1, i % 3 == 0 ? "CREATE" : "UPDATE");
+                if (i % 2 == 0) {
+                    writer.setString(2, "note\t" + i);
+                } else {
+                    writer.setNull(2);
+                }
+                writer.endRow();
+            }
+        }
+
+        try (ColumnarReader reader = new ColumnarReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals("event", reader.table());
+            assertEquals(COLUMNS, reader.columns());
+
+            int row = 0;
+            while (reader.next()) {
+                for (int r = 0; r < reader.rows(); r++, row++) {
+                    assertEquals(1000 + row, reader.getLong(0, r));
+                    assertEquals(row % 3 == 0 ? "CREATE" : "UPDATE", reader.getString(1, r));
+                    if (row % 2 == 0) {
+                        assertEquals("note\t" + row, reader.getString(2, r));
+                    } else {
+                        assertTrue(reader.isNull(2, r));
+                        assertNull(reader.getString(2, r));
+                    }
+                }
+            }
+            assertEquals(10, row);
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void encodesRunsCompactly() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ColumnarWriter writer = new ColumnarWriter(bytes, "event", COLUMNS, 65_536)) {
+            for (int i = 0; i < 10_000; i++) {
+                writer.setLong(0, 42);
+                writer.setString(1, "CREATE");
+                writer.setNull(2);
+                writer.endRow();
+            }
+        }
+
+        assertTrue(bytes.size() < 100, "size was " + bytes.size());
+    }
+
+    @Test
+    void roundTripsBytes() throws IOException {
+        List<Column> columns = List.of(new Column("packed_value", Column.Type.BYTES));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ColumnarWriter writer = new ColumnarWriter(bytes, "attribute_record", columns, 16)) {
+            writer.setNull(0);
+            writer.endRow();
+            writer.setBytes(0, new byte[]{1, -1, 0});
+            writer.endRow();
+        }
+
+        try (ColumnarReader reader = new ColumnarReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertTrue(reader.next());
+            assertNull(reader.getBytes(0, 0));
+            assertArrayEquals(new byte[]{1, -1, 0}, reader.getBytes(0, 1));
+        }
+    }
+
+    @Test
+    void rejectsOtherFiles() {
+        assertThrows(IOException.class, () -> new ColumnarReader(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5})));
+    }
+}
@@ -0,0 +1,139 @@
+package io.beandev.datorum.data.segment;
+
+import io.beandev.datorum.data.AggregateState;
+import io.beandev.datorum.data.AttributeRecord;
+import io.beandev.datorum.data.BigId;
+import io.beandev.datorum.data.EntityRecord;
+import io.beandev.datorum.data.Event;
+import io.beandev.datorum.schema.Attribute;
+import io.beandev.datorum.schema.Entity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SegmentEventRepositoryTest {
+    private static final Entity ORDER = new Entity(1, "Order", null, true);
+
+    private static final Attribute STATUS = new Attribute(10, "status", new Attribute.DataType(Attribute.DataType.Type.STRING), ORDER);
+
+    private static final Attribute TOTAL = new Attribute(11, "total", new Attribute.DataType(Attribute.DataType.Type.LONG), ORDER);
+
+    private static final EntityRecord FIRST = new EntityRecord(new BigId(1), ORDER, null, (String) null);
+
+    private static final EntityRecord SECOND = new EntityRecord(new BigId(2), ORDER, null, (String) null);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsAggregateStateAsOfVersion() {
+        try (SegmentEventRepository repository = new SegmentEventRepository(directory, 1024, false)) {
+            repository.save(event(1, Event.Operator.CREATE, record(100, 1, STATUS, FIRST, "NEW")));
+            repository.save(event(2, Event.Operator.CREATE, record(101, 2, TOTAL, FIRST, 40L)));
+            repository.save(event(3, Event.Operator.UPDATE, record(100, 3, STATUS, FIRST, "PAID")));
+            repository.snapshot(FIRST.id(), 3);
+            repository.save(event(4, Event.Operator.DELETE, record(101, 4, TOTAL, FIRST, 40L)));
+
+            assertEquals(List.of("NEW"), strings(repository.findAsOf(FIRST.id(), 1)));
+            assertEquals(2, repository.findAsOf(FIRST.id(), 2).values().size());
+            assertEquals(List.of("PAID"), strings(repository.findAsOf(FIRST.id(), 4)));
+            assertEquals(3, repository.findAsOf(FIRST.id(), 4).version());
+        }
+    }
+
+    @Test
+    void readsAggregateStateAsOfInstant() throws InterruptedException {
+        try (SegmentEventRepository repository = new SegmentEventRepository(directory, 1024, false)) {
+            Instant before = Instant.now();
+            Thread.sleep(1);
+            repository.save(event(1, Event.Operator.CREATE, record(100, 1, STATUS, FIRST, "NEW")));
+            Instant created = Instant.now();
+            Thread.sleep(1);
+            repository.save(event(2, Event.Operator.UPDATE, record(100, 2, STATUS, FIRST, "PAID")));
+
+            assertEquals(0, repository.findAsOf(FIRST.id(), before).version());
+            assertEquals(List.of("NEW"), strings(repository.findAsOf(FIRST.id(), created)));
+            assertEquals(List.of("PAID"), strings(repository.findAsOf(FIRST.id(), Instant.now())));
+        }
+    }
+
+    @Test
+    void recoversAcrossSegmentsAndTruncatesTornTail() throws IOException {
+        try (SegmentEventRepository repository = new SegmentEventRepository(directory, 256, false)) {
+            for (int i = 1; i <= 20; i++) {
+                repository.save(event(i, Event.Operator.UPDATE, record(100, i, STATUS, FIRST, "S" + i)));
+            }
+        }
+
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.sorted().toList();
+        }
+        assertTrue(segments.size() > 1);
+        Path last = segments.getLast();
+        long size = Files.size(last);
+        try (FileChannel channel = FileChannel.open(last, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+
+        try (SegmentEventRepository repository = new SegmentEventRepository(directory, 256, false)) {
+            assertEquals(List.of("S19"), strings(repository.findAsOf(FIRST.id(), Long.MAX_VALUE)));
+            repository.save(event(21, Event.Operator.UPDATE, record(100, 21, STATUS, FIRST, "S21")));
+        }
+
+        try (SegmentEventRepository repository = new SegmentEventRepository(directory, 256, false)) {
+            assertEquals(List.of("S21"), strings(repository.findAsOf(FIRST.id(), Long.MAX_VALUE)));
+            assertEquals(List.of("S5"), strings(repository.findAsOf(FIRST.id(), 5)));
+        }
+    }
+
+    @Test
+    void maintainsAttributeIndexes() {
+        try (SegmentEventRepository repository = new SegmentEventRepository(directory, 4096, false)) {
+            repository.save(event(1, Event.Operator.CREATE, record(100, 1, TOTAL, FIRST, 40L)));
+            repository.createIndex(TOTAL);
+            repository.save(event(2, Event.Operator.CREATE, record(101, 2, TOTAL, SECOND, 40L)));
+            repository.save(event(3, Event.Operator.UPDATE, record(100, 3, TOTAL, FIRST, 50L)));
+
+            assertEquals(List.of(SECOND.id()), repository.findEntityRecordIds(TOTAL, 40));
+            assertEquals(List.of(FIRST.id()), repository.findEntityRecordIds(TOTAL, "50"));
+        }
+
+        try (SegmentEventRepository repository = new SegmentEventRepository(directory, 4096, false)) {
+            assertEquals(List.of(FIRST.id()), repository.findEntityRecordIds(TOTAL, 50L));
+        }
+    }
+
+    private static List<String> strings(AggregateState state) {
+        return state.values().stream()
+                .filter(value -> value.value().stringValue() != null)
+                .map(value -> value.value().stringValue())
+                .toList();
+    }
+
+    private static Event event(long id, Event.Operator operator, AttributeRecord record) {
+        return new Event(new BigId(id), new Event.Operation[]{
+                new Event.Operation(operator, new Event.Operand(record))});
+    }
+
+    private static AttributeRecord record(long id, long version, Attribute attribute, EntityRecord entityRecord,
+                                          String value) {
+        return new AttributeRecord(new BigId(id), version, attribute, entityRecord, value);
+    }
+
+    private static AttributeRecord record(long id, long version, Attribute attribute, EntityRecord entityRecord,
+                                          Long value) {
+        return new AttributeRecord(new BigId(id), version, attribute, entityRecord, value);
+    }
+}
@@ -0,0 +1,102 @@
+package io.beandev.datorum.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncAppenderTest {
+    @Test
+    void formatsPlaceholdersAndTrailingThrowable() {
+        String line = AsyncAppender.format(new LogRecord(0, Level.WARN, "test", "main",
+                "{} of {} failed", new Object[]{1, 2, new IllegalStateException("boom")}));
+
+        assertTrue(line.startsWith("1970-01-01T00:00:00Z WARN [main] test - 1 of 2 failed"), line);
+        assertTrue(line.contains("java.lang.IllegalStateException: boom"), line);
+    }
+
+    @Test
+    void keepsUnmatchedPlaceholders() {
+        String line = AsyncAppender.format(new LogRecord(0, Level.INFO, "test", "main", "{} and {}", new Object[]{"a"}));
+
+        assertTrue(line.contains(" - a and {}"), line);
+    }
+
+    @Test
+    void writesRecordsInOrder() {
+        StringWriter out = new StringWriter();
+        try (AsyncAppender appender = new AsyncAppender(out, 1024)) {
+            for (int i = 0; i < 100; i++) {
+                appender.append(new LogRecord(0, Level.INFO, "test", "main", "line {}", new Object[]{i}));
+            }
+            appender.flush();
+
+            String[] lines = out.toString().split(System.lineSeparator());
+            assertEquals(100, lines.length);
+            for (int i = 0; i < 100; i++) {
+                assertTrue(lines[i].endsWith(" - line " + i), lines[i]);
+            }
+            assertEquals(0, appender.dropped());
+        }
+    }
+
+    @Test
+    void dropsInsteadOfBlockingWhenFull() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Writer slow = new StringWriter() {
+            @Override
+            public void write(String str) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.write(str);
+            }
+        };
+
+        try (AsyncAppender appender = new AsyncAppender(slow, 4)) {
+            appender.append(new LogRecord(0, Level.INFO, "test", "main", "first", null));
+            blocked.await();
+
+            int queued = 0;
+            for (int i = 0; i < 10; i++) {
+                if (appender.append(new LogRecord(0, Level.INFO, "test", "main", "next", null))) {
+                    queued++;
+                }
+            }
+
+            assertEquals(4, queued);
+            assertEquals(6, appender.dropped());
+            release.countDown();
+        }
+    }
+
+    @Test
+    void disabledLevelsAreNotQueued() {
+        Level level = Logging.level();
+        StringWriter out = new StringWriter();
+        AsyncAppender previous = Logging.setAppender(new AsyncAppender(out, 16));
+        try {
+            Logging.setLevel(Level.INFO);
+            Logger logger = Logging.getLogger(AsyncAppenderTest.class);
+            logger.debug("hidden {}", 1);
+            logger.info("shown {}", 2);
+            assertFalse(logger.isDebugEnabled());
+
+            Logging.appender().flush();
+            assertFalse(out.toString().contains("hidden"));
+            assertTrue(out.toString().contains("shown 2"));
+        } finally {
+            Logging.setAppender(previous).close();
+            Logging.setLevel(level);
+        }
+    }
+}
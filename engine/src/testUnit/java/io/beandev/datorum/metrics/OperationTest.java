@@ -0,0 +1,39 @@
+package io.beandev.datorum.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class OperationTest {
+    @Test
+    void timeRecordsCallsAndFailures() throws SQLException {
+        Operation operation = new Operation("OperationTest.time");
+
+        assertEquals("result", operation.time(() -> "result"));
+        assertThrows(SQLException.class, () -> operation.time(() -> {
+            throw new SQLException("failed");
+        }));
+
+        assertEquals(2, operation.calls());
+        assertEquals(1, operation.failures());
+        assertEquals(2, operation.latency().count());
+    }
+
+    @Test
+    void runRecordsCallsAndFailures() {
+        Operation operation = new Operation("OperationTest.run");
+        int[] runs = new int[1];
+
+        operation.run(() -> runs[0]++);
+        assertThrows(IllegalStateException.class, () -> operation.run(() -> {
+            throw new IllegalStateException("failed");
+        }));
+
+        assertEquals(1, runs[0]);
+        assertEquals(2, operation.calls());
+        assertEquals(1, operation.failures());
+    }
+}
@@ -0,0 +1,96 @@
+package io.beandev.datorum.repository.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.beandev.datorum.repository.ListCrudRepository;
+import io.beandev.datorum.schema.App;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingListCrudRepositoryTest {
+    @Mock
+    private ListCrudRepository<App, Long> delegate;
+
+    private CachingListCrudRepository<App, Long> repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new CachingListCrudRepository<>(delegate, App::id,
+                Caffeine.newBuilder().maximumSize(100).executor(Runnable::run));
+    }
+
+    @Test
+    void readsThroughOnce() {
+        App app = new App(1, "Datorum");
+        when(delegate.findAllById(List.of(1L))).thenReturn(List.of(app));
+
+        assertEquals(app, repository.findById(1L));
+        assertEquals(app, repository.findById(1L));
+
+        verify(delegate, times(1)).findAllById(List.of(1L));
+        assertEquals(1, repository.stats().hitCount());
+        assertEquals(0.5, repository.stats().hitRate());
+    }
+
+    @Test
+    void loadsOnlyMissingIdsInBulk() {
+        App first = new App(1, "First");
+        App second = new App(2, "Second");
+        when(delegate.findAllById(List.of(1L))).thenReturn(List.of(first));
+        when(delegate.findAllById(argThat(ids -> ids != null && Set.copyOf((Collection<Long>) ids).equals(Set.of(2L, 3L)))))
+                .thenReturn(List.of(second));
+
+        repository.findById(1L);
+        List<App> found = repository.findAllById(List.of(1L, 2L, 3L));
+
+        assertEquals(List.of(first, second), found);
+    }
+
+    @Test
+    void saveInvalidatesCachedEntity() {
+        App before = new App(1, "Before");
+        App after = new App(1, "After");
+        when(delegate.findAllById(List.of(1L))).thenReturn(List.of(before), List.of(after));
+        when(delegate.save(after)).thenReturn(after);
+
+        assertEquals(before, repository.findById(1L));
+        repository.save(after);
+
+        assertEquals(after, repository.findById(1L));
+    }
+
+    @Test
+    void missingEntityIsNotCached() {
+        when(delegate.findAllById(List.of(9L))).thenReturn(List.of());
+
+        assertNull(repository.findById(9L));
+        assertNull(repository.findById(9L));
+
+        verify(delegate, times(2)).findAllById(List.of(9L));
+    }
+
+    @Test
+    void nullIdsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> repository.findAllById(Arrays.asList(1L, null)));
+
+        verify(delegate, never()).findAllById(any());
+    }
+}
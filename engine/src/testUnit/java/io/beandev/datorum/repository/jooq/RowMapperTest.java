@@ -0,0 +1,126 @@
+package io.beandev.datorum.repository.jooq;
+
+import io.beandev.datorum.schema.Aggregate;
+import io.beandev.datorum.schema.App;
+import io.beandev.datorum.schema.Attribute;
+import io.beandev.datorum.schema.Context;
+import io.beandev.datorum.schema.Entity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class RowMapperTest {
+    private static final List<String> ATTRIBUTE_COLUMNS =
+            List.of("id", "name", "type", "type_precision_or_length", "type_scale", "entity_id", "relation_id");
+
+    @Mock
+    private ResultSet rs;
+
+    @Mock
+    private PreparedStatement stmt;
+
+    @Test
+    void mapperIsGeneratedOncePerClass() {
+        assertSame(RowMapper.of(Aggregate.class), RowMapper.of(Aggregate.class));
+    }
+
+    @Test
+    void derivesTableAndColumns() {
+        RowMapper<Entity> mapper = RowMapper.of(Entity.class);
+
+        assertEquals("datorum_schema", mapper.schemaName());
+        assertEquals("entity", mapper.tableName());
+        assertEquals(List.of("id", "name", "aggregate_id", "is_root"), mapper.columnNames());
+        assertEquals(0, mapper.idColumn());
+    }
+
+    @Test
+    void mapsRowThroughCanonicalConstructor() throws SQLException {
+        RowMapper<Attribute> mapper = RowMapper.of(Attribute.class)
+                .restrictTo(ATTRIBUTE_COLUMNS);
+        assertEquals(List.of("id", "name", "type", "type_precision_or_length", "type_scale", "relation_id", "entity_id"),
+                mapper.columnNames());
+
+        when(rs.getLong(1)).thenReturn(7L);
+        when(rs.getString(2)).thenReturn("title");
+        when(rs.getString(3)).thenReturn("STRING");
+        when(rs.getInt(4)).thenReturn(255);
+        when(rs.getLong(6)).thenReturn(0L);
+        when(rs.getLong(7)).thenReturn(3L);
+        when(rs.wasNull()).thenReturn(false, false, true, true, false);
+
+        Attribute attribute = mapper.map(rs);
+
+        assertEquals(7L, attribute.id());
+        assertEquals("title", attribute.name());
+        assertEquals(Attribute.DataType.Type.STRING, attribute.type().type());
+        assertEquals(Integer.valueOf(255), attribute.type().precisionOrLength());
+        assertNull(attribute.type().scale());
+        assertNull(attribute.relation());
+        assertEquals(3L, attribute.entity().id());
+        assertNull(attribute.migration());
+    }
+
+    @Test
+    void bindsReferencesById() throws SQLException {
+        RowMapper<Aggregate> mapper = RowMapper.of(Aggregate.class).restrictTo(List.of("id", "name", "context_id"));
+        Aggregate aggregate = new Aggregate(1, "Order", new Context(2, "Sales", new App(3, "Shop")));
+
+        mapper.bind(stmt, 0, aggregate);
+
+        verify(stmt).setLong(1, 1L);
+        verify(stmt).setString(2, "Order");
+        verify(stmt).setObject(3, 2L, Types.BIGINT);
+        assertEquals(1L, mapper.id(aggregate));
+    }
+
+    @Test
+    void formatsCopyText() {
+        RowMapper<Attribute> mapper = RowMapper.of(Attribute.class)
+                .restrictTo(ATTRIBUTE_COLUMNS);
+        Entity entity = new Entity(3, "Book", new Aggregate(1, "Library", null));
+        Attribute attribute = new Attribute(7, "a\tb\\c\n", new Attribute.DataType(Attribute.DataType.Type.STRING), entity);
+
+        StringBuilder line = new StringBuilder();
+        mapper.copy(line, attribute);
+
+        assertEquals("7\ta\\tb\\\\c\\n\tSTRING\t\\N\t\\N\t\\N\t3\n", line.toString());
+    }
+
+    @Test
+    void bindsEveryComponentOfRecordsWithoutId() throws SQLException {
+        RowMapper<Attribute> mapper = RowMapper.of(Attribute.class).restrictTo(ATTRIBUTE_COLUMNS);
+        Entity entity = new Entity(3, "Book", new Aggregate(1, "Library", null));
+        Attribute attribute = new Attribute(7, "price",
+                new Attribute.DataType(Attribute.DataType.Type.DECIMAL, 10, 2), entity);
+
+        mapper.bind(stmt, 0, attribute);
+
+        verify(stmt).setObject(3, "DECIMAL", Types.OTHER);
+        verify(stmt).setInt(4, 10);
+        verify(stmt).setInt(5, 2);
+    }
+
+    @Test
+    void rejectsTablesMissingComponentsOfRecordsWithoutId() {
+        RowMapper<Attribute> mapper = RowMapper.of(Attribute.class);
+
+        assertThrows(IllegalStateException.class,
+                () -> mapper.restrictTo(List.of("id", "name", "type", "entity_id", "relation_id")));
+    }
+}
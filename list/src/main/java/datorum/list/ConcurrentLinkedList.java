@@ -0,0 +1,221 @@
+package datorum.list;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free list of strings for sharing tokens between threads, appending at the tail and removing anywhere.
+ * <p>
+ * Elements are appended by linking a node after the last one with a compare-and-set, and removed by clearing the
+ * element of their node with a compare-and-set, after which the node is unlinked by whichever thread passes it. The
+ * last node is never unlinked, so a concurrent append cannot be lost. Iterators are weakly consistent: they never
+ * throw {@link java.util.ConcurrentModificationException} and see the elements present when they reach them. The size
+ * is kept in a {@link LongAdder}, so it is cheap to read but only exact when no thread is modifying the list.
+ * <p>
+ * There is no indexed access, which cannot be meaningful while other threads add and remove elements.
+ */
+public class ConcurrentLinkedList extends AbstractCollection<String> {
+    private static final VarHandle ITEM;
+
+    private static final VarHandle NEXT;
+
+    private static final VarHandle TAIL;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            ITEM = lookup.findVarHandle(Node.class, "item", String.class);
+            NEXT = lookup.findVarHandle(Node.class, "next", Node.class);
+            TAIL = lookup.findVarHandle(ConcurrentLinkedList.class, "tail", Node.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Node head = new Node(null);
+
+    private volatile Node tail = head;
+
+    private final LongAdder size = new LongAdder();
+
+    @Override
+    public boolean add(String element) {
+        if (element == null) {
+            throw new IllegalArgumentException("element cannot be null");
+        }
+
+        Node node = new Node(element);
+        Node t = tail;
+        Node p = t;
+        while (true) {
+            Node q = p.next;
+            if (q == null) {
+                if (NEXT.compareAndSet(p, null, node)) {
+                    // The tail is only a hint, so a failure just leaves it to the next append
+                    TAIL.weakCompareAndSet(this, t, node);
+                    size.increment();
+                    return true;
+                }
+            } else {
+                // Restart from the tail if another thread has moved it, otherwise keep walking
+                Node latest = tail;
+                p = latest != t ? (t = latest) : q;
+            }
+        }
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        if (element == null) {
+            return false;
+        }
+
+        Node pred = head;
+        for (Node p = head.next; p != null; p = p.next) {
+            String item = p.item;
+            if (item != null && item.equals(element) && ITEM.compareAndSet(p, item, null)) {
+                size.decrement();
+                unlink(pred, p);
+                return true;
+            }
+
+            if (item == null) {
+                unlink(pred, p);
+            } else {
+                pred = p;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        if (element == null) {
+            return false;
+        }
+
+        for (Node p = head.next; p != null; p = p.next) {
+            if (element.equals(p.item)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (Node p = head.next; p != null; p = p.next) {
+            if (p.item != null) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the number of elements, which may be off while other threads are adding or removing them.
+     */
+    @Override
+    public int size() {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, size.sum()));
+    }
+
+    @Override
+    public void clear() {
+        Node pred = head;
+        for (Node p = head.next; p != null; p = p.next) {
+            String item = p.item;
+            if (item != null && ITEM.compareAndSet(p, item, null)) {
+                size.decrement();
+            }
+            unlink(pred, p);
+        }
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Itr();
+    }
+
+    /**
+     * Unlinks the removed node from its predecessor, unless it is the last node, which appends link to.
+     */
+    private static void unlink(Node pred, Node node) {
+        Node next = node.next;
+        if (next != null) {
+            NEXT.compareAndSet(pred, node, next);
+        }
+    }
+
+    private class Itr implements Iterator<String> {
+        private Node next;
+
+        private String nextItem;
+
+        private Node lastReturned;
+
+        Itr() {
+            advance(head);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+
+            String result = nextItem;
+            lastReturned = next;
+            advance(next);
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+
+            String item = lastReturned.item;
+            if (item != null && ITEM.compareAndSet(lastReturned, item, null)) {
+                size.decrement();
+            }
+            lastReturned = null;
+        }
+
+        private void advance(Node from) {
+            for (Node p = from.next; p != null; p = p.next) {
+                String item = p.item;
+                if (item != null) {
+                    next = p;
+                    nextItem = item;
+                    return;
+                }
+            }
+
+            next = null;
+            nextItem = null;
+        }
+    }
+
+    private static class Node {
+        volatile String item;
+        volatile Node next;
+
+        Node(String item) {
+            this.item = item;
+        }
+    }
+}
@@ -3,79 +3,344 @@
  */
 package datorum.list;
 
-public class LinkedList {
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractSequentialList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A doubly linked list of strings with constant-time append, size and removal through its iterators.
+ * <p>
+ * Indexed access walks from the nearest of the head, the tail and the node of the previous indexed access, so loops
+ * over ascending or descending indexes take constant time per element, like iterating does. That node and its index
+ * are published without allocating, under a version that a reader makes odd while it replaces them, so a reader never
+ * pairs the node of one access with the index of another. Like {@link java.util.LinkedList}, threads that only read can
+ * share a list without synchronization; only writes need it.
+ */
+public class LinkedList extends AbstractSequentialList<String> {
+    private static final VarHandle CURSOR_VERSION;
+
+    static {
+        try {
+            CURSOR_VERSION = MethodHandles.lookup().findVarHandle(LinkedList.class, "cursorVersion", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private Node head;
 
-    public void add(String element) {
-        Node newNode = new Node(element);
+    private Node tail;
 
-        Node it = tail(head);
-        if (it == null) {
-            head = newNode;
+    private int size;
+
+    private Node cursorNode;
+
+    private int cursorIndex;
+
+    private int cursorVersion;
+
+    public LinkedList() {
+    }
+
+    public LinkedList(Collection<? extends String> elements) {
+        addAll(elements);
+    }
+
+    @Override
+    public boolean add(String element) {
+        linkBefore(element, null);
+        return true;
+    }
+
+    /**
+     * Moves all elements of the other list to the end of this one in constant time, leaving the other list empty.
+     */
+    public void append(LinkedList other) {
+        if (other == null) {
+            throw new IllegalArgumentException("other cannot be null");
+        }
+        if (other == this || other.size == 0) {
+            return;
+        }
+
+        if (tail == null) {
+            head = other.head;
         } else {
-            it.next = newNode;
+            tail.next = other.head;
+            other.head.prev = tail;
         }
+        tail = other.tail;
+        size += other.size;
+        cursorNode = null;
+        modCount++;
+        other.clear();
     }
 
-    private static Node tail(Node head) {
-        Node it;
+    @Override
+    public void add(int index, String element) {
+        checkPositionIndex(index);
+        linkBefore(element, index == size ? null : node(index));
+    }
 
-        for (it = head; it != null && it.next != null; it = it.next) {}
+    @Override
+    public String get(int index) {
+        return node(index).data;
+    }
 
-        return it;
+    @Override
+    public String set(int index, String element) {
+        Node node = node(index);
+        String previous = node.data;
+        node.data = element;
+        return previous;
     }
 
-    public boolean remove(String element) {
-        boolean result = false;
-        Node previousIt = null;
-        Node it = null;
-        for (it = head; !result && it != null; previousIt = it, it = it.next) {
-            if (0 == element.compareTo(it.data)) {
-                result = true;
-                unlink(previousIt, it);
-                break;
+    @Override
+    public String remove(int index) {
+        Node node = node(index);
+        unlink(node);
+        return node.data;
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        for (Node it = head; it != null; it = it.next) {
+            if (Objects.equals(element, it.data)) {
+                unlink(it);
+                return true;
             }
         }
 
-        return result;
+        return false;
     }
 
-    private void unlink(Node previousIt, Node currentIt) {
-        if (currentIt == head) {
-            head = currentIt.next;
-        } else {
-            previousIt.next = currentIt.next;
-        }
+    @Override
+    public void clear() {
+        head = null;
+        tail = null;
+        size = 0;
+        cursorNode = null;
+        modCount++;
     }
 
+    @Override
     public int size() {
-        int size = 0;
-
-        for (Node it = head; it != null; ++size, it = it.next) {}
-
         return size;
     }
 
-    public String get(int index) {
-        Node it = head;
-        while (index > 0 && it != null) {
+    @Override
+    public ListIterator<String> listIterator(int index) {
+        checkPositionIndex(index);
+        return new Itr(index);
+    }
+
+    private Node node(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index is out of range");
+        }
+
+        // Only used if no concurrent reader replaced it meanwhile
+        int version = (int) CURSOR_VERSION.getAcquire(this);
+        Node last = null;
+        int lastIndex = 0;
+        if ((version & 1) == 0) {
+            last = cursorNode;
+            lastIndex = cursorIndex;
+            VarHandle.acquireFence();
+            if ((int) CURSOR_VERSION.getOpaque(this) != version) {
+                last = null;
+            }
+        }
+
+        Node it;
+        int at;
+        if (last != null && Math.abs(index - lastIndex) < Math.min(index, size - 1 - index)) {
+            it = last;
+            at = lastIndex;
+        } else if (index < size / 2) {
+            it = head;
+            at = 0;
+        } else {
+            it = tail;
+            at = size - 1;
+        }
+
+        for (; at < index; at++) {
             it = it.next;
-            index--;
+        }
+        for (; at > index; at--) {
+            it = it.prev;
         }
 
-        if (it == null) {
+        // A reader that loses the race leaves the cursor to the one that wins it
+        if (last != it && (version & 1) == 0 && CURSOR_VERSION.compareAndSet(this, version, version + 1)) {
+            cursorNode = it;
+            cursorIndex = index;
+            CURSOR_VERSION.setRelease(this, version + 2);
+        }
+        return it;
+    }
+
+    private void linkBefore(String element, Node successor) {
+        Node predecessor = successor == null ? tail : successor.prev;
+        Node newNode = new Node(element, predecessor, successor);
+        if (predecessor == null) {
+            head = newNode;
+        } else {
+            predecessor.next = newNode;
+        }
+        if (successor == null) {
+            tail = newNode;
+        } else {
+            successor.prev = newNode;
+        }
+
+        size++;
+        cursorNode = null;
+        modCount++;
+    }
+
+    private void unlink(Node node) {
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+
+        size--;
+        cursorNode = null;
+        modCount++;
+    }
+
+    private void checkPositionIndex(int index) {
+        if (index < 0 || index > size) {
             throw new IndexOutOfBoundsException("Index is out of range");
         }
+    }
+
+    private class Itr implements ListIterator<String> {
+        private Node next;
+
+        private int nextIndex;
+
+        private Node lastReturned;
+
+        private int expectedModCount = modCount;
+
+        Itr(int index) {
+            next = index == size ? null : node(index);
+            nextIndex = index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < size;
+        }
+
+        @Override
+        public String next() {
+            checkForComodification();
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            lastReturned = next;
+            next = next.next;
+            nextIndex++;
+            return lastReturned.data;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        public String previous() {
+            checkForComodification();
+            if (!hasPrevious()) {
+                throw new NoSuchElementException();
+            }
+
+            next = next == null ? tail : next.prev;
+            lastReturned = next;
+            nextIndex--;
+            return lastReturned.data;
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            checkForComodification();
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
 
-        return it.data;
+            if (lastReturned == next) {
+                next = next.next;
+            } else {
+                nextIndex--;
+            }
+            unlink(lastReturned);
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+
+        @Override
+        public void set(String element) {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            checkForComodification();
+
+            lastReturned.data = element;
+        }
+
+        @Override
+        public void add(String element) {
+            checkForComodification();
+
+            lastReturned = null;
+            linkBefore(element, next);
+            nextIndex++;
+            expectedModCount = modCount;
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
     }
 
     private static class Node {
-        final String data;
+        String data;
+        Node prev;
         Node next;
 
-        Node(String data) {
+        Node(String data, Node prev, Node next) {
             this.data = data;
+            this.prev = prev;
+            this.next = next;
         }
     }
 }
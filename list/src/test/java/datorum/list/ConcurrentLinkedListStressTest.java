@@ -0,0 +1,126 @@
+package datorum.list;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Races small sets of operations many times and checks that only the outcomes allowed by a linearizable list occur,
+ * in the spirit of jcstress.
+ */
+class ConcurrentLinkedListStressTest {
+    private static final int TRIALS = 2_000;
+
+    @Test void testRacingRemovesOfTheSameElement() throws Exception {
+        for (int trial = 0; trial < TRIALS; trial++) {
+            ConcurrentLinkedList list = new ConcurrentLinkedList();
+            list.add("x");
+
+            List<Boolean> results = race(() -> list.remove("x"), () -> list.remove("x"));
+
+            assertEquals(1, results.stream().filter(removed -> removed).count(), "exactly one remove succeeds");
+            assertTrue(list.isEmpty());
+            assertEquals(0, list.size());
+        }
+    }
+
+    @Test void testAppendRacingRemoveOfTheLastElementIsNotLost() throws Exception {
+        for (int trial = 0; trial < TRIALS; trial++) {
+            ConcurrentLinkedList list = new ConcurrentLinkedList();
+            list.add("a");
+            list.add("b");
+
+            race(() -> list.remove("b"), () -> list.add("c"), () -> list.remove("a"));
+
+            assertEquals(List.of("c"), new ArrayList<>(list));
+            assertEquals(1, list.size());
+        }
+    }
+
+    @Test void testRemovingNeighboursKeepsTheRest() throws Exception {
+        for (int trial = 0; trial < TRIALS; trial++) {
+            ConcurrentLinkedList list = new ConcurrentLinkedList();
+            for (String element : List.of("a", "b", "c", "d", "e")) {
+                list.add(element);
+            }
+
+            race(() -> list.remove("b"), () -> list.remove("c"), () -> list.remove("d"));
+
+            assertEquals(List.of("a", "e"), new ArrayList<>(list));
+        }
+    }
+
+    @Test void testConcurrentAddsAndRemoves() throws Exception {
+        int threads = 8;
+        int perThread = 2_000;
+        ConcurrentLinkedList list = new ConcurrentLinkedList();
+        List<Callable<Boolean>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers.add(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    list.add(thread + ":" + i);
+                    if (i % 2 == 1) {
+                        assertTrue(list.remove(thread + ":" + (i - 1)));
+                    }
+                    if (i % 100 == 0) {
+                        for (String ignored : list) {
+                            // Iterating while others modify must not fail
+                        }
+                    }
+                }
+                return true;
+            });
+        }
+
+        race(workers);
+
+        Set<String> expected = new HashSet<>();
+        for (int t = 0; t < threads; t++) {
+            for (int i = 1; i < perThread; i += 2) {
+                expected.add(t + ":" + i);
+            }
+        }
+        List<String> actual = new ArrayList<>(list);
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected, new HashSet<>(actual));
+        assertEquals(expected.size(), list.size());
+    }
+
+    @SafeVarargs
+    private static <T> List<T> race(Callable<T>... actions) throws Exception {
+        return race(List.of(actions));
+    }
+
+    private static <T> List<T> race(List<Callable<T>> actions) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(actions.size());
+        try {
+            CyclicBarrier start = new CyclicBarrier(actions.size());
+            List<Future<T>> futures = new ArrayList<>();
+            for (Callable<T> action : actions) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return action.call();
+                }));
+            }
+
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package datorum.list;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentLinkedListTest {
+    @Test void testAddAndRemove() {
+        ConcurrentLinkedList list = new ConcurrentLinkedList();
+        assertTrue(list.isEmpty());
+
+        list.add("one");
+        list.add("two");
+        list.add("three");
+        assertEquals(3, list.size());
+        assertEquals(List.of("one", "two", "three"), new ArrayList<>(list));
+
+        assertTrue(list.remove("two"));
+        assertFalse(list.remove("two"));
+        assertTrue(list.remove("three"));
+        list.add("four");
+        assertEquals(List.of("one", "four"), new ArrayList<>(list));
+        assertEquals(2, list.size());
+        assertTrue(list.contains("four"));
+        assertFalse(list.contains("three"));
+    }
+
+    @Test void testRejectsNull() {
+        ConcurrentLinkedList list = new ConcurrentLinkedList();
+
+        assertThrows(IllegalArgumentException.class, () -> list.add(null));
+        assertFalse(list.remove(null));
+    }
+
+    @Test void testIteratorIsWeaklyConsistent() {
+        ConcurrentLinkedList list = new ConcurrentLinkedList();
+        list.add("one");
+        list.add("two");
+
+        Iterator<String> it = list.iterator();
+        assertEquals("one", it.next());
+        list.add("three");
+        assertTrue(list.remove("one"));
+        it.remove();
+        assertEquals("two", it.next());
+        it.remove();
+        assertEquals("three", it.next());
+        assertFalse(it.hasNext());
+        assertThrows(NoSuchElementException.class, it::next);
+
+        assertEquals(List.of("three"), new ArrayList<>(list));
+        assertEquals(1, list.size());
+    }
+
+    @Test void testClear() {
+        ConcurrentLinkedList list = new ConcurrentLinkedList();
+        list.add("one");
+        list.add("two");
+
+        list.clear();
+        assertTrue(list.isEmpty());
+        assertEquals(0, list.size());
+
+        list.add("three");
+        assertEquals(List.of("three"), new ArrayList<>(list));
+    }
+}
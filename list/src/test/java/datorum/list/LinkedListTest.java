@@ -5,6 +5,14 @@ package datorum.list;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class LinkedListTest {
@@ -47,4 +55,139 @@ class LinkedListTest {
         assertFalse(list.remove("three"));
         assertEquals(2, list.size());
     }
+
+    @Test void testIndexedAccess() {
+        LinkedList list = new LinkedList();
+        for (int i = 0; i < 100; i++) {
+            list.add("e" + i);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("e" + i, list.get(i));
+        }
+        for (int i = 99; i >= 0; i--) {
+            assertEquals("e" + i, list.get(i));
+        }
+        assertEquals("e50", list.get(50));
+        assertEquals("e3", list.get(3));
+        assertEquals("e97", list.get(97));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(100));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(-1));
+    }
+
+    @Test void testInsertAndRemoveAtIndex() {
+        LinkedList list = new LinkedList(List.of("a", "c"));
+
+        list.add(1, "b");
+        list.add(0, "start");
+        list.add(4, "end");
+        assertEquals(List.of("start", "a", "b", "c", "end"), list);
+
+        assertEquals("b", list.remove(2));
+        assertEquals("start", list.remove(0));
+        assertEquals("end", list.remove(2));
+        assertEquals("a", list.set(0, "x"));
+        assertEquals(List.of("x", "c"), list);
+    }
+
+    @Test void testBehavesLikeArrayList() {
+        LinkedList list = new LinkedList();
+        List<String> expected = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 1000; i++) {
+            int operation = random.nextInt(4);
+            String element = "e" + random.nextInt(50);
+            if (operation == 0 || expected.isEmpty()) {
+                int index = random.nextInt(expected.size() + 1);
+                list.add(index, element);
+                expected.add(index, element);
+            } else if (operation == 1) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), list.remove(index));
+            } else if (operation == 2) {
+                assertEquals(expected.remove(element), list.remove(element));
+            } else {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.get(index), list.get(index));
+            }
+            assertEquals(expected.size(), list.size());
+        }
+        assertEquals(expected, list);
+        assertEquals(expected.hashCode(), list.hashCode());
+    }
+
+    @Test void testIterator() {
+        LinkedList list = new LinkedList(List.of("one", "two", "three", "four"));
+
+        Iterator<String> it = list.iterator();
+        while (it.hasNext()) {
+            if (it.next().startsWith("t")) {
+                it.remove();
+            }
+        }
+        assertEquals(List.of("one", "four"), list);
+
+        ListIterator<String> listIterator = list.listIterator(list.size());
+        assertEquals("four", listIterator.previous());
+        listIterator.add("three");
+        assertThrows(IllegalStateException.class, () -> listIterator.set("ignored"));
+        assertEquals(List.of("one", "three", "four"), list);
+    }
+
+    @Test void testAppend() {
+        LinkedList list = new LinkedList(List.of("one", "two"));
+        LinkedList other = new LinkedList(List.of("three", "four"));
+
+        list.append(other);
+        list.append(new LinkedList());
+
+        assertEquals(List.of("one", "two", "three", "four"), list);
+        assertEquals("four", list.get(3));
+        assertEquals("three", list.listIterator(3).previous());
+        assertTrue(other.isEmpty());
+
+        LinkedList empty = new LinkedList();
+        empty.append(list);
+        assertEquals(List.of("one", "two", "three", "four"), empty);
+        assertThrows(IllegalArgumentException.class, () -> empty.append(null));
+    }
+
+    @Test void testIteratorFailsOnConcurrentModification() {
+        LinkedList list = new LinkedList(List.of("one", "two"));
+
+        Iterator<String> it = list.iterator();
+        it.next();
+        list.add("three");
+        assertThrows(ConcurrentModificationException.class, it::next);
+    }
+
+    @Test void testConcurrentIndexedReads() throws InterruptedException {
+        LinkedList list = new LinkedList();
+        for (int i = 0; i < 1000; i++) {
+            list.add("e" + i);
+        }
+
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int step = t + 1;
+            readers.add(new Thread(() -> {
+                try {
+                    // Small steps around the middle walk from the cursor the other readers keep moving
+                    for (int i = 0; i < 200_000; i++) {
+                        int index = 250 + (i * step) % 500;
+                        assertEquals("e" + index, list.get(index));
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        readers.forEach(Thread::start);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertEquals(List.of(), failures);
+    }
 }
@@ -5,16 +5,138 @@ package datorum.utilities;
 
 import datorum.list.LinkedList;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
 class JoinUtils {
     public static String join(LinkedList source) {
-        StringBuilder result = new StringBuilder();
-        for (int i = 0; i < source.size(); ++i) {
-            if (result.length() > 0) {
-                result.append(" ");
+        return join(source, " ");
+    }
+
+    /**
+     * Joins the tokens into a string allocated once at its exact length.
+     */
+    public static String join(Iterable<? extends CharSequence> source, CharSequence separator) {
+        StringBuilder result = new StringBuilder(length(source, separator));
+        joinTo(source, separator, result);
+        return result.toString();
+    }
+
+    public static <A extends Appendable> A joinTo(Iterable<? extends CharSequence> source, CharSequence separator,
+                                                  A out) {
+        try {
+            boolean first = true;
+            for (CharSequence token : source) {
+                if (!first) {
+                    out.append(separator);
+                }
+                out.append(token);
+                first = false;
             }
-            result.append(source.get(i));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
 
-        return result.toString();
+        return out;
+    }
+
+    /**
+     * Writes the tokens to the buffer in UTF-8, with unpaired surrogates written as {@code '?'}.
+     *
+     * @throws BufferOverflowException when the buffer has less than {@link #utf8Length} bytes remaining, in which case
+     *                                 nothing is written
+     */
+    public static ByteBuffer joinTo(Iterable<? extends CharSequence> source, CharSequence separator, ByteBuffer out) {
+        if (out.remaining() < utf8Length(source, separator)) {
+            throw new BufferOverflowException();
+        }
+
+        boolean first = true;
+        for (CharSequence token : source) {
+            if (!first) {
+                encode(separator, out);
+            }
+            encode(token, out);
+            first = false;
+        }
+
+        return out;
+    }
+
+    public static int length(Iterable<? extends CharSequence> source, CharSequence separator) {
+        long length = 0;
+        int count = 0;
+        for (CharSequence token : source) {
+            length += token.length();
+            count++;
+        }
+        if (count > 1) {
+            length += (long) separator.length() * (count - 1);
+        }
+
+        return Math.toIntExact(length);
+    }
+
+    public static int utf8Length(Iterable<? extends CharSequence> source, CharSequence separator) {
+        long length = 0;
+        int count = 0;
+        for (CharSequence token : source) {
+            length += utf8Length(token);
+            count++;
+        }
+        if (count > 1) {
+            length += (long) utf8Length(separator) * (count - 1);
+        }
+
+        return Math.toIntExact(length);
+    }
+
+    private static int utf8Length(CharSequence text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+
+        return length;
+    }
+
+    private static void encode(CharSequence text, ByteBuffer out) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | c >> 6));
+                out.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                out.put((byte) (0xF0 | codePoint >> 18));
+                out.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                out.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                out.put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                out.put((byte) '?');
+            } else {
+                out.put((byte) (0xE0 | c >> 12));
+                out.put((byte) (0x80 | c >> 6 & 0x3F));
+                out.put((byte) (0x80 | c & 0x3F));
+            }
+        }
     }
 }
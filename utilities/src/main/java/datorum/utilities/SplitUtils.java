@@ -5,35 +5,93 @@ package datorum.utilities;
 
 import datorum.list.LinkedList;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
 class SplitUtils {
+    /**
+     * Inputs shorter than this are split sequentially, since forking would cost more than it saves.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 20;
+
+    private static final int MIN_CHUNK_SIZE = 1 << 16;
+
     public static LinkedList split(String source) {
-        int lastFind = 0;
-        int currentFind = 0;
-        LinkedList result = new LinkedList();
+        return split(source, Tokenizer.SPACE);
+    }
 
-        while ((currentFind = source.indexOf(" ", lastFind)) != -1) {
-            String token = source.substring(lastFind);
-            if (currentFind != -1) {
-                token = token.substring(0, currentFind - lastFind);
-            }
+    public static LinkedList split(CharSequence source, String delimiters) {
+        return split(source, 0, source.length(), delimiters);
+    }
 
-            addIfValid(token, result);
-            lastFind = currentFind + 1;
+    /**
+     * Splits the source in chunks that end at a delimiter, tokenizes the chunks on the common {@link ForkJoinPool} and
+     * concatenates their tokens in order, which gives the same result as {@link #split(CharSequence, String)}.
+     */
+    public static LinkedList parallelSplit(CharSequence source, String delimiters) {
+        if (source == null) {
+            throw new IllegalArgumentException("source cannot be null");
         }
 
-        String token = source.substring(lastFind);
-        addIfValid(token, result);
+        if (source.length() < PARALLEL_THRESHOLD) {
+            return split(source, delimiters);
+        }
 
-        return result;
+        // A few chunks per worker, so that workers that finish early can steal from the others
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, source.length() / (ForkJoinPool.getCommonPoolParallelism() * 4));
+        return ForkJoinPool.commonPool().invoke(new SplitTask(source, 0, source.length(), delimiters, chunkSize));
     }
 
-    private static void addIfValid(String token, LinkedList list) {
-        if (isTokenValid(token)) {
-            list.add(token);
+    private static LinkedList split(CharSequence source, int from, int to, String delimiters) {
+        LinkedList result = new LinkedList();
+        Tokenizer tokenizer = new Tokenizer(source, from, to, delimiters);
+        while (tokenizer.hasNext()) {
+            result.add(tokenizer.next().toString());
         }
+
+        return result;
     }
 
-    private static boolean isTokenValid(String token) {
-        return !token.isEmpty();
+    private static class SplitTask extends RecursiveTask<LinkedList> {
+        private final CharSequence source;
+
+        private final int from;
+
+        private final int to;
+
+        private final String delimiters;
+
+        private final int chunkSize;
+
+        SplitTask(CharSequence source, int from, int to, String delimiters, int chunkSize) {
+            this.source = source;
+            this.from = from;
+            this.to = to;
+            this.delimiters = delimiters;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected LinkedList compute() {
+            if (to - from <= chunkSize) {
+                return split(source, from, to, delimiters);
+            }
+
+            // Move the cut to the next delimiter, so that no token is split between the halves
+            int middle = (from + to) >>> 1;
+            while (middle < to && delimiters.indexOf(source.charAt(middle)) < 0) {
+                middle++;
+            }
+            if (middle == to) {
+                return split(source, from, to, delimiters);
+            }
+
+            SplitTask left = new SplitTask(source, from, middle, delimiters, chunkSize);
+            left.fork();
+            LinkedList right = new SplitTask(source, middle, to, delimiters, chunkSize).compute();
+            LinkedList result = left.join();
+            result.append(right);
+            return result;
+        }
     }
 }
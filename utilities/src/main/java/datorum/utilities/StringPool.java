@@ -0,0 +1,183 @@
+package datorum.utilities;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, lock-free pool that makes repeated strings such as names and enum-like values share one instance.
+ * <p>
+ * The pool is a direct-mapped cache: each string has one slot, chosen by its hash, and a string that finds its slot
+ * taken by a different one replaces it, so the most recently pooled of two colliding strings stays. Memory is fixed at
+ * the capacity and lookups neither lock nor allocate, at the price of occasionally handing out a second instance of
+ * a string whose slot another string took in between. Strings longer than the maximum length are returned as they are,
+ * since long values rarely repeat.
+ */
+public final class StringPool {
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    public static final int DEFAULT_MAX_LENGTH = 64;
+
+    private static final StringPool SHARED = new StringPool(
+            Integer.getInteger("datorum.stringPool.capacity", DEFAULT_CAPACITY), DEFAULT_MAX_LENGTH);
+
+    private final AtomicReferenceArray<String> slots;
+
+    private final int mask;
+
+    private final int maxLength;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    public StringPool() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * @param capacity  the number of slots, rounded up to a power of two
+     * @param maxLength the length above which strings are not pooled
+     */
+    public StringPool(int capacity, int maxLength) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+        }
+
+        if (maxLength < 0) {
+            throw new IllegalArgumentException("maxLength cannot be negative");
+        }
+
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Returns the pool shared by the engine, sized by the {@code datorum.stringPool.capacity} system property.
+     */
+    public static StringPool shared() {
+        return SHARED;
+    }
+
+    public String intern(String value) {
+        if (value == null || value.length() > maxLength) {
+            return value;
+        }
+
+        int slot = spread(value.hashCode()) & mask;
+        String pooled = slots.get(slot);
+        if (value.equals(pooled)) {
+            hits.increment();
+            return pooled;
+        }
+
+        store(slot, pooled, value);
+        return value;
+    }
+
+    /**
+     * Returns the pooled string with the contents of the sequence, only creating a string when it is not pooled yet.
+     */
+    public String intern(CharSequence value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof String string) {
+            return intern(string);
+        }
+        if (value.length() > maxLength) {
+            return value.toString();
+        }
+
+        int hash = 0;
+        for (int i = 0; i < value.length(); i++) {
+            hash = 31 * hash + value.charAt(i);
+        }
+
+        int slot = spread(hash) & mask;
+        String pooled = slots.get(slot);
+        if (pooled != null && pooled.contentEquals(value)) {
+            hits.increment();
+            return pooled;
+        }
+
+        String result = value.toString();
+        store(slot, pooled, result);
+        return result;
+    }
+
+    /**
+     * Returns the pooled string decoded from the UTF-8 bytes. ASCII strings are looked up without being decoded first.
+     */
+    public String intern(byte[] utf8, int offset, int length) {
+        if (length > maxLength) {
+            return new String(utf8, offset, length, StandardCharsets.UTF_8);
+        }
+
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            byte b = utf8[i];
+            if (b < 0) {
+                return intern(new String(utf8, offset, length, StandardCharsets.UTF_8));
+            }
+            hash = 31 * hash + b;
+        }
+
+        int slot = spread(hash) & mask;
+        String pooled = slots.get(slot);
+        if (pooled != null && pooled.length() == length && asciiEquals(pooled, utf8, offset)) {
+            hits.increment();
+            return pooled;
+        }
+
+        String result = new String(utf8, offset, length, StandardCharsets.ISO_8859_1);
+        store(slot, pooled, result);
+        return result;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of pooled strings that were replaced by a colliding one.
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public double hitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    private void store(int slot, String previous, String value) {
+        misses.increment();
+        if (previous != null) {
+            evictions.increment();
+        }
+        slots.lazySet(slot, value);
+    }
+
+    private static boolean asciiEquals(String pooled, byte[] utf8, int offset) {
+        for (int i = 0; i < pooled.length(); i++) {
+            if (pooled.charAt(i) != utf8[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
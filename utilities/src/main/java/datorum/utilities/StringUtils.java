@@ -5,12 +5,61 @@ package datorum.utilities;
 
 import datorum.list.LinkedList;
 
+import java.io.Reader;
+import java.nio.ByteBuffer;
+
 public class StringUtils {
     public static String join(LinkedList source) {
         return JoinUtils.join(source);
     }
 
+    public static String join(Iterable<? extends CharSequence> source, CharSequence separator) {
+        return JoinUtils.join(source, separator);
+    }
+
+    /**
+     * Appends the joined tokens to the given {@link Appendable}, e.g. a {@link java.io.Writer}, without building the
+     * whole string first.
+     */
+    public static <A extends Appendable> A joinTo(Iterable<? extends CharSequence> source, CharSequence separator,
+                                                  A out) {
+        return JoinUtils.joinTo(source, separator, out);
+    }
+
+    /**
+     * Writes the joined tokens to the buffer in UTF-8; {@link #utf8Length} tells how many bytes that takes.
+     */
+    public static ByteBuffer joinTo(Iterable<? extends CharSequence> source, CharSequence separator, ByteBuffer out) {
+        return JoinUtils.joinTo(source, separator, out);
+    }
+
+    public static int utf8Length(Iterable<? extends CharSequence> source, CharSequence separator) {
+        return JoinUtils.utf8Length(source, separator);
+    }
+
     public static LinkedList split(String source) {
         return SplitUtils.split(source);
     }
+
+    /**
+     * Splits the source at any of the given delimiter characters, skipping empty tokens.
+     */
+    public static LinkedList split(CharSequence source, String delimiters) {
+        return SplitUtils.split(source, delimiters);
+    }
+
+    /**
+     * Splits the source like {@link #split(CharSequence, String)}, tokenizing chunks of inputs of a million
+     * characters or more on the common {@link java.util.concurrent.ForkJoinPool}.
+     */
+    public static LinkedList parallelSplit(CharSequence source, String delimiters) {
+        return SplitUtils.parallelSplit(source, delimiters);
+    }
+
+    /**
+     * Returns the tokens of the reader between any of the given delimiter characters, reading it incrementally.
+     */
+    public static Tokenizer tokenize(Reader reader, String delimiters) {
+        return new Tokenizer(reader, delimiters);
+    }
 }
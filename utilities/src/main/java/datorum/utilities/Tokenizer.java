@@ -0,0 +1,221 @@
+package datorum.utilities;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Splits text into the tokens between any of a set of delimiter characters, skipping empty tokens.
+ * <p>
+ * Tokens are returned as {@link CharSequence} views, so nothing is copied unless the caller turns a token into a
+ * {@code String}. Text can be read incrementally from a {@link Reader} through a buffer that only grows to hold the
+ * longest token, so inputs of any size are tokenized in constant memory; the views then point into that buffer and are
+ * only valid until the next call to {@link #hasNext()} or {@link #next()}.
+ */
+public final class Tokenizer implements Iterator<CharSequence> {
+    public static final String SPACE = " ";
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final CharSequence source;
+
+    private final Reader reader;
+
+    private final long[] asciiDelimiters = new long[2];
+
+    private final String otherDelimiters;
+
+    private char[] buffer;
+
+    private int position;
+
+    private int limit;
+
+    private long offset;
+
+    private boolean eof;
+
+    private boolean pending;
+
+    private int tokenStart;
+
+    private int tokenEnd;
+
+    public Tokenizer(CharSequence source) {
+        this(source, SPACE);
+    }
+
+    public Tokenizer(CharSequence source, String delimiters) {
+        this(source, null, delimiters, 0);
+    }
+
+    /**
+     * Tokenizes the characters of the source from {@code from}, inclusive, to {@code to}, exclusive; offsets returned
+     * by {@link #start()} and {@link #end()} stay relative to the whole source.
+     */
+    public Tokenizer(CharSequence source, int from, int to, String delimiters) {
+        this(source, null, delimiters, 0);
+        if (from < 0 || to > source.length() || from > to) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") is out of bounds");
+        }
+
+        this.position = from;
+        this.limit = to;
+    }
+
+    public Tokenizer(Reader reader, String delimiters) {
+        this(reader, delimiters, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param bufferSize the initial size of the buffer, which grows when a token does not fit
+     */
+    public Tokenizer(Reader reader, String delimiters, int bufferSize) {
+        this(null, reader, delimiters, bufferSize);
+    }
+
+    private Tokenizer(CharSequence source, Reader reader, String delimiters, int bufferSize) {
+        if (source == null && reader == null) {
+            throw new IllegalArgumentException("source cannot be null");
+        }
+
+        if (delimiters == null || delimiters.isEmpty()) {
+            throw new IllegalArgumentException("delimiters cannot be null or empty");
+        }
+
+        if (reader != null && bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize must be positive");
+        }
+
+        StringBuilder others = new StringBuilder();
+        for (int i = 0; i < delimiters.length(); i++) {
+            char c = delimiters.charAt(i);
+            if (c < 128) {
+                asciiDelimiters[c >>> 6] |= 1L << c;
+            } else {
+                others.append(c);
+            }
+        }
+
+        this.source = source;
+        this.reader = reader;
+        this.otherDelimiters = others.toString();
+        if (reader != null) {
+            this.buffer = new char[bufferSize];
+        } else {
+            this.limit = source.length();
+            this.eof = true;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (pending) {
+            return true;
+        }
+
+        while (true) {
+            while (position < limit && isDelimiter(charAt(position))) {
+                position++;
+            }
+            if (position < limit) {
+                break;
+            }
+            if (!fill(position)) {
+                return false;
+            }
+        }
+
+        int end = position + 1;
+        while (true) {
+            while (end < limit && !isDelimiter(charAt(end))) {
+                end++;
+            }
+            if (end < limit) {
+                break;
+            }
+            // Filling moves the token to the start of the buffer even when it finds the end of the input
+            int start = position;
+            boolean filled = fill(position);
+            end -= start - position;
+            if (!filled) {
+                break;
+            }
+        }
+
+        tokenStart = position;
+        tokenEnd = end;
+        position = end;
+        pending = true;
+        return true;
+    }
+
+    @Override
+    public CharSequence next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        pending = false;
+        return reader == null
+                ? CharBuffer.wrap(source, tokenStart, tokenEnd)
+                : CharBuffer.wrap(buffer, tokenStart, tokenEnd - tokenStart);
+    }
+
+    /**
+     * Returns the offset in the input of the first character of the last token returned by {@link #next()}.
+     */
+    public long start() {
+        return offset + tokenStart;
+    }
+
+    /**
+     * Returns the offset in the input after the last character of the last token returned by {@link #next()}.
+     */
+    public long end() {
+        return offset + tokenEnd;
+    }
+
+    private boolean isDelimiter(char c) {
+        return c < 128 ? (asciiDelimiters[c >>> 6] & (1L << c)) != 0 : otherDelimiters.indexOf(c) >= 0;
+    }
+
+    private char charAt(int index) {
+        return reader == null ? source.charAt(index) : buffer[index];
+    }
+
+    /**
+     * Reads more input, keeping the characters from {@code keep} on, which moves them to the start of the buffer.
+     *
+     * @return whether more input was read
+     */
+    private boolean fill(int keep) {
+        if (eof) {
+            return false;
+        }
+
+        System.arraycopy(buffer, keep, buffer, 0, limit - keep);
+        limit -= keep;
+        position -= keep;
+        offset += keep;
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+
+        try {
+            int read = reader.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                eof = true;
+                return false;
+            }
+            limit += read;
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package datorum.utilities.primitive;
+
+import java.util.Arrays;
+
+/**
+ * A hash map keyed on pairs of {@code long}s, such as the generation and number of a {@code BigId}, without wrapper
+ * objects for the keys.
+ * <p>
+ * Both halves of each key are stored next to each other in one array, so a lookup reads a single cache line for the
+ * key. Like {@link LongObjectMap}, it uses linear probing with backward-shift removal, and values cannot be
+ * {@literal null}. Not thread-safe.
+ */
+public class BigIdMap<V> {
+    private long[] keys;
+
+    private Object[] values;
+
+    private int mask;
+
+    private int threshold;
+
+    private int size;
+
+    public BigIdMap() {
+        this(16);
+    }
+
+    public BigIdMap(int expectedSize) {
+        allocate(Hashing.capacity(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long gen, long num) {
+        return slot(gen, num) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long gen, long num) {
+        int slot = slot(gen, num);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    /**
+     * @return the previous value of the key, or {@literal null} when it had none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long gen, long num, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value cannot be null");
+        }
+
+        int i = Hashing.mix(gen, num) & mask;
+        while (values[i] != null) {
+            if (keys[2 * i] == gen && keys[2 * i + 1] == num) {
+                V previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+
+        keys[2 * i] = gen;
+        keys[2 * i + 1] = num;
+        values[i] = value;
+        if (++size > threshold) {
+            rehash(Hashing.grow(values.length));
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(long gen, long num) {
+        int slot = slot(gen, num);
+        if (slot < 0) {
+            return null;
+        }
+
+        V previous = (V) values[slot];
+        shiftBack(slot);
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> consumer) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                consumer.accept(keys[2 * i], keys[2 * i + 1], (V) values[i]);
+            }
+        }
+    }
+
+    private int slot(long gen, long num) {
+        int i = Hashing.mix(gen, num) & mask;
+        while (values[i] != null) {
+            if (keys[2 * i] == gen && keys[2 * i + 1] == num) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void shiftBack(int gap) {
+        for (int i = (gap + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+            int home = Hashing.mix(keys[2 * i], keys[2 * i + 1]) & mask;
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[2 * gap] = keys[2 * i];
+                keys[2 * gap + 1] = keys[2 * i + 1];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        values[gap] = null;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int j = Hashing.mix(oldKeys[2 * i], oldKeys[2 * i + 1]) & mask;
+                while (values[j] != null) {
+                    j = (j + 1) & mask;
+                }
+                keys[2 * j] = oldKeys[2 * i];
+                keys[2 * j + 1] = oldKeys[2 * i + 1];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[2 * capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        threshold = Hashing.threshold(capacity);
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(long gen, long num, V value);
+    }
+}
@@ -0,0 +1,57 @@
+package datorum.utilities.primitive;
+
+/**
+ * Hashing and sizing shared by the open-addressing tables of this package.
+ */
+final class Hashing {
+    static final float LOAD_FACTOR = 0.75f;
+
+    static final int MAX_CAPACITY = 1 << 30;
+
+    private Hashing() {
+    }
+
+    /**
+     * The MurmurHash3 finalizer, which spreads sequential and patterned ids over all bits.
+     */
+    static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    static int mix(long high, long low) {
+        return mix(high * 0x9e3779b97f4a7c15L + low);
+    }
+
+    /**
+     * Returns the power of two table capacity that holds the expected number of entries without resizing.
+     */
+    static int capacity(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize cannot be negative");
+        }
+
+        long needed = (long) Math.ceil(Math.max(expectedSize, 1) / (double) LOAD_FACTOR) + 1;
+        if (needed > MAX_CAPACITY) {
+            throw new IllegalArgumentException("expectedSize is too large: " + expectedSize);
+        }
+
+        return Math.max(2, Integer.highestOneBit((int) needed - 1) << 1);
+    }
+
+    static int threshold(int capacity) {
+        return Math.min(capacity - 1, (int) (capacity * LOAD_FACTOR));
+    }
+
+    static int grow(int capacity) {
+        if (capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException("Table cannot grow beyond " + MAX_CAPACITY + " slots");
+        }
+
+        return capacity << 1;
+    }
+}
@@ -0,0 +1,161 @@
+package datorum.utilities.primitive;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * A hash set of {@code long} values in a flat array, with open addressing and linear probing.
+ * <p>
+ * A value of 0 marks an empty slot, so whether the set contains 0 is kept beside the table. Not thread-safe.
+ */
+public class LongHashSet {
+    private long[] values;
+
+    private int mask;
+
+    private int threshold;
+
+    private int size;
+
+    private boolean hasZero;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    public LongHashSet(int expectedSize) {
+        allocate(Hashing.capacity(expectedSize));
+    }
+
+    public int size() {
+        return size + (hasZero ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean contains(long value) {
+        if (value == 0) {
+            return hasZero;
+        }
+
+        int i = Hashing.mix(value) & mask;
+        while (values[i] != 0) {
+            if (values[i] == value) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * @return whether the value was added, i.e. was not in the set yet
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            boolean added = !hasZero;
+            hasZero = true;
+            return added;
+        }
+
+        int i = Hashing.mix(value) & mask;
+        while (values[i] != 0) {
+            if (values[i] == value) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+
+        values[i] = value;
+        if (++size > threshold) {
+            rehash(Hashing.grow(values.length));
+        }
+        return true;
+    }
+
+    /**
+     * @return whether the value was removed, i.e. was in the set
+     */
+    public boolean remove(long value) {
+        if (value == 0) {
+            boolean removed = hasZero;
+            hasZero = false;
+            return removed;
+        }
+
+        int i = Hashing.mix(value) & mask;
+        while (values[i] != 0) {
+            if (values[i] == value) {
+                shiftBack(i);
+                size--;
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    public void clear() {
+        Arrays.fill(values, 0);
+        size = 0;
+        hasZero = false;
+    }
+
+    public void forEach(LongConsumer consumer) {
+        if (hasZero) {
+            consumer.accept(0);
+        }
+        for (long value : values) {
+            if (value != 0) {
+                consumer.accept(value);
+            }
+        }
+    }
+
+    public long[] toArray() {
+        long[] result = new long[size()];
+        int n = 0;
+        if (hasZero) {
+            result[n++] = 0;
+        }
+        for (long value : values) {
+            if (value != 0) {
+                result[n++] = value;
+            }
+        }
+        return result;
+    }
+
+    private void shiftBack(int gap) {
+        for (int i = (gap + 1) & mask; values[i] != 0; i = (i + 1) & mask) {
+            int home = Hashing.mix(values[i]) & mask;
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        values[gap] = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = values;
+        allocate(capacity);
+        for (long value : old) {
+            if (value != 0) {
+                int j = Hashing.mix(value) & mask;
+                while (values[j] != 0) {
+                    j = (j + 1) & mask;
+                }
+                values[j] = value;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        values = new long[capacity];
+        mask = capacity - 1;
+        threshold = Hashing.threshold(capacity);
+    }
+}
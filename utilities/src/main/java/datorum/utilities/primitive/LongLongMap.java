@@ -0,0 +1,205 @@
+package datorum.utilities.primitive;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from {@code long} keys to {@code long} values in two flat arrays, with open addressing and linear probing.
+ * <p>
+ * A key of 0 marks an empty slot, so a mapping for key 0 is kept beside the table. Lookups of missing keys return the
+ * {@code missingValue} given at construction. Not thread-safe.
+ */
+public class LongLongMap {
+    private final long missingValue;
+
+    private long[] keys;
+
+    private long[] values;
+
+    private int mask;
+
+    private int threshold;
+
+    private int size;
+
+    private boolean hasZeroKey;
+
+    private long zeroValue;
+
+    public LongLongMap() {
+        this(16, 0);
+    }
+
+    public LongLongMap(int expectedSize, long missingValue) {
+        this.missingValue = missingValue;
+        allocate(Hashing.capacity(expectedSize));
+    }
+
+    public long missingValue() {
+        return missingValue;
+    }
+
+    public int size() {
+        return size + (hasZeroKey ? 1 : 0);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return key == 0 ? hasZeroKey : slot(key) >= 0;
+    }
+
+    public long get(long key) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : missingValue;
+        }
+
+        int slot = slot(key);
+        return slot < 0 ? missingValue : values[slot];
+    }
+
+    /**
+     * @return the previous value of the key, or the missing value when it had none
+     */
+    public long put(long key, long value) {
+        if (key == 0) {
+            long previous = hasZeroKey ? zeroValue : missingValue;
+            hasZeroKey = true;
+            zeroValue = value;
+            return previous;
+        }
+
+        int i = Hashing.mix(key) & mask;
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                long previous = values[i];
+                values[i] = value;
+                return previous;
+            }
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        values[i] = value;
+        if (++size > threshold) {
+            rehash(Hashing.grow(keys.length));
+        }
+        return missingValue;
+    }
+
+    /**
+     * Adds the delta to the value of the key, starting from 0 when it has none, and returns the new value.
+     */
+    public long addTo(long key, long delta) {
+        if (key == 0) {
+            zeroValue = (hasZeroKey ? zeroValue : 0) + delta;
+            hasZeroKey = true;
+            return zeroValue;
+        }
+
+        int i = Hashing.mix(key) & mask;
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                return values[i] += delta;
+            }
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        values[i] = delta;
+        if (++size > threshold) {
+            rehash(Hashing.grow(keys.length));
+        }
+        return delta;
+    }
+
+    /**
+     * @return the previous value of the key, or the missing value when it had none
+     */
+    public long remove(long key) {
+        if (key == 0) {
+            long previous = hasZeroKey ? zeroValue : missingValue;
+            hasZeroKey = false;
+            return previous;
+        }
+
+        int slot = slot(key);
+        if (slot < 0) {
+            return missingValue;
+        }
+
+        long previous = values[slot];
+        shiftBack(slot);
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+        hasZeroKey = false;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private int slot(long key) {
+        int i = Hashing.mix(key) & mask;
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void shiftBack(int gap) {
+        for (int i = (gap + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            int home = Hashing.mix(keys[i]) & mask;
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        keys[gap] = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int j = Hashing.mix(oldKeys[i]) & mask;
+                while (keys[j] != 0) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        threshold = Hashing.threshold(capacity);
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+}
@@ -0,0 +1,51 @@
+package datorum.utilities;
+
+import datorum.list.LinkedList;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JoinUtilsTest {
+    @Test void testJoin() {
+        assertEquals("a b c", StringUtils.join(StringUtils.split(" a  b c ")));
+        assertEquals("", StringUtils.join(new LinkedList()));
+        assertEquals("a, b", StringUtils.join(List.of("a", "b"), ", "));
+        assertEquals("a", StringUtils.join(List.of("a"), ", "));
+    }
+
+    @Test void testExactLength() {
+        assertEquals(7, JoinUtils.length(List.of("a", "b", "c"), ", "));
+        assertEquals(0, JoinUtils.length(List.of(), ", "));
+    }
+
+    @Test void testJoinToWriter() {
+        StringWriter out = new StringWriter();
+
+        StringUtils.joinTo(List.of("one", "two"), "|", out);
+
+        assertEquals("one|two", out.toString());
+    }
+
+    @Test void testJoinToByteBuffer() {
+        List<String> tokens = List.of("plain", "żółw", "€", "😀", "broken\uD800");
+        String expected = String.join("·", tokens);
+        byte[] bytes = expected.getBytes(StandardCharsets.UTF_8);
+
+        int length = StringUtils.utf8Length(tokens, "·");
+        assertEquals(bytes.length, length);
+
+        ByteBuffer out = StringUtils.joinTo(tokens, "·", ByteBuffer.allocate(length));
+        assertEquals(0, out.remaining());
+        assertArrayEquals(bytes, out.array());
+
+        ByteBuffer small = ByteBuffer.allocate(length - 1);
+        assertThrows(BufferOverflowException.class, () -> StringUtils.joinTo(tokens, "·", small));
+        assertEquals(0, small.position());
+    }
+}
@@ -0,0 +1,38 @@
+package datorum.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SplitUtilsTest {
+    @Test void testParallelSplitMatchesSequential() {
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        while (builder.length() < SplitUtils.PARALLEL_THRESHOLD * 3) {
+            String token = "t" + random.nextInt(1_000_000);
+            expected.add(token);
+            builder.append(token).append(random.nextInt(4) == 0 ? " ,\n" : " ");
+        }
+        String text = builder.toString();
+
+        assertEquals(expected, StringUtils.parallelSplit(text, " ,\n"));
+        assertEquals(StringUtils.split(text, " ,\n"), StringUtils.parallelSplit(text, " ,\n"));
+    }
+
+    @Test void testParallelSplitWithoutDelimiters() {
+        String text = "x".repeat(SplitUtils.PARALLEL_THRESHOLD * 2) + " y";
+
+        assertEquals(List.of(text.substring(0, text.length() - 2), "y"), StringUtils.parallelSplit(text, " "));
+    }
+
+    @Test void testSmallInputsAreSplitSequentially() {
+        assertEquals(List.of("a", "b"), StringUtils.parallelSplit(" a  b ", " "));
+        assertEquals(List.of(), StringUtils.parallelSplit("", " "));
+        assertThrows(IllegalArgumentException.class, () -> StringUtils.parallelSplit(null, " "));
+    }
+}
@@ -0,0 +1,76 @@
+package datorum.utilities;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StringPoolTest {
+    @Test void testInternReturnsPooledInstance() {
+        StringPool pool = new StringPool(16, 64);
+        String first = new String("customer");
+        String second = new String("customer");
+
+        assertSame(first, pool.intern(first));
+        assertSame(first, pool.intern(second));
+        assertNull(pool.intern((String) null));
+    }
+
+    @Test void testInternSequenceAndBytes() {
+        StringPool pool = new StringPool(16, 64);
+        String pooled = pool.intern(new String("order_id"));
+
+        assertSame(pooled, pool.intern(CharBuffer.wrap("xorder_idx", 1, 9)));
+        byte[] bytes = "order_id".getBytes(StandardCharsets.UTF_8);
+        assertSame(pooled, pool.intern(bytes, 0, bytes.length));
+    }
+
+    @Test void testInternNonAsciiBytes() {
+        StringPool pool = new StringPool(16, 64);
+        byte[] bytes = "żółw".getBytes(StandardCharsets.UTF_8);
+
+        String first = pool.intern(bytes, 0, bytes.length);
+
+        assertEquals("żółw", first);
+        assertSame(first, pool.intern(bytes, 0, bytes.length));
+    }
+
+    @Test void testLongStringsAreNotPooled() {
+        StringPool pool = new StringPool(16, 4);
+        String value = new String("longer");
+
+        assertSame(value, pool.intern(value));
+        assertNotSame(value, pool.intern(new String("longer")));
+        assertEquals(0, pool.hits() + pool.misses());
+    }
+
+    @Test void testCollisionsEvict() {
+        StringPool pool = new StringPool(1, 64);
+        String a = pool.intern(new String("a"));
+        pool.intern(new String("b"));
+
+        assertNotSame(a, pool.intern(new String("a")));
+        assertEquals(2, pool.evictions());
+    }
+
+    @Test void testHitRate() {
+        StringPool pool = new StringPool(16, 64);
+        assertEquals(0, pool.hitRate());
+
+        pool.intern("x");
+        pool.intern("x");
+        pool.intern("x");
+        pool.intern("y");
+
+        assertEquals(2, pool.hits());
+        assertEquals(2, pool.misses());
+        assertEquals(0.5, pool.hitRate());
+    }
+
+    @Test void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new StringPool(0, 64));
+        assertThrows(IllegalArgumentException.class, () -> new StringPool(16, -1));
+    }
+}
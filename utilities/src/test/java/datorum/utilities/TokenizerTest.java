@@ -0,0 +1,108 @@
+package datorum.utilities;
+
+import datorum.list.LinkedList;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenizerTest {
+    @Test void testSplitSkipsEmptyTokens() {
+        assertEquals(List.of("a", "bc", "d"), StringUtils.split("  a bc   d "));
+        assertEquals(0, StringUtils.split("").size());
+        assertEquals(0, StringUtils.split("   ").size());
+    }
+
+    @Test void testDelimiterSet() {
+        LinkedList tokens = StringUtils.split("a,b;;c d", ",; ");
+
+        assertEquals(List.of("a", "b", "c", "d"), tokens);
+    }
+
+    @Test void testViewsAndOffsets() {
+        String source = "hello  world";
+        Tokenizer tokenizer = new Tokenizer(source);
+
+        CharSequence first = tokenizer.next();
+        assertEquals("hello", first.toString());
+        assertEquals(0, tokenizer.start());
+        assertEquals(5, tokenizer.end());
+
+        CharSequence second = tokenizer.next();
+        assertEquals("world", second.toString());
+        assertEquals(7, tokenizer.start());
+        assertEquals(12, tokenizer.end());
+
+        assertFalse(tokenizer.hasNext());
+        assertThrows(NoSuchElementException.class, tokenizer::next);
+    }
+
+    @Test void testReaderWithTokensLongerThanTheBuffer() {
+        StringBuilder source = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String token = "t".repeat(i % 23 + 1) + i;
+            expected.add(token);
+            source.append(token).append(i % 3 == 0 ? ", " : " ");
+        }
+
+        Tokenizer tokenizer = StringUtils.tokenize(new StringReader(source.toString()), " ,");
+        List<String> actual = new ArrayList<>();
+        long previousEnd = 0;
+        while (tokenizer.hasNext()) {
+            String token = tokenizer.next().toString();
+            actual.add(token);
+            assertEquals(token, source.substring((int) tokenizer.start(), (int) tokenizer.end()));
+            assertTrue(tokenizer.start() >= previousEnd);
+            previousEnd = tokenizer.end();
+        }
+
+        assertEquals(expected, actual);
+
+        Tokenizer small = new Tokenizer(new StringReader(source.toString()), " ,", 4);
+        List<String> fromSmallBuffer = new ArrayList<>();
+        small.forEachRemaining(token -> fromSmallBuffer.add(token.toString()));
+        assertEquals(expected, fromSmallBuffer);
+    }
+
+    @Test void testRange() {
+        Tokenizer tokenizer = new Tokenizer("ab cd ef", 1, 7, " ");
+
+        assertEquals("b", tokenizer.next().toString());
+        assertEquals(1, tokenizer.start());
+        assertEquals("cd", tokenizer.next().toString());
+        assertEquals("e", tokenizer.next().toString());
+        assertEquals(7, tokenizer.end());
+        assertFalse(tokenizer.hasNext());
+        assertThrows(IndexOutOfBoundsException.class, () -> new Tokenizer("ab", 1, 3, " "));
+    }
+
+    @Test void testReaderWithoutTrailingDelimiter() {
+        for (int bufferSize : new int[]{1, 2, 3, 5, 8, 64}) {
+            Tokenizer tokenizer = new Tokenizer(new StringReader("one two three"), " ", bufferSize);
+            List<String> tokens = new ArrayList<>();
+            List<Long> offsets = new ArrayList<>();
+            while (tokenizer.hasNext()) {
+                tokens.add(tokenizer.next().toString());
+                offsets.add(tokenizer.start());
+                offsets.add(tokenizer.end());
+            }
+
+            assertEquals(List.of("one", "two", "three"), tokens, "buffer size " + bufferSize);
+            assertEquals(List.of(0L, 3L, 4L, 7L, 8L, 13L), offsets, "buffer size " + bufferSize);
+        }
+
+        assertEquals(List.of("hello", "world"),
+                toStrings(StringUtils.tokenize(new StringReader("hello world"), " ")));
+    }
+
+    private static List<String> toStrings(Tokenizer tokenizer) {
+        List<String> result = new ArrayList<>();
+        tokenizer.forEachRemaining(token -> result.add(token.toString()));
+        return result;
+    }
+}
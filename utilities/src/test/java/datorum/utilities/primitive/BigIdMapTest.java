@@ -0,0 +1,51 @@
+package datorum.utilities.primitive;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BigIdMapTest {
+    private record Key(long gen, long num) {
+    }
+
+    @Test void testKeysDifferInEitherHalf() {
+        BigIdMap<String> map = new BigIdMap<>();
+
+        map.put(0, 1, "0:1");
+        map.put(1, 0, "1:0");
+        map.put(1, 1, "1:1");
+
+        assertEquals("0:1", map.get(0, 1));
+        assertEquals("1:0", map.get(1, 0));
+        assertEquals("1:1", map.get(1, 1));
+        assertNull(map.get(0, 0));
+        assertEquals(3, map.size());
+
+        assertEquals("1:0", map.remove(1, 0));
+        assertFalse(map.containsKey(1, 0));
+        assertTrue(map.containsKey(0, 1));
+    }
+
+    @Test void testBehavesLikeHashMap() {
+        BigIdMap<Integer> map = new BigIdMap<>(2);
+        Map<Key, Integer> expected = new HashMap<>();
+        Random random = new Random(19);
+        for (int i = 0; i < 200_000; i++) {
+            Key key = new Key(random.nextInt(4), random.nextInt(2_000));
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key.gen(), key.num()));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key.gen(), key.num(), i));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        Map<Key, Integer> visited = new HashMap<>();
+        map.forEach((gen, num, value) -> visited.put(new Key(gen, num), value));
+        assertEquals(expected, visited);
+    }
+}
@@ -0,0 +1,55 @@
+package datorum.utilities.primitive;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongLongMapTest {
+    @Test void testMissingValueAndZeroKey() {
+        LongLongMap map = new LongLongMap(0, -1);
+
+        assertEquals(-1, map.get(0));
+        assertEquals(-1, map.put(0, 5));
+        assertEquals(5, map.get(0));
+        assertTrue(map.containsKey(0));
+        assertEquals(1, map.size());
+        assertEquals(5, map.remove(0));
+        assertEquals(-1, map.remove(0));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test void testAddTo() {
+        LongLongMap map = new LongLongMap();
+
+        assertEquals(3, map.addTo(42, 3));
+        assertEquals(5, map.addTo(42, 2));
+        assertEquals(1, map.addTo(0, 1));
+        assertEquals(5, map.get(42));
+        assertEquals(2, map.size());
+    }
+
+    @Test void testBehavesLikeHashMap() {
+        LongLongMap map = new LongLongMap(1, Long.MIN_VALUE);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(13);
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000) - 100;
+            if (random.nextInt(3) == 0) {
+                Long previous = expected.remove(key);
+                assertEquals(previous == null ? Long.MIN_VALUE : previous, map.remove(key));
+            } else {
+                Long previous = expected.put(key, (long) i);
+                assertEquals(previous == null ? Long.MIN_VALUE : previous, map.put(key, i));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        Map<Long, Long> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+    }
+}
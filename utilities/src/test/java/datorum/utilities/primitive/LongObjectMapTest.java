@@ -0,0 +1,67 @@
+package datorum.utilities.primitive;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongObjectMapTest {
+    @Test void testPutGetRemove() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+
+        assertNull(map.put(0, "zero"));
+        assertNull(map.put(-1, "minus one"));
+        assertEquals("zero", map.put(0, "nought"));
+        assertEquals("nought", map.get(0));
+        assertEquals("minus one", map.get(-1));
+        assertNull(map.get(1));
+        assertEquals("default", map.getOrDefault(1, "default"));
+        assertEquals(2, map.size());
+
+        assertEquals("nought", map.remove(0));
+        assertNull(map.remove(0));
+        assertFalse(map.containsKey(0));
+        assertEquals(1, map.size());
+
+        assertThrows(IllegalArgumentException.class, () -> map.put(1, null));
+    }
+
+    @Test void testComputeIfAbsent() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+
+        assertEquals("7", map.computeIfAbsent(7, Long::toString));
+        assertEquals("7", map.computeIfAbsent(7, key -> "other"));
+        assertNull(map.computeIfAbsent(8, key -> null));
+        assertEquals(1, map.size());
+    }
+
+    @Test void testBehavesLikeHashMap() {
+        LongObjectMap<Long> map = new LongObjectMap<>(4);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 200_000; i++) {
+            // A small key range makes probe runs collide and exercises the backward shift on removal
+            long key = random.nextInt(5_000) * 1024L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        Map<Long, Long> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(1024));
+    }
+}